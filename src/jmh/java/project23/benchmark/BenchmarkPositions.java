@@ -0,0 +1,103 @@
+package project23.benchmark;
+
+import project23.framework.ConfigData;
+import project23.framework.Game;
+import project23.framework.GameManager;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPosition;
+import project23.framework.player.Player;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Loads the checked-in positions the benchmarks run on, and sets up boards on them.
+ * <p>
+ * The positions are in <code>src/jmh/resources/positions</code>, one file per game. Every line holds the name of a
+ * position followed by the position itself, as written by {@link BoardPosition#toString()}.
+ */
+public final class BenchmarkPositions {
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * @param gameType the game
+     * @param name     the name of the position
+     * @return the position
+     * @throws IllegalArgumentException when there is no position with that name
+     */
+    public static BoardPosition get(GameType gameType, String name) {
+        BoardPosition position = load(gameType).get(name);
+        if (position == null) {
+            throw new IllegalArgumentException("There is no " + gameType.displayName + " position named '" + name + "'.");
+        }
+        return position;
+    }
+
+    /**
+     * @param gameType the game
+     * @return all positions of the game by name, in the order of the file
+     */
+    public static Map<String, BoardPosition> load(GameType gameType) {
+        ConfigData.getInstance().setCurrentGameType(gameType);
+        Board board = ConfigData.getInstance().getCurrentGame().createBoardFactory().apply(null);
+
+        String resource = "/positions/" + gameType.name().toLowerCase().replace('_', '-') + ".txt";
+        InputStream in = BenchmarkPositions.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Could not find the positions file " + resource + ".");
+        }
+
+        Map<String, BoardPosition> positions = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split("\\s+", 2);
+                positions.put(parts[0], BoardPosition.parse(parts[1], board.getWidth(), board.getHeight()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return positions;
+    }
+
+    /**
+     * Creates a game with two players, and starts its board on a position. The board never requests moves from its
+     * players, so nothing happens on it unless the benchmark does it.
+     *
+     * @param gameType       the game
+     * @param position       the position to start from
+     * @param playerSupplier creates both players
+     * @return the board
+     */
+    public static Board startBoard(GameType gameType,
+                                   BoardPosition position,
+                                   BiFunction<Board, Integer, Player> playerSupplier) {
+        ConfigData.getInstance().setCurrentGameType(gameType);
+        Game game = ConfigData.getInstance().getCurrentGame();
+        game.setOnline(false);
+
+        GameManager gameManager = new GameManager(game.createBoardFactory(), playerSupplier, playerSupplier);
+        gameManager.initialize();
+
+        Board board = gameManager.getBoard();
+        board.setDisableRequestMove(true);
+        board._startFromPosition(position);
+        return board;
+    }
+}
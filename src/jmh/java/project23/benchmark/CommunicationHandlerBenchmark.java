@@ -0,0 +1,114 @@
+package project23.benchmark;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import project23.connection.CommunicationHandler;
+import project23.connection.GameManagerCommunicationListener;
+import project23.connection.ServerPlayerCommunicationListener;
+import project23.util.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the messages of the server, up to the moment the listeners get notified. The listeners do nothing, so this
+ * measures the time between receiving a line and handing it to the game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommunicationHandlerBenchmark {
+
+    private static final Map<String, String> MESSAGES = Map.of(
+            "ok", "OK",
+            "move", "SVR GAME MOVE {PLAYER: \"opponent\", DETAILS: \"\", MOVE: \"19\"}",
+            "yourturn", "SVR GAME YOURTURN {TURNMESSAGE: \"\"}",
+            "match", "SVR GAME MATCH {GAMETYPE: \"Reversi\", PLAYERTOMOVE: \"opponent\", OPPONENT: \"opponent\"}",
+            "challenge", "SVR GAME CHALLENGE {CHALLENGER: \"opponent\", GAMETYPE: \"Reversi\", CHALLENGENUMBER: \"1\"}",
+            "playerlist", "SVR PLAYERLIST [\"C4\", \"opponent\", \"someone\", \"someone else\"]",
+            "win", "SVR GAME WIN {PLAYERONESCORE: \"34\", PLAYERTWOSCORE: \"30\", COMMENT: \"\"}");
+
+    @Param({"ok", "move", "yourturn", "match", "challenge", "playerlist", "win"})
+    public String message;
+
+    private String input;
+    private CommunicationHandler handler;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        // Logging every message would measure the logger instead
+        Logger.setLevel(Logger.Level.INFO);
+
+        input = MESSAGES.get(message);
+        handler = new CommunicationHandler();
+
+        ConsumingListener listener = new ConsumingListener(blackhole);
+        handler.setGameManagerCommunicationListener(listener);
+        handler.setServerPlayerCommunicationListener(listener);
+    }
+
+    @Benchmark
+    public void handleServerInput() throws JSONException {
+        handler.handleServerInput(input);
+    }
+
+    /**
+     * Hands everything it receives to a blackhole, so the parsing can't be optimized away.
+     */
+    private static class ConsumingListener implements GameManagerCommunicationListener, ServerPlayerCommunicationListener {
+
+        private final Blackhole blackhole;
+
+        private ConsumingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void startServerMatch(String opponent, String playerToBegin) {
+            blackhole.consume(opponent);
+            blackhole.consume(playerToBegin);
+        }
+
+        @Override
+        public void onChallengeRequestReceive(String opponent, String gameTypeServerName, int challengeNr) {
+            blackhole.consume(opponent);
+            blackhole.consume(gameTypeServerName);
+            blackhole.consume(challengeNr);
+        }
+
+        @Override
+        public void challengeRequestCancelled(int challengeNr) {
+            blackhole.consume(challengeNr);
+        }
+
+        @Override
+        public void updateLobbyPlayers(List<String> lobbyPlayers) {
+            blackhole.consume(lobbyPlayers);
+        }
+
+        @Override
+        public void endMatch(String result) {
+            blackhole.consume(result);
+        }
+
+        @Override
+        public void onServerError(String errorMessage) {
+            blackhole.consume(errorMessage);
+        }
+
+        @Override
+        public void turnReceive(String whoPlayer, String move) {
+            blackhole.consume(whoPlayer);
+            blackhole.consume(move);
+        }
+
+        @Override
+        public void finalizeTurn() {
+        }
+    }
+}
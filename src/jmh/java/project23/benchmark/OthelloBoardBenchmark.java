@@ -0,0 +1,149 @@
+package project23.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPiece;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.Player;
+import project23.othello.board.OthelloBoard;
+import project23.othello.player.OthelloMinimaxAIPlayer;
+import project23.othello.player.OthelloNetworkEvaluator;
+import project23.othello.player.OthelloPatternEvaluator;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The operations the Othello search does on every node: generating moves, cloning the board, executing a move and
+ * evaluating the board, with the pattern evaluation or with a network of random weights, which takes as long as a
+ * trained one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OthelloBoardBenchmark {
+
+    @Param({"opening", "midgame", "late", "endgame"})
+    public String position;
+
+    private Board board;
+    private EvaluatingPlayer player;
+    private BoardPiece move;
+
+    private OthelloNetworkEvaluator network;
+    private OthelloBoard networkBoard;
+
+    @Setup
+    public void setup() throws CloneNotSupportedException {
+        board = BenchmarkPositions.startBoard(
+                GameType.OTHELLO,
+                BenchmarkPositions.get(GameType.OTHELLO, position),
+                (board, id) -> new EvaluatingPlayer(board, id));
+        player = (EvaluatingPlayer) board.getCurrentPlayer();
+        move = board.getValidMoves(player).get(0);
+
+        network = randomNetwork(32, new Random(1));
+        networkBoard = (OthelloBoard) board.clone();
+        network.prepare(networkBoard);
+    }
+
+    private static OthelloNetworkEvaluator randomNetwork(int hiddenSize, Random random) {
+        float[] hiddenBiases = new float[hiddenSize];
+        float[] hiddenWeights = new float[OthelloNetworkEvaluator.INPUTS * hiddenSize];
+        float[][] outputWeights = new float[OthelloNetworkEvaluator.OUTPUTS][2 * hiddenSize];
+        for (int i = 0; i < hiddenSize; i++) {
+            hiddenBiases[i] = random.nextFloat();
+        }
+        for (int i = 0; i < hiddenWeights.length; i++) {
+            hiddenWeights[i] = (float) random.nextGaussian() * 0.2f;
+        }
+        for (float[] weights : outputWeights) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = (float) random.nextGaussian();
+            }
+        }
+        return OthelloNetworkEvaluator.quantize(hiddenBiases, hiddenWeights, new float[OthelloNetworkEvaluator.OUTPUTS], outputWeights);
+    }
+
+    @TearDown
+    public void tearDown() {
+        board.getGameManager().destroy();
+    }
+
+    @Benchmark
+    public List<BoardPiece> getValidMoves() {
+        return board.getValidMoves(player);
+    }
+
+    @Benchmark
+    public Board cloneBoard() throws CloneNotSupportedException {
+        return board.clone();
+    }
+
+    /**
+     * Includes cloning the board, because a move can only be executed once on a board. Subtract
+     * {@link #cloneBoard()} for the time of the move itself.
+     */
+    @Benchmark
+    public Board cloneAndExecuteMove() throws CloneNotSupportedException {
+        Board cloned = board.clone();
+        cloned._executeMove(player, cloned.getBoardPiece(move.getX(), move.getY()));
+        return cloned;
+    }
+
+    @Benchmark
+    public float evaluateBoard() {
+        return player.evaluate(board);
+    }
+
+    /**
+     * Like {@link #cloneAndExecuteMove()}, but the board also updates the hidden sums of the network.
+     */
+    @Benchmark
+    public Board cloneAndExecuteMoveWithNetwork() throws CloneNotSupportedException {
+        Board cloned = networkBoard.clone();
+        cloned._executeMove(player, cloned.getBoardPiece(move.getX(), move.getY()));
+        return cloned;
+    }
+
+    /**
+     * Evaluates with the network, from the hidden sums the board keeps up to date.
+     */
+    @Benchmark
+    public float evaluateNetwork() {
+        return network.evaluate(networkBoard, player.getID());
+    }
+
+    /**
+     * The stable piece, frontier and potential mobility features of the evaluation, for both players.
+     */
+    @Benchmark
+    public int bitboardFeatures() {
+        long own = ((OthelloBoard) board).getBitboard(player.getID());
+        long opponent = ((OthelloBoard) board).getBitboard(1 - player.getID());
+        int sum = 0;
+        for (int feature = 0; feature < OthelloPatternEvaluator.FEATURES; feature++) {
+            sum += OthelloPatternEvaluator.getFeature(feature, own, opponent);
+        }
+        return sum;
+    }
+
+    /**
+     * Makes the evaluation function of the Othello AI callable from the benchmark.
+     */
+    private static class EvaluatingPlayer extends OthelloMinimaxAIPlayer {
+
+        private EvaluatingPlayer(Board board, int id) {
+            super(board, id, MinimaxAIPlayer.AIDifficulty.HARD);
+        }
+
+        private float evaluate(Board board) {
+            return evaluateBoard(board, 0);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package project23.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.othello.player.OthelloMinimaxAIPlayer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete fixed-depth Othello search on a single thread, see
+ * {@link MinimaxAIPlayer#searchFixedDepth(Board, int)}. Unlike a search during a game, this doesn't depend on the
+ * thinking time or on the amount of processors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    public String position;
+
+    @Param({"1", "2", "3"})
+    public int depth;
+
+    private Board board;
+    private MinimaxAIPlayer player;
+
+    @Setup
+    public void setup() {
+        board = BenchmarkPositions.startBoard(
+                GameType.OTHELLO,
+                BenchmarkPositions.get(GameType.OTHELLO, position),
+                (board, id) -> new OthelloMinimaxAIPlayer(board, id, MinimaxAIPlayer.AIDifficulty.HARD));
+        player = (MinimaxAIPlayer) board.getCurrentPlayer();
+    }
+
+    /**
+     * Every search starts without the transposition table of the previous one, which would make it nearly free.
+     */
+    @Setup(Level.Invocation)
+    public void clearSearchMemory() {
+        player.clearSearchMemory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        board.getGameManager().destroy();
+    }
+
+    @Benchmark
+    public MinimaxAIPlayer.SearchResult search() {
+        return player.searchFixedDepth(board, depth);
+    }
+}
@@ -0,0 +1,44 @@
+package project23.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.player.LocalPlayer;
+import project23.framework.player.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking for a winner on a tic-tac-toe board, which the tic-tac-toe AI does on every node.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TTTBoardBenchmark {
+
+    @Param({"empty", "midgame", "won", "full-draw"})
+    public String position;
+
+    private Board board;
+
+    @Setup
+    public void setup() {
+        board = BenchmarkPositions.startBoard(
+                GameType.TIC_TAC_TOE,
+                BenchmarkPositions.get(GameType.TIC_TAC_TOE, position),
+                LocalPlayer::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        board.getGameManager().destroy();
+    }
+
+    @Benchmark
+    public Player calculateWinner() {
+        return board.calculateWinner();
+    }
+}
@@ -3,13 +3,29 @@ package project23;
 import javafx.application.Platform;
 import javafx.stage.Stage;
 import project23.gui.App;
+import project23.headless.HeadlessBot;
+
+import java.util.Arrays;
 
 public class Main {
 
     /**
-     * Used for creating a jarfile
+     * Used for creating a jarfile. Starts the GUI, or the {@link HeadlessBot} when the first argument is
+     * <code>--headless</code>; the remaining arguments are passed on to the bot.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessBot.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        startGui();
+    }
+
+    /**
+     * Kept apart from {@link #main(String[])}, so the JavaFX classes are only loaded when the GUI is started.
+     */
+    private static void startGui() {
         Platform.startup(() -> {
             try {
                 new App().start(new Stage());
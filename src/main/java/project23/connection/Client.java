@@ -2,16 +2,25 @@ package project23.connection;
 
 import project23.util.Logger;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.*;
 import java.net.Socket;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class Client extends Thread {
 
     private static final long KEEP_ALIVE_INTERVAL = 30 * 1000;
 
+    /**
+     * Weight of a new round trip time measurement in the running average
+     */
+    private static final double ROUND_TRIP_SMOOTHING = 0.2;
+
+    /**
+     * When more commands than this are waiting for a response, we've lost track and start over
+     */
+    private static final int MAX_PENDING_COMMANDS = 32;
+
     private final Socket clientSocket;
     private BufferedReader inputStream;
     private final CommunicationHandler communicationHandler;
@@ -19,6 +28,12 @@ public class Client extends Thread {
 
     private boolean running = true;
 
+    private volatile TrafficRecorder trafficRecorder;
+
+    // Send times of the commands which the server hasn't responded to with OK or ERR yet
+    private final Queue<Long> pendingCommandTimes = new ConcurrentLinkedQueue<>();
+    private volatile double roundTripTime = 0;
+
     /**
      * @param clientSocket         The clientsocket
      * @param communicationHandler Communication handler which handles the communicationprotocol.
@@ -36,13 +51,90 @@ public class Client extends Thread {
             ioe.printStackTrace();
         }
 
-        if (Logger.DEBUG) {
+        if (Logger.isEnabled(Logger.Level.DEBUG)) {
             startConsolePassthroughThread();
         }
 
         startKeepAliveThread();
     }
 
+    /**
+     * Creates a client which is not connected to a server. Everything sent to the server is written to the
+     * given writer instead. Used by the {@link TrafficReplayer}, which feeds the server input directly into
+     * the communication handler, so this client should never be started.
+     *
+     * @param communicationHandler Communication handler which handles the communicationprotocol.
+     * @param output               The writer which receives everything sent to the 'server'
+     */
+    Client(CommunicationHandler communicationHandler, Writer output) {
+        this.clientSocket = null;
+        this.communicationHandler = communicationHandler;
+        this.outputStream = new PrintWriter(output);
+
+        communicationHandler.setClient(this);
+    }
+
+    /**
+     * Starts capturing all traffic between this client and the server to a file.
+     * See {@link TrafficRecorder} for the file format.
+     *
+     * @param file The file to capture to
+     * @throws IOException when the capture file could not be opened
+     */
+    public void startCapture(File file) throws IOException {
+        stopCapture();
+
+        trafficRecorder = new TrafficRecorder(file);
+        Logger.info("Capturing server traffic to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Stops capturing traffic, if a capture was running.
+     */
+    public void stopCapture() {
+        TrafficRecorder recorder = trafficRecorder;
+        if (recorder != null) {
+            trafficRecorder = null;
+            recorder.close();
+        }
+    }
+
+    /**
+     * @return Whether the traffic of this client is currently being captured
+     */
+    public boolean isCapturing() {
+        return trafficRecorder != null;
+    }
+
+    /**
+     * The round trip time is measured between sending a command and receiving the OK or ERR response to it.
+     *
+     * @return The running average of the round trip time to the server in milliseconds, or 0 when not measured yet
+     */
+    public double getRoundTripTime() {
+        return roundTripTime;
+    }
+
+    /**
+     * Takes a round trip time measurement when the input is a response to a command we sent.
+     *
+     * @param input The line received from the server
+     */
+    private void measureRoundTripTime(String input) {
+        if (!input.equals("OK") && !input.startsWith("ERR")) {
+            return;
+        }
+
+        Long sentNanos = pendingCommandTimes.poll();
+        if (sentNanos == null) {
+            return;
+        }
+
+        double measured = (System.nanoTime() - sentNanos) / 1_000_000.0;
+        double current = roundTripTime;
+        roundTripTime = current == 0 ? measured : current + ROUND_TRIP_SMOOTHING * (measured - current);
+    }
+
     /**
      * Debug method, starts a consolepassthrough thread to read console input while application is running.
      */
@@ -56,9 +148,9 @@ public class Client extends Thread {
      * Debug method, reads input from console while application is running, and sends it to the server.
      */
     private void consolePassthrough() {
-        if (!Logger.DEBUG) {
+        if (!Logger.isEnabled(Logger.Level.DEBUG)) {
             Logger.warning(
-                    "Warning! Starting console <> server command passthrough, but CommunicationHandler.DEBUG is set to false! You won't receive any feedback!");
+                    "Warning! Starting console <> server command passthrough, but the log level is above DEBUG! You won't receive any feedback!");
         } else {
             Logger.info("Console <> server command passthrough started.");
         }
@@ -67,6 +159,11 @@ public class Client extends Thread {
         try {
             while (running) {
                 String line = reader.readLine();
+                if (line == null) {
+                    // The console was closed (or there never was one, like when running as a service)
+                    break;
+                }
+
                 sendCommandToServer(line + '\n');
             }
         } catch (IOException e) {
@@ -117,10 +214,21 @@ public class Client extends Thread {
      * @param command The command to send to the server
      */
     public void sendCommandToServer(String command) {
-        Logger.debug(" to server   = " + command.trim());
+        Logger.debug(() -> " to server   = " + command.trim());
+
+        if (pendingCommandTimes.size() > MAX_PENDING_COMMANDS) {
+            pendingCommandTimes.clear();
+        }
+        pendingCommandTimes.add(System.nanoTime());
 
         outputStream.print(command);
         outputStream.flush();
+
+        TrafficRecorder recorder = trafficRecorder;
+        if (recorder != null) {
+            recorder.recordOutbound(command.trim());
+            recorder.flush();
+        }
     }
 
     /**
@@ -133,6 +241,13 @@ public class Client extends Thread {
         String input;
         try {
             while (running && (input = inputStream.readLine()) != null) {
+                TrafficRecorder recorder = trafficRecorder;
+                if (recorder != null) {
+                    recorder.recordInbound(input);
+                }
+
+                measureRoundTripTime(input);
+
                 //There was input, handle it
                 if (!input.equals("")) {
                     try {
@@ -155,6 +270,8 @@ public class Client extends Thread {
         communicationHandler.sendLogoutMessage();
         running = false;
 
+        stopCapture();
+
         try {
             clientSocket.close();
         } catch (Exception ignored) {
@@ -3,11 +3,13 @@ package project23.connection;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import project23.framework.TurnLatencyTracker;
 import project23.util.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 public class CommunicationHandler {
 
@@ -16,6 +18,10 @@ public class CommunicationHandler {
     private GameManagerCommunicationListener gameManagerCommunicationListener;
     private ServerPlayerCommunicationListener serverPlayerCommunicationListener;
 
+    private TurnLatencyTracker turnLatencyTracker;
+
+    private Executor dispatcher = Runnable::run;
+
     public void setClient(Client client) {
         this.client = client;
     }
@@ -29,12 +35,29 @@ public class CommunicationHandler {
     }
 
     /**
-     * Handles the messages that were given by the server
+     * @param turnLatencyTracker The tracker which gets notified when our turn starts, or <code>null</code>
+     */
+    public void setTurnLatencyTracker(TurnLatencyTracker turnLatencyTracker) {
+        this.turnLatencyTracker = turnLatencyTracker;
+    }
+
+    /**
+     * @param dispatcher The executor the listeners are notified on, like the event loop of the game manager.
+     *                   By default, they are notified on the thread which handles the server input.
+     */
+    public void setDispatcher(Executor dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Handles the messages that were given by the server. Parsing happens on the calling thread, the listeners
+     * are notified through the dispatcher.
      *
      * @param input The message given by the server
      */
     public void handleServerInput(String input) throws JSONException {
-        Logger.debug(" from server = " + input);
+        long receivedNanos = System.nanoTime();
+        Logger.debug(() -> " from server = " + input);
 
         if (input.equals("OK")) return;
 
@@ -49,39 +72,47 @@ public class CommunicationHandler {
                         switch (split[2].toUpperCase(Locale.ROOT)) {
                             case "MATCH":
                                 //A match was assigned to our client.
-                                gameManagerCommunicationListener.startServerMatch(
-                                        json.getString("OPPONENT"),
-                                        json.getString("PLAYERTOMOVE"));
+                                String opponent = json.getString("OPPONENT");
+                                String playerToMove = json.getString("PLAYERTOMOVE");
+                                dispatcher.execute(() -> gameManagerCommunicationListener.startServerMatch(
+                                        opponent,
+                                        playerToMove));
                                 break;
                             case "YOURTURN":
+                                if (turnLatencyTracker != null) {
+                                    turnLatencyTracker.beginTurn(receivedNanos);
+                                    turnLatencyTracker.mark(TurnLatencyTracker.Phase.PARSED);
+                                }
+
                                 //It is our turn in the match, so finalize the turn of the ServerPlayer
-                                serverPlayerCommunicationListener.finalizeTurn();
+                                dispatcher.execute(() -> serverPlayerCommunicationListener.finalizeTurn());
                                 break;
                             case "MOVE":
                                 //The opponent has made a move
-                                serverPlayerCommunicationListener.turnReceive(
-                                        json.getString("PLAYER"),
-                                        json.getString("MOVE"));
+                                String player = json.getString("PLAYER");
+                                String move = json.getString("MOVE");
+                                dispatcher.execute(() -> serverPlayerCommunicationListener.turnReceive(player, move));
                                 break;
                             case "CHALLENGE":
                                 //There is new information regarding a challenge!
                                 int challengeNumber = Integer.parseInt(json.getString("CHALLENGENUMBER"));
 
                                 if (input.contains("CANCELLED")) {
-                                    gameManagerCommunicationListener.challengeRequestCancelled(challengeNumber);
+                                    dispatcher.execute(() -> gameManagerCommunicationListener.challengeRequestCancelled(challengeNumber));
                                 } else {
                                     String challenger = json.getString("CHALLENGER");
                                     String gametype = json.getString("GAMETYPE");
-                                    gameManagerCommunicationListener.onChallengeRequestReceive(
+                                    dispatcher.execute(() -> gameManagerCommunicationListener.onChallengeRequestReceive(
                                             challenger,
                                             gametype,
-                                            challengeNumber);
+                                            challengeNumber));
                                 }
                                 break;
                             case "WIN":
                             case "DRAW":
                             case "LOSS":
-                                gameManagerCommunicationListener.endMatch(split[2]);
+                                String result = split[2];
+                                dispatcher.execute(() -> gameManagerCommunicationListener.endMatch(result));
                                 break;
                         }
                         break;
@@ -93,7 +124,7 @@ public class CommunicationHandler {
                             lobbyPlayers.add(playerList.getString(i));
                         }
 
-                        gameManagerCommunicationListener.updateLobbyPlayers(lobbyPlayers);
+                        dispatcher.execute(() -> gameManagerCommunicationListener.updateLobbyPlayers(lobbyPlayers));
                         break;
                 }
                 break;
@@ -101,7 +132,7 @@ public class CommunicationHandler {
                 String message = input.substring("ERR ".length());
                 Logger.error("Received error from server: " + message);
 
-                gameManagerCommunicationListener.onServerError(message);
+                dispatcher.execute(() -> gameManagerCommunicationListener.onServerError(message));
                 break;
         }
     }
@@ -0,0 +1,121 @@
+package project23.connection;
+
+import project23.framework.ConfigData;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Writes every line going in and out of a {@link Client} to a capture file, so the session can be
+ * replayed later using the {@link TrafficReplayer}.
+ * <p>
+ * Every line in the capture file has the format <code>&lt;nanos&gt; &lt;direction&gt; &lt;line&gt;</code>, where
+ * nanos is the time since the start of the capture, and direction is {@link #INBOUND} or {@link #OUTBOUND}.
+ */
+public class TrafficRecorder {
+
+    public static final char INBOUND = '<';
+    public static final char OUTBOUND = '>';
+    public static final String HEADER_PREFIX = "#";
+    /**
+     * Header line stating the fixed search depth the session was captured with, see
+     * {@link ConfigData#getMinimaxFixedDepth()}.
+     */
+    public static final String FIXED_DEPTH_HEADER = HEADER_PREFIX + " fixed-depth ";
+
+    private final BufferedWriter writer;
+    private final long startNanos;
+
+    private boolean closed = false;
+
+    /**
+     * @param file The file to write the capture to. An existing file will be overwritten.
+     * @throws IOException when the file could not be opened for writing
+     */
+    public TrafficRecorder(File file) throws IOException {
+        this.writer = new BufferedWriter(new FileWriter(file));
+        this.startNanos = System.nanoTime();
+
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        writer.write(HEADER_PREFIX + " project23 traffic capture, started " + sdf.format(new Date()));
+        writer.newLine();
+
+        int fixedDepth = ConfigData.getInstance().getMinimaxFixedDepth();
+        if (fixedDepth > 0) {
+            writer.write(FIXED_DEPTH_HEADER + fixedDepth);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Records a line which was received from the server.
+     *
+     * @param line The line, without line terminator
+     */
+    public void recordInbound(String line) {
+        record(INBOUND, line);
+    }
+
+    /**
+     * Records a line which was sent to the server.
+     *
+     * @param line The line, without line terminator
+     */
+    public void recordOutbound(String line) {
+        record(OUTBOUND, line);
+    }
+
+    private synchronized void record(char direction, String line) {
+        if (closed) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - startNanos;
+        try {
+            writer.write(Long.toString(nanos));
+            writer.write(' ');
+            writer.write(direction);
+            writer.write(' ');
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flushes the buffered lines to disk. Called after every outbound line, so a capture of a session
+     * which crashed is still usable up to the last move we sent.
+     */
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flushes and closes the capture file. Lines recorded after this are ignored.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
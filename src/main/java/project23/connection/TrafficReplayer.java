@@ -0,0 +1,471 @@
+package project23.connection;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import project23.framework.ConfigData;
+import project23.framework.ConnectedGameManager;
+import project23.framework.Game;
+import project23.framework.GameType;
+import project23.framework.player.AIEngine;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.util.Logger;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a session captured by the {@link TrafficRecorder} back through
+ * {@link CommunicationHandler#handleServerInput(String)}, either at the recorded speed or as fast as possible.
+ * <p>
+ * Moves sent by the replayed engine are compared against the moves sent in the captured session. Note that the
+ * captured opponent moves are replayed as they were, so after the first diverging move the rest of the match may
+ * not be playable anymore.
+ * <p>
+ * A search limited by the thinking time reaches a different depth on every run, so by default the engine searches
+ * every move to a fixed depth, on a single thread and without pondering. That makes a replay reproducible, and when
+ * the session was captured with the same fixed depth the engine sends exactly the captured moves.
+ */
+public class TrafficReplayer {
+
+    /**
+     * Extra time we wait for a move of the engine, on top of the configured thinking time.
+     */
+    private static final long MOVE_TIMEOUT_MARGIN = 5000;
+
+    /**
+     * Time we wait for a move of the engine when it searches to a fixed depth.
+     */
+    private static final long FIXED_DEPTH_MOVE_TIMEOUT = 10 * 60 * 1000;
+
+    /**
+     * The depth we search to when the capture doesn't state one.
+     */
+    public static final int DEFAULT_FIXED_DEPTH = 6;
+
+    private final int capturedFixedDepth;
+
+    private final List<Entry> entries;
+
+    private final BlockingQueue<String> sentLines = new LinkedBlockingQueue<>();
+    private final CommunicationHandler communicationHandler = new CommunicationHandler();
+    private final Client client = new Client(communicationHandler, new SentLineWriter());
+
+    /**
+     * @param captureFile The capture file to replay
+     * @throws IOException when the capture file could not be read or is malformed
+     */
+    public TrafficReplayer(File captureFile) throws IOException {
+        this.entries = load(captureFile);
+        this.capturedFixedDepth = readFixedDepth(captureFile);
+    }
+
+    /**
+     * Reads the fixed search depth from the header of a capture file.
+     *
+     * @param captureFile The capture file
+     * @return The fixed depth the session was captured with, or 0 when it was captured with a thinking time
+     * @throws IOException when the capture file could not be read or the header is malformed
+     */
+    public static int readFixedDepth(File captureFile) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(captureFile))) {
+            String line;
+            while ((line = reader.readLine()) != null && line.startsWith(TrafficRecorder.HEADER_PREFIX)) {
+                if (line.startsWith(TrafficRecorder.FIXED_DEPTH_HEADER)) {
+                    try {
+                        return Integer.parseInt(line.substring(TrafficRecorder.FIXED_DEPTH_HEADER.length()).trim());
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Malformed header: '" + line + "'");
+                    }
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Reads all entries from a capture file.
+     *
+     * @param captureFile The capture file
+     * @return The entries, in recorded order
+     * @throws IOException when the capture file could not be read or is malformed
+     */
+    public static List<Entry> load(File captureFile) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(captureFile))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith(TrafficRecorder.HEADER_PREFIX)) {
+                    continue;
+                }
+
+                // <nanos> <direction> <line>
+                int firstSpace = line.indexOf(' ');
+                if (firstSpace == -1 || line.length() < firstSpace + 3) {
+                    throw new IOException("Malformed capture entry at line " + lineNumber + ": '" + line + "'");
+                }
+
+                try {
+                    long nanos = Long.parseLong(line.substring(0, firstSpace));
+                    char direction = line.charAt(firstSpace + 1);
+                    String text = line.length() > firstSpace + 3 ? line.substring(firstSpace + 3) : "";
+
+                    entries.add(new Entry(nanos, direction, text));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed timestamp at line " + lineNumber + ": '" + line + "'");
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * @return The entries of the capture file
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return The name we logged in with during the captured session, or <code>null</code> if we never logged in
+     */
+    public String getSelfName() {
+        for (Entry entry : entries) {
+            if (entry.isOutbound() && entry.line.toLowerCase().startsWith("login ")) {
+                return entry.line.substring("login ".length()).trim();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The game type of the first match in the captured session, or <code>null</code> if no match was played
+     */
+    public GameType getGameType() {
+        for (Entry entry : entries) {
+            if (entry.isInbound() && entry.line.toUpperCase().startsWith("SVR GAME MATCH") && entry.line.contains("{")) {
+                try {
+                    JSONObject json = new JSONObject(entry.line.substring(entry.line.indexOf("{")));
+                    return GameType.getByServerName(json.getString("GAMETYPE"));
+                } catch (JSONException e) {
+                    Logger.warning("Could not parse captured match line '" + entry.line + "': " + e.toString());
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The fixed search depth the session was captured with, or 0 when it was captured with a thinking time
+     */
+    public int getCapturedFixedDepth() {
+        return capturedFixedDepth;
+    }
+
+    /**
+     * Makes the engine search every move to a fixed depth, on a single thread and without pondering, so the replay
+     * is reproducible. Changes the search settings in {@link ConfigData}, call before
+     * {@link #createGameManager()}.
+     *
+     * @param depth The depth to search every move to
+     */
+    public void useFixedDepth(int depth) {
+        ConfigData config = ConfigData.getInstance();
+        config.setMinimaxFixedDepth(depth);
+        config.setAIEngine(AIEngine.MINIMAX);
+        config.setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        config.setPonderEnabled(false);
+        config.setSearchParallelism(1);
+    }
+
+    /**
+     * @return The client all replayed traffic goes through. It isn't connected to a server.
+     */
+    public Client getClient() {
+        return client;
+    }
+
+    /**
+     * Creates a ConnectedGameManager for the game type of the captured session, playing with the AI and logged
+     * in with the captured name. Changes the current game in {@link ConfigData} to the captured game type.
+     *
+     * @return The game manager
+     */
+    public ConnectedGameManager createGameManager() {
+        GameType gameType = getGameType();
+        if (gameType == null) {
+            throw new IllegalStateException("The capture does not contain a match!");
+        }
+
+        ConfigData.getInstance().setCurrentGameType(gameType);
+        Game game = ConfigData.getInstance().getCurrentGame();
+        game.setOnline(true);
+
+        ConnectedGameManager cgm = new ConnectedGameManager(
+                game.createBoardFactory(),
+                client,
+                game.createAIPlayerFactory());
+
+        String selfName = getSelfName();
+        if (selfName != null) {
+            cgm.setSelfName(selfName);
+        }
+
+        ConfigData.getInstance().setGameManager(cgm);
+        return cgm;
+    }
+
+    /**
+     * Replays the captured session. Every captured server line is fed through the communication handler, and for
+     * every captured move of ours we wait for the engine to send its own move and compare the two.
+     *
+     * @param realTime <code>true</code> to replay at the recorded speed, <code>false</code> to replay as fast as possible
+     * @return The result of the replay
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public ReplayResult replay(boolean realTime) throws InterruptedException {
+        ReplayResult result = new ReplayResult();
+        long moveTimeout = ConfigData.getInstance().getMinimaxFixedDepth() > 0 ?
+                FIXED_DEPTH_MOVE_TIMEOUT :
+                ConfigData.getInstance().getMinimaxThinkingTime() + MOVE_TIMEOUT_MARGIN;
+
+        long startNanos = System.nanoTime();
+        long firstEntryNanos = entries.isEmpty() ? 0 : entries.get(0).nanos;
+
+        for (Entry entry : entries) {
+            if (realTime) {
+                long sleepNanos = (entry.nanos - firstEntryNanos) - (System.nanoTime() - startNanos);
+                if (sleepNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                }
+            }
+
+            if (entry.isInbound()) {
+                result.inboundLines++;
+                if (entry.line.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    communicationHandler.handleServerInput(entry.line);
+                } catch (Exception e) {
+                    Logger.error("Could not handle replayed server input '" + entry.line + "': " + e.toString());
+                }
+            } else if (entry.isOutbound() && entry.line.toLowerCase().startsWith("move ")) {
+                String sentMove = pollSentMove(moveTimeout);
+
+                result.comparedMoves++;
+                if (sentMove == null) {
+                    result.missingMoves++;
+                    Logger.warning("Replay: engine did not send a move within " + moveTimeout + "ms, captured '" + entry.line + "'.");
+                } else {
+                    if (!sentMove.equalsIgnoreCase(entry.line)) {
+                        result.divergedMoves++;
+                        Logger.warning("Replay: engine sent '" + sentMove + "', captured '" + entry.line + "'.");
+                    }
+                }
+            }
+        }
+
+        result.elapsedNanos = System.nanoTime() - startNanos;
+        return result;
+    }
+
+    /**
+     * Waits for the next move the engine sends, skipping any other commands.
+     *
+     * @param timeout The maximum time to wait in milliseconds
+     * @return The move command, or <code>null</code> if no move was sent in time
+     */
+    private String pollSentMove(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            String line = sentLines.poll(remaining, TimeUnit.MILLISECONDS);
+            if (line != null && line.toLowerCase().startsWith("move ")) {
+                return line;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Replays a capture file with the AI of this build.
+     * Usage: <code>TrafficReplayer &lt;capture file&gt; [--max-speed] [--depth &lt;n&gt;]</code>
+     * <p>
+     * The engine searches to the depth the session was captured with, or else to {@link #DEFAULT_FIXED_DEPTH}.
+     * <code>--depth 0</code> uses the configured thinking time instead, which isn't reproducible.
+     */
+    public static void main(String[] args) throws Exception {
+        String usage = "Usage: TrafficReplayer <capture file> [--max-speed] [--depth <n>]";
+        if (args.length < 1) {
+            System.err.println(usage);
+            System.exit(1);
+        }
+
+        boolean realTime = true;
+        Integer depth = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--max-speed")) {
+                realTime = false;
+            } else if (args[i].equals("--depth") && i + 1 < args.length) {
+                try {
+                    depth = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    depth = -1;
+                }
+                if (depth < 0) {
+                    System.err.println("Invalid depth '" + args[i] + "'.");
+                    System.exit(1);
+                }
+            } else {
+                System.err.println(usage);
+                System.exit(1);
+            }
+        }
+
+        TrafficReplayer replayer = new TrafficReplayer(new File(args[0]));
+        if (depth == null) {
+            depth = replayer.getCapturedFixedDepth() > 0 ? replayer.getCapturedFixedDepth() : DEFAULT_FIXED_DEPTH;
+        }
+        if (depth > 0) {
+            replayer.useFixedDepth(depth);
+        }
+        ConnectedGameManager cgm = replayer.createGameManager();
+
+        Logger.info("Replaying " + replayer.getEntries().size() + " entries " + (realTime ? "at recorded speed" : "at maximum speed") +
+                (depth > 0 ? " searching to a fixed depth of " + depth : " using the thinking time") + "..");
+        ReplayResult result = replayer.replay(realTime);
+        Logger.info("Replay done: " + result);
+
+        cgm.destroy();
+    }
+
+    /**
+     * Collects the lines the engine sends to the 'server'.
+     */
+    private class SentLineWriter extends Writer {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public synchronized void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (cbuf[i] == '\n') {
+                    sentLines.offer(buffer.toString().trim());
+                    buffer.setLength(0);
+                } else {
+                    buffer.append(cbuf[i]);
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * A single captured line.
+     */
+    public static class Entry {
+
+        private final long nanos;
+        private final char direction;
+        private final String line;
+
+        public Entry(long nanos, char direction, String line) {
+            this.nanos = nanos;
+            this.direction = direction;
+            this.line = line;
+        }
+
+        /**
+         * @return The time since the start of the capture, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return Whether this line was received from the server
+         */
+        public boolean isInbound() {
+            return direction == TrafficRecorder.INBOUND;
+        }
+
+        /**
+         * @return Whether this line was sent to the server
+         */
+        public boolean isOutbound() {
+            return direction == TrafficRecorder.OUTBOUND;
+        }
+
+        /**
+         * @return The captured line
+         */
+        public String getLine() {
+            return line;
+        }
+    }
+
+    /**
+     * The outcome of a replay.
+     */
+    public static class ReplayResult {
+
+        private int inboundLines;
+        private int comparedMoves;
+        private int divergedMoves;
+        private int missingMoves;
+        private long elapsedNanos;
+
+        public int getInboundLines() {
+            return inboundLines;
+        }
+
+        public int getComparedMoves() {
+            return comparedMoves;
+        }
+
+        public int getDivergedMoves() {
+            return divergedMoves;
+        }
+
+        public int getMissingMoves() {
+            return missingMoves;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "ReplayResult{" +
+                    "inboundLines=" + inboundLines +
+                    ", comparedMoves=" + comparedMoves +
+                    ", divergedMoves=" + divergedMoves +
+                    ", missingMoves=" + missingMoves +
+                    ", elapsedMs=" + elapsedNanos / 1_000_000 +
+                    '}';
+        }
+    }
+}
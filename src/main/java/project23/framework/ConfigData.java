@@ -1,9 +1,14 @@
 package project23.framework;
 
+import project23.framework.player.AIEngine;
+import project23.framework.player.LateMoveReductions;
 import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.SearchDriver;
+import project23.framework.player.SearchExecutor;
 import project23.othello.OthelloGame;
 import project23.ttt.TTTGame;
 
+import java.io.File;
 import java.util.HashMap;
 
 public class ConfigData {
@@ -16,7 +21,21 @@ public class ConfigData {
     private final HashMap<GameType, Game> games = new HashMap<>();
     private GameType currentGameType;
     private MinimaxAIPlayer.AIDifficulty difficulty;
+    private AIEngine aiEngine;
     private int minimaxThinkingTime;
+    private int minimaxFixedDepth;
+    private int serverTurnTimeout;
+    private boolean ponderEnabled;
+    private int searchParallelism;
+    private int transpositionTableSize;
+    private File trafficCaptureDirectory;
+    private File searchStatisticsFile;
+    private File othelloWeightsFile;
+    private File othelloNetworkFile;
+    private boolean probCutEnabled;
+    private File othelloProbCutFile;
+    private LateMoveReductions lateMoveReductions;
+    private SearchDriver searchDriver;
 
     /**
      * Singleton pattern, creates instance only when it's necessary
@@ -39,7 +58,15 @@ public class ConfigData {
         serverPort = 7789;
         playerName = "C4";
         difficulty = MinimaxAIPlayer.AIDifficulty.HARD;
+        aiEngine = AIEngine.MINIMAX;
         minimaxThinkingTime = 8000;
+        serverTurnTimeout = 10000;
+        ponderEnabled = true;
+        searchParallelism = SearchExecutor.defaultParallelism();
+        transpositionTableSize = 16;
+        probCutEnabled = true;
+        lateMoveReductions = LateMoveReductions.DEFAULT;
+        searchDriver = SearchDriver.ALPHA_BETA;
 
         // Games
         registerGame(new TTTGame());
@@ -84,6 +111,20 @@ public class ConfigData {
         this.difficulty = difficulty;
     }
 
+    /**
+     * @return The search algorithm of AI players
+     */
+    public AIEngine getAIEngine() {
+        return aiEngine;
+    }
+
+    /**
+     * @param aiEngine The search algorithm of AI players created after calling this
+     */
+    public void setAIEngine(AIEngine aiEngine) {
+        this.aiEngine = aiEngine;
+    }
+
     public GameManager getGameManager() {
         return gameManager;
     }
@@ -123,4 +164,205 @@ public class ConfigData {
     public void setMinimaxThinkingTime(int newThinkingTime) {
         this.minimaxThinkingTime = newThinkingTime;
     }
+
+    /**
+     * @return The depth the minimax AI searches every move to regardless of the thinking time, or 0 when the
+     * thinking time decides
+     */
+    public int getMinimaxFixedDepth() {
+        return minimaxFixedDepth;
+    }
+
+    /**
+     * A fixed depth makes the moves of the minimax AI reproducible, as long as it searches on a single thread and
+     * doesn't ponder.
+     *
+     * @param minimaxFixedDepth The depth to search every move to, or 0 to let the thinking time decide
+     */
+    public void setMinimaxFixedDepth(int minimaxFixedDepth) {
+        this.minimaxFixedDepth = minimaxFixedDepth;
+    }
+
+    /**
+     * @return The time in milliseconds the server gives us to make a move
+     */
+    public int getServerTurnTimeout() {
+        return serverTurnTimeout;
+    }
+
+    public void setServerTurnTimeout(int serverTurnTimeout) {
+        this.serverTurnTimeout = serverTurnTimeout;
+    }
+
+    /**
+     * @return Whether the AI should think on the opponent's time during server matches
+     */
+    public boolean isPonderEnabled() {
+        return ponderEnabled;
+    }
+
+    public void setPonderEnabled(boolean ponderEnabled) {
+        this.ponderEnabled = ponderEnabled;
+    }
+
+    /**
+     * @return The amount of worker threads the AI searches on
+     */
+    public int getSearchParallelism() {
+        return searchParallelism;
+    }
+
+    /**
+     * @param searchParallelism The amount of worker threads the AI searches on, shared by all games
+     */
+    public void setSearchParallelism(int searchParallelism) {
+        this.searchParallelism = searchParallelism;
+        SearchExecutor.getInstance().setParallelism(searchParallelism);
+    }
+
+    /**
+     * @return The memory the transposition table of every minimax AI player uses, in megabytes
+     */
+    public int getTranspositionTableSize() {
+        return transpositionTableSize;
+    }
+
+    /**
+     * @param transpositionTableSize The memory the transposition table of every minimax AI player uses, in
+     *                               megabytes. Only applies to AI players which haven't searched yet.
+     */
+    public void setTranspositionTableSize(int transpositionTableSize) {
+        this.transpositionTableSize = transpositionTableSize;
+    }
+
+    /**
+     * @return The directory server traffic captures are written to, or <code>null</code> when capturing is off
+     */
+    public File getTrafficCaptureDirectory() {
+        return trafficCaptureDirectory;
+    }
+
+    /**
+     * @param trafficCaptureDirectory The directory to write server traffic captures to, or <code>null</code> to
+     *                                disable capturing. Only applies to connections made after calling this.
+     */
+    public void setTrafficCaptureDirectory(File trafficCaptureDirectory) {
+        this.trafficCaptureDirectory = trafficCaptureDirectory;
+    }
+
+    /**
+     * @return The file the statistics of every AI search are appended to, or <code>null</code> when they aren't
+     * written
+     */
+    public File getSearchStatisticsFile() {
+        return searchStatisticsFile;
+    }
+
+    /**
+     * @param searchStatisticsFile The file to append the statistics of every AI search to as JSON lines, or
+     *                             <code>null</code> to not write them. Only applies to AI players created after
+     *                             calling this.
+     */
+    public void setSearchStatisticsFile(File searchStatisticsFile) {
+        this.searchStatisticsFile = searchStatisticsFile;
+    }
+
+    /**
+     * @return The file the Othello AI loads its evaluation weights from, or <code>null</code> to use the weights
+     * shipped with the game
+     */
+    public File getOthelloWeightsFile() {
+        return othelloWeightsFile;
+    }
+
+    /**
+     * @param othelloWeightsFile The file the Othello AI loads its evaluation weights from, as written by the
+     *                           {@link project23.headless.OthelloTuner}, or <code>null</code> to use the weights
+     *                           shipped with the game. Only applies when set before the first Othello AI player is
+     *                           created.
+     */
+    public void setOthelloWeightsFile(File othelloWeightsFile) {
+        this.othelloWeightsFile = othelloWeightsFile;
+    }
+
+    /**
+     * @return The file the Othello AI loads its evaluation network from, or <code>null</code> to evaluate with the
+     * weights instead
+     */
+    public File getOthelloNetworkFile() {
+        return othelloNetworkFile;
+    }
+
+    /**
+     * @param othelloNetworkFile The file the Othello AI loads its evaluation network from, as written by the
+     *                           {@link project23.headless.OthelloNetworkTrainer}, or <code>null</code> to evaluate
+     *                           with the weights instead. Only applies when set before the first Othello AI player
+     *                           is created.
+     */
+    public void setOthelloNetworkFile(File othelloNetworkFile) {
+        this.othelloNetworkFile = othelloNetworkFile;
+    }
+
+    /**
+     * @return Whether the AI prunes with ProbCut, in the games which have ProbCut parameters
+     */
+    public boolean isProbCutEnabled() {
+        return probCutEnabled;
+    }
+
+    /**
+     * @param probCutEnabled Whether the AI prunes with ProbCut. Only applies to AI players created after calling
+     *                       this.
+     */
+    public void setProbCutEnabled(boolean probCutEnabled) {
+        this.probCutEnabled = probCutEnabled;
+    }
+
+    /**
+     * @return The file the Othello AI loads its ProbCut parameters from, or <code>null</code> to use the parameters
+     * shipped with the game
+     */
+    public File getOthelloProbCutFile() {
+        return othelloProbCutFile;
+    }
+
+    /**
+     * @param othelloProbCutFile The file the Othello AI loads its ProbCut parameters from, as written by the
+     *                           {@link project23.headless.ProbCutCalibrator}, or <code>null</code> to use the
+     *                           parameters shipped with the game. Only applies when set before the first Othello AI
+     *                           player is created.
+     */
+    public void setOthelloProbCutFile(File othelloProbCutFile) {
+        this.othelloProbCutFile = othelloProbCutFile;
+    }
+
+    /**
+     * @return The late move reductions of the AI search, or <code>null</code> when moves aren't reduced
+     */
+    public LateMoveReductions getLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * @param lateMoveReductions The late move reductions of the AI search, or <code>null</code> to search every move
+     *                           at full depth. Only applies to AI players created after calling this.
+     */
+    public void setLateMoveReductions(LateMoveReductions lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    /**
+     * @return How the minimax AI searches every iteration
+     */
+    public SearchDriver getSearchDriver() {
+        return searchDriver;
+    }
+
+    /**
+     * @param searchDriver How the minimax AI searches every iteration. Only applies to AI players created after
+     *                     calling this.
+     */
+    public void setSearchDriver(SearchDriver searchDriver) {
+        this.searchDriver = searchDriver;
+    }
 }
@@ -10,15 +10,18 @@ import project23.framework.player.Player;
 import project23.framework.player.ServerPlayer;
 import project23.util.Logger;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.Socket;
+import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 public class ConnectedGameManager extends GameManager implements GameManagerCommunicationListener, BoardObserver {
 
-    private Client client;
+    private final Client client;
 
     private final List<ChallengeRequest> activeChallengeRequests = new ArrayList<>();
     private final List<String> lobbyPlayers = new ArrayList<>();
@@ -28,9 +31,9 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
     private ServerPlayer serverPlayerOpponent;
     private String selfName = "unknown" + (int) (Math.random() * 100);
 
-    private final Set<ConnectedGameManagerObserver> observers = new HashSet<>();
+    private final Set<ConnectedGameManagerObserver> observers = new CopyOnWriteArraySet<>();
 
-    private long selfPlayerTurnStart = System.currentTimeMillis();
+    private final TurnLatencyTracker turnLatencyTracker = new TurnLatencyTracker();
 
     /**
      * constructor, initializes project23.connection, board and players.
@@ -45,14 +48,29 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
                                 String serverIP,
                                 int serverPort,
                                 BiFunction<Board, Integer, Player> selfPlayerSupplier) throws IOException {
+        this(boardSupplier, createClient(serverIP, serverPort), selfPlayerSupplier);
+    }
+
+    /**
+     * constructor, uses an already created client instead of connecting to a server.
+     *
+     * @param boardSupplier
+     * @param client             the client to communicate through
+     * @param selfPlayerSupplier
+     */
+    public ConnectedGameManager(Function<GameManager, Board> boardSupplier,
+                                Client client,
+                                BiFunction<Board, Integer, Player> selfPlayerSupplier) {
         super(boardSupplier);
 
+        this.client = client;
         updateSelfPlayerSupplier(selfPlayerSupplier);
 
-        createClient(serverIP, serverPort);
         client.sendGetPlayerlistMessage();
 
         client.getCommunicationHandler().setGameManagerCommunicationListener(this);
+        client.getCommunicationHandler().setTurnLatencyTracker(turnLatencyTracker);
+        client.getCommunicationHandler().setDispatcher(eventLoop::execute);
         board.registerObserver(this);
     }
 
@@ -66,13 +84,32 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
     }
 
     /**
-     * Creates a Client to start handling communication
+     * Creates a Client to start handling communication.
+     * Starts capturing the traffic when a capture directory is configured, see {@link ConfigData#getTrafficCaptureDirectory()}
      */
-    private void createClient(String serverIP, int serverPort) throws IOException {
+    private static Client createClient(String serverIP, int serverPort) throws IOException {
         Socket clientSocket = new Socket(serverIP, serverPort);
-        client = new Client(clientSocket, new CommunicationHandler());
+        Client client = new Client(clientSocket, new CommunicationHandler());
+
+        File captureDirectory = ConfigData.getInstance().getTrafficCaptureDirectory();
+        if (captureDirectory != null) {
+            if (!captureDirectory.exists()) {
+                captureDirectory.mkdirs();
+            }
+
+            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd H-m-s");
+            File captureFile = new File(captureDirectory, "traffic " + sdf.format(new Date()) + ".log");
+            try {
+                client.startCapture(captureFile);
+            } catch (IOException e) {
+                Logger.warning("Could not start capturing server traffic to '" + captureFile + "'!");
+                e.printStackTrace();
+            }
+        }
+
         client.setDaemon(true);
         client.start();
+        return client;
     }
 
     /**
@@ -103,6 +140,13 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
         client.close();
     }
 
+    /**
+     * @return The latency histograms of our turns in the current match, or the last match when no match is playing
+     */
+    public TurnLatencyTracker getTurnLatencyTracker() {
+        return turnLatencyTracker;
+    }
+
     public List<ChallengeRequest> getActiveChallengeRequests() {
         return activeChallengeRequests;
     }
@@ -199,6 +243,7 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
 
         observers.forEach(ConnectedGameManagerObserver::onPreGameStart);
 
+        turnLatencyTracker.reset();
         initialize();
 
         serverPlayerOpponent = null;
@@ -266,6 +311,8 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
                 Logger.error("Received match end result '" + result + "' from the server, which is not a valid result!");
                 break;
         }
+
+        Logger.info(turnLatencyTracker.summary());
     }
 
     @Override
@@ -282,11 +329,13 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
     @Override
     public void onPlayerMoved(Player who, BoardPiece where) {
         if (who != serverPlayerOpponent) {
-            long elapsed = System.currentTimeMillis() - selfPlayerTurnStart;
-            Logger.debug("Self turn ended in " + elapsed + "ms!");
-
             int move = where.getX() + board.getWidth() * where.getY();
             client.sendMoveMessage(move);
+
+            long elapsed = turnLatencyTracker.endTurn();
+            if (elapsed >= 0) {
+                Logger.debug(() -> "Self turn ended in " + elapsed / 1_000_000 + "ms!");
+            }
         }
     }
 
@@ -294,7 +343,7 @@ public class ConnectedGameManager extends GameManager implements GameManagerComm
     public void onPlayerMoveFinalized(Player previous, Player current) {
         if (current != serverPlayerOpponent) {
             Logger.debug("Self turn started");
-            selfPlayerTurnStart = System.currentTimeMillis();
+            turnLatencyTracker.mark(TurnLatencyTracker.Phase.DISPATCHED);
         }
     }
 
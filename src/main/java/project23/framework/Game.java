@@ -1,8 +1,9 @@
 package project23.framework;
 
-import javafx.scene.paint.Color;
 import project23.framework.board.Board;
+import project23.framework.player.AIEngine;
 import project23.framework.player.LocalPlayer;
+import project23.framework.player.MCTSAIPlayer;
 import project23.framework.player.Player;
 import project23.util.Logger;
 
@@ -26,7 +27,22 @@ public abstract class Game {
 
     public abstract Function<GameManager, Board> createBoardFactory();
 
-    public abstract BiFunction<Board, Integer, Player> createAIPlayerFactory();
+    /**
+     * @return A factory of AI players using the configured {@link AIEngine}
+     */
+    public BiFunction<Board, Integer, Player> createAIPlayerFactory() {
+        if (ConfigData.getInstance().getAIEngine() == AIEngine.MCTS) {
+            return createMCTSAIPlayerFactory();
+        }
+
+        return createMinimaxAIPlayerFactory();
+    }
+
+    public abstract BiFunction<Board, Integer, Player> createMinimaxAIPlayerFactory();
+
+    public BiFunction<Board, Integer, Player> createMCTSAIPlayerFactory() {
+        return (board, id) -> new MCTSAIPlayer(board, id, AI_NAME, ConfigData.getInstance().getAIDifficulty());
+    }
 
     public BiFunction<Board, Integer, Player> createLocalPlayerFactory() {
         return ((board, id) -> new LocalPlayer(board, id, ConfigData.getInstance().getPlayerName()));
@@ -66,7 +82,10 @@ public abstract class Game {
         }
     }
 
-    public abstract Color getBoardBackgroundColor();
+    /**
+     * @return The background color of the board as a web color, like <code>#009900</code>
+     */
+    public abstract String getBoardBackgroundColor();
 
     public abstract List<URL> getBoardPieceIcons();
 
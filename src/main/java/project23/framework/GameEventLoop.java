@@ -0,0 +1,101 @@
+package project23.framework;
+
+import project23.util.Logger;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single thread which runs all commands that change the state of a {@link GameManager} and its board, one after
+ * another. Server input, finished AI searches and GUI clicks all arrive on different threads; by handing them to the
+ * event loop instead of touching the board directly, the board and its observers only ever see a single thread.
+ * <p>
+ * Tasks submitted from the event loop thread itself are run immediately, so code which already runs on the event
+ * loop (like observer callbacks) behaves exactly like a normal method call.
+ */
+public class GameEventLoop {
+
+    private static final AtomicInteger loopCounter = new AtomicInteger();
+
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    public GameEventLoop() {
+        thread = new Thread(this::run, "GameEventLoop-" + loopCounter.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs a task on the event loop. When called from the event loop thread the task is run immediately,
+     * otherwise it is queued behind all tasks submitted before it.
+     *
+     * @param task the task
+     */
+    public void execute(Runnable task) {
+        if (isInEventLoop()) {
+            runTask(task);
+            return;
+        }
+
+        if (!running) {
+            Logger.debug(() -> "Dropping a task submitted to " + thread.getName() + " after it was shut down.");
+            return;
+        }
+
+        queue.offer(task);
+    }
+
+    /**
+     * @return Whether the calling thread is the event loop thread
+     */
+    public boolean isInEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * @return The amount of tasks waiting to be run
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the event loop after the tasks which are already queued. Tasks submitted after this are dropped.
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        queue.offer(() -> {
+        });
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            Runnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            runTask(task);
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // One broken command may never take down the whole match.
+            Logger.error("Uncaught exception on " + thread.getName() + ": " + e.toString());
+            e.printStackTrace();
+        }
+    }
+}
@@ -4,7 +4,6 @@ import project23.framework.board.Board;
 import project23.framework.player.Player;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
@@ -12,6 +11,9 @@ import java.util.function.Function;
 
 /**
  * This class manages a game. Including project23.connection, board and players.
+ * <p>
+ * All changes to the board happen on the {@link GameEventLoop} of the GameManager. Code running on other threads
+ * should hand its changes to {@link #getEventLoop()}.
  */
 public class GameManager {
 
@@ -20,6 +22,8 @@ public class GameManager {
     protected Board board;
     protected final List<Player> players = new ArrayList<>();
 
+    protected final GameEventLoop eventLoop = new GameEventLoop();
+
     private boolean isInitialized = false;
 
     /**
@@ -27,10 +31,13 @@ public class GameManager {
      *
      * @param boardSupplier The board supplier
      */
+    @SafeVarargs
     public GameManager(Function<GameManager, ? extends Board> boardSupplier,
                        BiFunction<Board, Integer, ? extends Player>... playerSuppliers) {
         this.board = boardSupplier.apply(this);
-        this.playerSuppliers.addAll(Arrays.asList(playerSuppliers));
+        for (BiFunction<Board, Integer, ? extends Player> playerSupplier : playerSuppliers) {
+            this.playerSuppliers.add(playerSupplier);
+        }
     }
 
     /**
@@ -53,7 +60,7 @@ public class GameManager {
     }
 
     public void requestStart() {
-        _start(null);
+        eventLoop.execute(() -> _start(null));
     }
 
     public void forfeit() {
@@ -64,6 +71,7 @@ public class GameManager {
      * Destroy the internal objects, the GameManager will never be able to be used after this!
      */
     public void destroy() {
+        eventLoop.shutdown();
     }
 
     protected void _start(Player startingPlayer) {
@@ -74,6 +82,13 @@ public class GameManager {
         board._start(startingPlayer);
     }
 
+    /**
+     * @return The event loop all changes to the board should be made on
+     */
+    public GameEventLoop getEventLoop() {
+        return eventLoop;
+    }
+
     /**
      * getter for board.
      *
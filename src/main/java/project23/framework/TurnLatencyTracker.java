@@ -0,0 +1,193 @@
+package project23.framework;
+
+import project23.util.LatencyHistogram;
+import project23.util.Logger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures where the time goes during our turns in a server match, from receiving YOURTURN until our move has been
+ * written to the socket. Every turn is split up in phases, and the duration of every phase is recorded in a
+ * {@link LatencyHistogram}. The histograms are kept per match.
+ */
+public class TurnLatencyTracker {
+
+    /**
+     * The moments during a turn which get timestamped, in the order they happen.
+     */
+    public enum Phase {
+        /**
+         * The YOURTURN message was received from the server.
+         */
+        RECEIVED,
+
+        /**
+         * The YOURTURN message was parsed by the communication handler.
+         */
+        PARSED,
+
+        /**
+         * The board observers have been notified that it is our turn.
+         */
+        DISPATCHED,
+
+        /**
+         * The AI started searching for a move.
+         */
+        SEARCH_STARTED,
+
+        /**
+         * The AI is done searching, and is about to make its move.
+         */
+        SEARCH_DONE,
+
+        /**
+         * The move was written to the server.
+         */
+        SENT
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    /**
+     * Turns which take longer than this fraction of the server turn timeout are logged as a warning.
+     */
+    private static final double TIMEOUT_WARNING_FRACTION = 0.9;
+
+    private final AtomicLongArray timestamps = new AtomicLongArray(PHASES.length);
+
+    // One histogram for the time between every phase and its previous phase
+    private final LatencyHistogram[] phaseHistograms = new LatencyHistogram[PHASES.length];
+    private final LatencyHistogram totalHistogram = new LatencyHistogram("total");
+
+    public TurnLatencyTracker() {
+        phaseHistograms[Phase.PARSED.ordinal()] = new LatencyHistogram("parse");
+        phaseHistograms[Phase.DISPATCHED.ordinal()] = new LatencyHistogram("dispatch");
+        phaseHistograms[Phase.SEARCH_STARTED.ordinal()] = new LatencyHistogram("search start");
+        phaseHistograms[Phase.SEARCH_DONE.ordinal()] = new LatencyHistogram("search");
+        phaseHistograms[Phase.SENT.ordinal()] = new LatencyHistogram("send");
+    }
+
+    /**
+     * Starts timing a new turn. Any phases of the previous turn which were not finished are discarded.
+     *
+     * @param receivedNanos The {@link System#nanoTime()} at which the YOURTURN message was received
+     */
+    public void beginTurn(long receivedNanos) {
+        for (int i = 0; i < PHASES.length; i++) {
+            timestamps.set(i, 0);
+        }
+
+        timestamps.set(Phase.RECEIVED.ordinal(), receivedNanos);
+    }
+
+    /**
+     * Timestamps a phase of the current turn. Ignored when no turn was started.
+     *
+     * @param phase The phase which was just reached
+     */
+    public void mark(Phase phase) {
+        if (timestamps.get(Phase.RECEIVED.ordinal()) == 0) {
+            return;
+        }
+
+        timestamps.set(phase.ordinal(), System.nanoTime());
+    }
+
+    /**
+     * @return The time in milliseconds since the YOURTURN message of the current turn was received, or 0 when no
+     * turn was started
+     */
+    public long getTurnElapsedMillis() {
+        long received = timestamps.get(Phase.RECEIVED.ordinal());
+        if (received == 0) {
+            return 0;
+        }
+
+        return (System.nanoTime() - received) / 1_000_000;
+    }
+
+    /**
+     * Ends the current turn and records the duration of all reached phases. Phases which were not reached (for
+     * example, no search is done when there is only one valid move) are skipped, and are included in the duration
+     * of the next reached phase.
+     *
+     * @return The total duration of the turn in nanoseconds, or -1 when no turn was started
+     */
+    public long endTurn() {
+        long received = timestamps.get(Phase.RECEIVED.ordinal());
+        if (received == 0) {
+            return -1;
+        }
+
+        mark(Phase.SENT);
+
+        long previous = received;
+        for (int i = 1; i < PHASES.length; i++) {
+            long timestamp = timestamps.get(i);
+            if (timestamp == 0) {
+                continue;
+            }
+
+            phaseHistograms[i].record(timestamp - previous);
+            previous = timestamp;
+        }
+
+        long total = timestamps.get(Phase.SENT.ordinal()) - received;
+        totalHistogram.record(total);
+
+        long timeoutWarning = (long) (ConfigData.getInstance().getServerTurnTimeout() * TIMEOUT_WARNING_FRACTION);
+        if (total / 1_000_000 > timeoutWarning) {
+            Logger.warning("Turn took " + total / 1_000_000 + "ms, which is close to the server turn timeout of " +
+                    ConfigData.getInstance().getServerTurnTimeout() + "ms!");
+        }
+
+        timestamps.set(Phase.RECEIVED.ordinal(), 0);
+        return total;
+    }
+
+    /**
+     * Clears all recorded turns.
+     */
+    public void reset() {
+        beginTurn(0);
+
+        for (LatencyHistogram histogram : phaseHistograms) {
+            if (histogram != null) {
+                histogram.reset();
+            }
+        }
+        totalHistogram.reset();
+    }
+
+    /**
+     * @param phase The phase
+     * @return The histogram of the time between the previous phase and the given phase, or <code>null</code> for
+     * {@link Phase#RECEIVED}
+     */
+    public LatencyHistogram getPhaseHistogram(Phase phase) {
+        return phaseHistograms[phase.ordinal()];
+    }
+
+    /**
+     * @return The histogram of the time between receiving YOURTURN and sending our move
+     */
+    public LatencyHistogram getTotalHistogram() {
+        return totalHistogram;
+    }
+
+    /**
+     * @return A multi-line summary of all histograms
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Turn latencies over " + totalHistogram.getCount() + " turns:");
+        for (LatencyHistogram histogram : phaseHistograms) {
+            if (histogram != null) {
+                sb.append("\n  ").append(histogram);
+            }
+        }
+        sb.append("\n  ").append(totalHistogram);
+
+        return sb.toString();
+    }
+}
@@ -8,6 +8,7 @@ import project23.framework.player.MoveRequestable;
 import project23.framework.player.Player;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 public abstract class Board implements Cloneable {
 
@@ -15,7 +16,11 @@ public abstract class Board implements Cloneable {
     protected final int width, height;
     protected BoardPiece[] pieces;
 
-    private Set<BoardObserver> observers = new HashSet<>();
+    // Observers may register from other threads (like the GUI) while the event loop is notifying them
+    // Shared by clones until an observer registers, so the clones of a search don't allocate a set each
+    private static final Set<BoardObserver> NO_OBSERVERS = Collections.emptySet();
+
+    private Set<BoardObserver> observers = new CopyOnWriteArraySet<>();
 
     private BoardState boardState = BoardState.WAITING;
     private int currentPlayerId;
@@ -95,6 +100,13 @@ public abstract class Board implements Cloneable {
      */
     public abstract void prepareBoard(Player startPlayer);
 
+    /**
+     * Called by {@link #_startFromPosition(BoardPosition)} after the pieces were set, before the observers are told
+     * the game started. Boards which keep their own state about the pieces should rebuild it here.
+     */
+    protected void preparePosition() {
+    }
+
     public abstract GameType getGameType();
 
     public List<BoardPiece> getValidMoves() {
@@ -107,13 +119,7 @@ public abstract class Board implements Cloneable {
      * SHOULDN'T BE CALLED EXTERNALLY! Use GameManager#start!
      */
     public void _start(Player startingPlayer) {
-        if (boardState != BoardState.WAITING) {
-            throw new IllegalStateException("The game cannot start in this state! (Current state: " + boardState + ")");
-        }
-
-        if (gameManager.getNumPlayers() < getMinPlayers() || gameManager.getNumPlayers() > getMaxPlayers()) {
-            throw new IllegalStateException("The number of players must be between " + getMinPlayers() + " and " + getMaxPlayers() + ", and is currently " + gameManager.getNumPlayers() + "!");
-        }
+        checkCanStart();
 
         // Reset pieces
         for (BoardPiece piece : pieces) {
@@ -139,6 +145,57 @@ public abstract class Board implements Cloneable {
         }
     }
 
+    /**
+     * Starts the game from a position instead of the start position of the game, like {@link #_start(Player)}.
+     * Used by benchmarks and tests.
+     * <p>
+     * SHOULDN'T BE CALLED EXTERNALLY DURING A MATCH!
+     *
+     * @param position the position to start from
+     */
+    public void _startFromPosition(BoardPosition position) {
+        checkCanStart();
+
+        if (position.getWidth() != width || position.getHeight() != height) {
+            throw new IllegalArgumentException("The position is for a " + position.getWidth() + "x" + position.getHeight() + " board, but this board is " + width + "x" + height + "!");
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int owner = position.getOwnerID(x, y);
+                if (owner == BoardPosition.EMPTY) {
+                    getBoardPiece(x, y).clearOwner();
+                } else {
+                    getBoardPiece(x, y).setOwner(gameManager.getPlayer(owner));
+                }
+            }
+        }
+
+        currentPlayerId = position.getPlayerToMove();
+
+        preparePosition();
+
+        boardState = BoardState.PLAYING;
+
+        for (BoardObserver o : observers) {
+            o.onGameStart(getCurrentPlayer());
+        }
+
+        if (!ConfigData.getInstance().getCurrentGame().isOnline()) {
+            requestPlayerMove();
+        }
+    }
+
+    private void checkCanStart() {
+        if (boardState != BoardState.WAITING) {
+            throw new IllegalStateException("The game cannot start in this state! (Current state: " + boardState + ")");
+        }
+
+        if (gameManager.getNumPlayers() < getMinPlayers() || gameManager.getNumPlayers() > getMaxPlayers()) {
+            throw new IllegalStateException("The number of players must be between " + getMinPlayers() + " and " + getMaxPlayers() + ", and is currently " + gameManager.getNumPlayers() + "!");
+        }
+    }
+
     /**
      * resets the gameboard to be able to start a new match after clearing.
      */
@@ -277,7 +334,7 @@ public abstract class Board implements Cloneable {
         this.boardState = BoardState.GAME_OVER;
         this.winner = winner;
 
-        new ArrayList<>(observers).forEach(o -> o.onPlayerWon(winner));
+        observers.forEach(o -> o.onPlayerWon(winner));
     }
 
     /**
@@ -297,11 +354,19 @@ public abstract class Board implements Cloneable {
         }
 
         // Reset observers
-        cloned.observers = new HashSet<>();
+        cloned.observers = NO_OBSERVERS;
 
         return cloned;
     }
 
+    /**
+     * @return The hash of the position, including the player to move, see {@link BoardSymmetry#key(Board, int)}.
+     * Calculated from every square by default; boards can keep it up to date as moves are made instead.
+     */
+    public long getKey() {
+        return BoardSymmetry.calculateKey(this, 0);
+    }
+
     /**
      * Gets the board piece on specific coordinates.
      *
@@ -438,6 +503,9 @@ public abstract class Board implements Cloneable {
      * @param observer The BoardObserver to register.
      */
     public void registerObserver(BoardObserver observer) {
+        if (observers == NO_OBSERVERS) {
+            observers = new CopyOnWriteArraySet<>();
+        }
         observers.add(observer);
     }
 
@@ -62,6 +62,23 @@ public class BoardPiece implements Cloneable {
                 '}';
     }
 
+    /**
+     * @param x The X-coordinate of a piece
+     * @param y The Y-coordinate of a piece
+     * @return The coordinate of the piece like <code>d3</code>: the column as a letter and the row as a number,
+     * starting at <code>a1</code> in the top left corner
+     */
+    public static String coordinate(int x, int y) {
+        return (char) ('a' + x) + String.valueOf(y + 1);
+    }
+
+    /**
+     * @return The coordinate of this piece like <code>d3</code>, see {@link #coordinate(int, int)}
+     */
+    public String getCoordinate() {
+        return coordinate(x, y);
+    }
+
     /**
      * @return The X-coordinate of this piece.
      */
@@ -0,0 +1,165 @@
+package project23.framework.board;
+
+import project23.framework.player.Player;
+
+import java.util.Arrays;
+
+/**
+ * A position of a game: the owners of all pieces and the player to move, without any {@link Board} or
+ * {@link Player} objects attached. Used to store positions in files, and to start a board from a position with
+ * {@link Board#_startFromPosition(BoardPosition)}.
+ * <p>
+ * A position is written as a single line with all pieces row by row (<code>-</code> for an empty piece,
+ * <code>X</code> for player 0 and <code>O</code> for player 1), followed by the player to move. For example, the
+ * Othello start position with player 0 to move:
+ * <pre>
+ * ---------------------------OX------XO--------------------------- X
+ * </pre>
+ */
+public class BoardPosition {
+
+    /**
+     * The owner id of a piece without owner.
+     */
+    public static final int EMPTY = -1;
+
+    private static final char EMPTY_CHAR = '-';
+    private static final char[] PLAYER_CHARS = {'X', 'O'};
+
+    private final int width, height;
+    private final int[] owners;
+    private final int playerToMove;
+
+    /**
+     * @param width        the width of the board
+     * @param height       the height of the board
+     * @param owners       the owner ids of all pieces row by row, or {@link #EMPTY}
+     * @param playerToMove the id of the player to move
+     */
+    public BoardPosition(int width, int height, int[] owners, int playerToMove) {
+        if (owners.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pieces, but got " + owners.length + ".");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.owners = owners.clone();
+        this.playerToMove = playerToMove;
+    }
+
+    /**
+     * Copies the position of a board.
+     *
+     * @param board the board
+     * @return the position, with the current player to move (player 0 when the game was not started)
+     */
+    public static BoardPosition of(Board board) {
+        int[] owners = new int[board.getWidth() * board.getHeight()];
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                BoardPiece piece = board.getBoardPiece(x, y);
+                owners[x + y * board.getWidth()] = piece.hasOwner() ? piece.getOwner().getID() : EMPTY;
+            }
+        }
+
+        Player currentPlayer = board.getCurrentPlayer();
+        return new BoardPosition(board.getWidth(), board.getHeight(), owners,
+                currentPlayer == null ? 0 : currentPlayer.getID());
+    }
+
+    /**
+     * Reads a position written like {@link #toString()}.
+     *
+     * @param text   the position
+     * @param width  the width of the board
+     * @param height the height of the board
+     * @return the position
+     * @throws IllegalArgumentException when the text is not a position of a board of the given size
+     */
+    public static BoardPosition parse(String text, int width, int height) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("A position needs the pieces and the player to move: '" + text + "'.");
+        }
+
+        String pieces = parts[0];
+        if (pieces.length() != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pieces, but got " + pieces.length() +
+                    ": '" + text + "'.");
+        }
+
+        int[] owners = new int[pieces.length()];
+        for (int i = 0; i < pieces.length(); i++) {
+            owners[i] = parseOwner(pieces.charAt(i));
+        }
+
+        if (parts[1].length() != 1 || parseOwner(parts[1].charAt(0)) == EMPTY) {
+            throw new IllegalArgumentException("Invalid player to move '" + parts[1] + "'.");
+        }
+
+        return new BoardPosition(width, height, owners, parseOwner(parts[1].charAt(0)));
+    }
+
+    private static int parseOwner(char c) {
+        if (c == EMPTY_CHAR || c == '.') {
+            return EMPTY;
+        }
+
+        for (int id = 0; id < PLAYER_CHARS.length; id++) {
+            if (Character.toUpperCase(c) == PLAYER_CHARS[id]) {
+                return id;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid piece '" + c + "'.");
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param x The X-coordinate of the piece
+     * @param y The Y-coordinate of the piece
+     * @return The id of the player owning the piece, or {@link #EMPTY}
+     */
+    public int getOwnerID(int x, int y) {
+        return owners[x + y * width];
+    }
+
+    /**
+     * @return The id of the player to move
+     */
+    public int getPlayerToMove() {
+        return playerToMove;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BoardPosition that = (BoardPosition) o;
+        return width == that.width &&
+                height == that.height &&
+                playerToMove == that.playerToMove &&
+                Arrays.equals(owners, that.owners);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(owners) + playerToMove;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(owners.length + 2);
+        for (int owner : owners) {
+            sb.append(owner == EMPTY ? EMPTY_CHAR : PLAYER_CHARS[owner]);
+        }
+        return sb.append(' ').append(PLAYER_CHARS[playerToMove]).toString();
+    }
+}
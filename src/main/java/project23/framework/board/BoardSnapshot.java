@@ -0,0 +1,112 @@
+package project23.framework.board;
+
+import project23.framework.BoardState;
+import project23.framework.player.Player;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable copy of everything needed to draw a board: the owners of all pieces, the state, the current player,
+ * its valid moves and the piece counts.
+ * <p>
+ * Snapshots should be taken on the game's event loop, where the board is changed. They can then be read on any
+ * other thread (like the FX thread) without ever seeing a half-made move.
+ */
+public class BoardSnapshot {
+
+    /**
+     * The owner id of a piece without owner.
+     */
+    public static final int EMPTY = -1;
+
+    private final int width, height;
+    private final int[] owners;
+    private final boolean[] validMoves;
+    private final boolean showValidMoves;
+    private final BoardState boardState;
+    private final Player currentPlayer;
+    private final Map<Player, Integer> piecesCount;
+
+    /**
+     * Copies the board. Must be called on the thread that changes the board.
+     *
+     * @param board the board to copy
+     */
+    public BoardSnapshot(Board board) {
+        width = board.getWidth();
+        height = board.getHeight();
+        boardState = board.getBoardState();
+        currentPlayer = board.getCurrentPlayer();
+
+        owners = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                BoardPiece piece = board.getBoardPiece(x, y);
+                owners[x + y * width] = piece.hasOwner() ? piece.getOwner().getID() : EMPTY;
+            }
+        }
+
+        validMoves = new boolean[width * height];
+        showValidMoves = currentPlayer != null && board.isShowValidMoves() && currentPlayer.isShowValidMoves();
+        if (showValidMoves) {
+            for (BoardPiece piece : board.getValidMoves()) {
+                validMoves[piece.getX() + piece.getY() * width] = true;
+            }
+        }
+
+        piecesCount = Collections.unmodifiableMap(new HashMap<>(board.piecesCount()));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param x The X-coordinate of the piece
+     * @param y The Y-coordinate of the piece
+     * @return The id of the player owning the piece, or {@link #EMPTY}
+     */
+    public int getOwnerID(int x, int y) {
+        return owners[x + y * width];
+    }
+
+    /**
+     * @param x The X-coordinate of the piece
+     * @param y The Y-coordinate of the piece
+     * @return Whether the piece is a valid move of the current player, and valid moves should be shown
+     */
+    public boolean isShownValidMove(int x, int y) {
+        return validMoves[x + y * width];
+    }
+
+    /**
+     * @return Whether the valid moves of the current player should be shown
+     */
+    public boolean isShowValidMoves() {
+        return showValidMoves;
+    }
+
+    public BoardState getBoardState() {
+        return boardState;
+    }
+
+    /**
+     * @return The player whose turn it was, or <code>null</code>
+     */
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * @return The amount of pieces per player, see {@link Board#piecesCount()}
+     */
+    public Map<Player, Integer> getPiecesCount() {
+        return piecesCount;
+    }
+}
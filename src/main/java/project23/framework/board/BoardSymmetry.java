@@ -0,0 +1,251 @@
+package project23.framework.board;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The 8 symmetries of a square board, the rotations and reflections, for games whose rules don't change when the
+ * board is rotated or reflected, like Othello and tic-tac-toe. Symmetric positions have the same value, so a search
+ * only needs to look at one of them:
+ * <ul>
+ *     <li>{@link #canonicalKey(Board)} hashes a position to the same key as all positions symmetric to it, for hash
+ *     lookups.</li>
+ *     <li>{@link #removeSymmetricMoves(Board, List)} leaves one move of every group of moves which lead to symmetric
+ *     positions.</li>
+ * </ul>
+ * Both look at every square for every symmetry, which only pays off while positions are likely to be symmetric: on
+ * small boards and early in the game.
+ * <p>
+ * Symmetry <code>s</code> swaps X and Y when bit 2 is set, then mirrors X when bit 0 is set and Y when bit 1 is set.
+ * Symmetry 0 is the identity.
+ */
+public final class BoardSymmetry {
+
+    public static final int COUNT = 8;
+
+    /**
+     * The largest board the keys support.
+     */
+    private static final int MAX_SQUARES = 64;
+
+    /**
+     * Random keys for every square and owner, and for player 1 to move, which the key of a position XORs together.
+     */
+    private static final long[][] SQUARE_KEYS = new long[2][MAX_SQUARES];
+    private static final long PLAYER_1_KEY;
+
+    /**
+     * The square every square moves to, by board size and symmetry, made when a size is first used.
+     */
+    private static final int[][][] squareMaps = new int[(int) Math.sqrt(MAX_SQUARES) + 1][][];
+
+    static {
+        Random random = new Random(0x5EED);
+        for (long[] keys : SQUARE_KEYS) {
+            for (int square = 0; square < MAX_SQUARES; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        PLAYER_1_KEY = random.nextLong();
+    }
+
+    private BoardSymmetry() {
+    }
+
+    /**
+     * @param board a board
+     * @return Whether the board is square and small enough for its symmetries to be used
+     */
+    public static boolean appliesTo(Board board) {
+        return board.getWidth() == board.getHeight() && board.getWidth() * board.getHeight() <= MAX_SQUARES;
+    }
+
+    /**
+     * @param x        the X-coordinate of a square
+     * @param y        the Y-coordinate of a square
+     * @param size     the width and height of the board
+     * @param symmetry a symmetry
+     * @return The number of the square the symmetry moves the square to, <code>x + y * size</code>
+     */
+    public static int transform(int x, int y, int size, int symmetry) {
+        if ((symmetry & 4) != 0) {
+            int swap = x;
+            x = y;
+            y = swap;
+        }
+        if ((symmetry & 1) != 0) {
+            x = size - 1 - x;
+        }
+        if ((symmetry & 2) != 0) {
+            y = size - 1 - y;
+        }
+        return x + y * size;
+    }
+
+    private static synchronized int[][] squareMap(int size) {
+        if (squareMaps[size] == null) {
+            int[][] map = new int[COUNT][size * size];
+            for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+                for (int square = 0; square < size * size; square++) {
+                    map[symmetry][square] = transform(square % size, square / size, size, symmetry);
+                }
+            }
+            squareMaps[size] = map;
+        }
+        return squareMaps[size];
+    }
+
+    private static int owner(BoardPiece piece) {
+        return piece.hasOwner() ? piece.getOwner().getID() : BoardPosition.EMPTY;
+    }
+
+    /**
+     * @param board    a square board
+     * @param symmetry a symmetry
+     * @return The hash of the position the symmetry turns the position of the board into, including the player to
+     * move. For the identity this is {@link Board#getKey()}, which boards can keep up to date as moves are made.
+     */
+    public static long key(Board board, int symmetry) {
+        return symmetry == 0 ? board.getKey() : calculateKey(board, symmetry);
+    }
+
+    /**
+     * @param id     the ID of a player
+     * @param square the number of a square, <code>x + y * size</code>
+     * @return The part of the key of a position for a piece of the player on the square
+     */
+    public static long squareKey(int id, int square) {
+        return SQUARE_KEYS[id][square];
+    }
+
+    /**
+     * @param id the ID of the player to move
+     * @return The part of the key of a position for the player to move
+     */
+    public static long playerKey(int id) {
+        return id == 1 ? PLAYER_1_KEY : 0;
+    }
+
+    /**
+     * Calculates the key from scratch, looking at every square.
+     *
+     * @param board    a square board
+     * @param symmetry a symmetry
+     * @return The hash of the position, see {@link #key(Board, int)}
+     */
+    static long calculateKey(Board board, int symmetry) {
+        int[] map = squareMap(board.getWidth())[symmetry];
+        BoardPiece[] pieces = board.pieces;
+        long key = board.getCurrentPlayer() != null && board.getCurrentPlayer().getID() == 1 ? PLAYER_1_KEY : 0;
+        for (int square = 0; square < pieces.length; square++) {
+            int owner = owner(pieces[square]);
+            if (owner != BoardPosition.EMPTY) {
+                key ^= SQUARE_KEYS[owner][map[square]];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @param board a square board
+     * @return The smallest key of the position over all symmetries, the same for all positions symmetric to it
+     */
+    public static long canonicalKey(Board board) {
+        return key(board, canonicalSymmetry(board));
+    }
+
+    /**
+     * @param board a square board
+     * @return The symmetry which turns the position into the one with the {@link #canonicalKey(Board)}. Squares
+     * stored along with the canonical key are turned back with the {@link #inverse(int)} of this symmetry.
+     */
+    public static int canonicalSymmetry(Board board) {
+        int canonical = 0;
+        long canonicalKey = key(board, 0);
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            long key = key(board, symmetry);
+            if (key < canonicalKey) {
+                canonical = symmetry;
+                canonicalKey = key;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * @param symmetry a symmetry
+     * @return The symmetry which undoes it. Swapping X and Y before mirroring becomes mirroring the other axis.
+     */
+    public static int inverse(int symmetry) {
+        if ((symmetry & 4) == 0) {
+            return symmetry;
+        }
+        return 4 | (symmetry & 1) << 1 | (symmetry & 2) >> 1;
+    }
+
+    /**
+     * @param square   the number of a square, <code>x + y * size</code>
+     * @param size     the width and height of the board
+     * @param symmetry a symmetry
+     * @return The number of the square the symmetry moves the square to
+     */
+    public static int transform(int square, int size, int symmetry) {
+        return squareMap(size)[symmetry][square];
+    }
+
+    /**
+     * @param board a square board
+     * @return The symmetries which leave the position unchanged, as a mask with bit <code>s</code> set for symmetry
+     * <code>s</code>. Bit 0, the identity, is always set.
+     */
+    public static int getSymmetries(Board board) {
+        int[][] map = squareMap(board.getWidth());
+        BoardPiece[] pieces = board.pieces;
+
+        int symmetries = 1;
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            int[] symmetryMap = map[symmetry];
+            boolean same = true;
+            for (int square = 0; square < pieces.length && same; square++) {
+                same = owner(pieces[square]) == owner(pieces[symmetryMap[square]]);
+            }
+            if (same) {
+                symmetries |= 1 << symmetry;
+            }
+        }
+        return symmetries;
+    }
+
+    /**
+     * Removes the moves which lead to a position symmetric to that of another move. That is only possible when the
+     * position itself is symmetric: then a symmetry of the position turns a move into another one leading to a
+     * symmetric position. Of every such group of moves, the one on the lowest square is kept.
+     *
+     * @param board a square board
+     * @param moves the valid moves on the board, in any order
+     * @return The amount of moves which were removed
+     */
+    public static int removeSymmetricMoves(Board board, List<BoardPiece> moves) {
+        int symmetries = getSymmetries(board);
+        if (symmetries == 1) {
+            return 0;
+        }
+
+        int size = board.getWidth();
+        int[][] map = squareMap(size);
+        int before = moves.size();
+        moves.removeIf(move -> {
+            if (move == null) {
+                return false;
+            }
+            int square = move.getX() + move.getY() * size;
+            for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+                if ((symmetries & 1 << symmetry) != 0 && map[symmetry][square] < square) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return before - moves.size();
+    }
+}
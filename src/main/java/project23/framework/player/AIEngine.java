@@ -0,0 +1,28 @@
+package project23.framework.player;
+
+/**
+ * The search algorithm AI players use to find their moves.
+ */
+public enum AIEngine {
+    /**
+     * Iterative deepening minimax, see {@link MinimaxAIPlayer}.
+     */
+    MINIMAX,
+    /**
+     * Monte Carlo tree search, see {@link MCTSAIPlayer}.
+     */
+    MCTS;
+
+    /**
+     * @param name The name of an engine, in any case
+     * @return The engine with that name, or <code>null</code> when there is none
+     */
+    public static AIEngine fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+package project23.framework.player;
+
+/**
+ * The table of late move reductions: how many plies less the minimax search searches a move, by the depth of the
+ * position and the number of the move in the move ordering. Moves ordered late are unlikely to be the best, so they
+ * are first searched at the reduced depth with a null window, which only shows whether the move beats the best move
+ * so far. Only the moves which do are searched again at full depth.
+ * <p>
+ * The table grows with the logarithms of both the depth and the move number,
+ * <code>base + ln(depth) * ln(move number) / divisor</code>, rounded down, and is 0 below the minimum depth and for
+ * the first moves. The moves which the search already expects to be good, like the best move of an earlier search
+ * and the killer moves, are never reduced.
+ * <p>
+ * A table is written as its parameters, see {@link #parse(String)}.
+ */
+public class LateMoveReductions {
+
+    /**
+     * The reductions the AI players use unless configured otherwise.
+     */
+    public static final LateMoveReductions DEFAULT = new LateMoveReductions(4, 3, 0.5, 2.5);
+
+    /**
+     * The largest depth and move number in the table, deeper positions and later moves use the last entries.
+     */
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_MOVES = 64;
+
+    private final int minDepth;
+    private final int fullDepthMoves;
+    private final double base;
+    private final double divisor;
+
+    /**
+     * The reductions, by depth and move number.
+     */
+    private final int[][] reductions = new int[MAX_DEPTH][MAX_MOVES];
+
+    /**
+     * @param minDepth       the lowest depth at which moves are reduced
+     * @param fullDepthMoves the amount of moves which are always searched at full depth
+     * @param base           the reduction of every reduced move
+     * @param divisor        how slowly the reduction grows with the depth and the move number
+     */
+    public LateMoveReductions(int minDepth, int fullDepthMoves, double base, double divisor) {
+        if (minDepth < 2 || fullDepthMoves < 1 || !(base >= 0) || !(divisor > 0)) {
+            throw new IllegalArgumentException("Needs a minimum depth of at least 2, at least 1 full depth move, a base of at least 0 and a positive divisor.");
+        }
+
+        this.minDepth = minDepth;
+        this.fullDepthMoves = fullDepthMoves;
+        this.base = base;
+        this.divisor = divisor;
+
+        for (int depth = minDepth; depth < MAX_DEPTH; depth++) {
+            for (int move = fullDepthMoves; move < MAX_MOVES; move++) {
+                int reduction = (int) (base + Math.log(depth) * Math.log(move + 1) / divisor);
+                // At least the move itself is searched
+                reductions[depth][move] = Math.min(reduction, depth - 1);
+            }
+        }
+    }
+
+    /**
+     * @param depth      the depth the position is searched to
+     * @param moveNumber the number of the move in the move ordering, from 0
+     * @return By how many plies the move is reduced, less than the depth
+     */
+    public int getReduction(int depth, int moveNumber) {
+        if (depth >= MAX_DEPTH) {
+            return reductions[MAX_DEPTH - 1][Math.min(moveNumber, MAX_MOVES - 1)];
+        }
+        return reductions[depth][Math.min(moveNumber, MAX_MOVES - 1)];
+    }
+
+    /**
+     * @param spec the parameters of the table, like
+     *             <code>min-depth=4,full-depth-moves=3,base=0.5,divisor=2.5</code>. Parameters which are left out
+     *             keep the value of the {@link #DEFAULT} table.
+     * @return The table
+     * @throws IllegalArgumentException when the parameters are unknown or invalid
+     */
+    public static LateMoveReductions parse(String spec) {
+        int minDepth = DEFAULT.minDepth;
+        int fullDepthMoves = DEFAULT.fullDepthMoves;
+        double base = DEFAULT.base;
+        double divisor = DEFAULT.divisor;
+
+        for (String parameter : spec.split(",")) {
+            String[] parts = parameter.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected a parameter like 'base=0.5', got '" + parameter.trim() + "'.");
+            }
+
+            String value = parts[1].trim();
+            try {
+                switch (parts[0].trim()) {
+                    case "min-depth":
+                        minDepth = Integer.parseInt(value);
+                        break;
+                    case "full-depth-moves":
+                        fullDepthMoves = Integer.parseInt(value);
+                        break;
+                    case "base":
+                        base = Double.parseDouble(value);
+                        break;
+                    case "divisor":
+                        divisor = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown reduction parameter '" + parts[0].trim() + "'.");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Reduction parameter '" + parts[0].trim() + "' should be a number, but is '" + value + "'.");
+            }
+        }
+
+        return new LateMoveReductions(minDepth, fullDepthMoves, base, divisor);
+    }
+
+    /**
+     * @return The parameters of the table, as read by {@link #parse(String)}
+     */
+    @Override
+    public String toString() {
+        return "min-depth=" + minDepth + ",full-depth-moves=" + fullDepthMoves + ",base=" + base + ",divisor=" + divisor;
+    }
+}
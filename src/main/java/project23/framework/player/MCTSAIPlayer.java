@@ -0,0 +1,507 @@
+package project23.framework.player;
+
+import project23.framework.ConnectedGameManager;
+import project23.framework.TurnLatencyTracker;
+import project23.framework.board.Board;
+import project23.framework.board.BoardObserver;
+import project23.framework.board.BoardPiece;
+import project23.util.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An AI player which finds its moves with Monte Carlo tree search (MCTS), for any board of two players.
+ * <p>
+ * Every iteration walks down the tree from the current position using UCT, adds one new position to the tree, and
+ * finishes the game from there with random moves (a playout). The result of the playout is counted in every position
+ * on the way down. The move which was visited most when the time is up is played.
+ * <p>
+ * Every iteration plays on its own copy of the position. Games can make that copy cheap by overriding
+ * {@link #createPlayoutPosition(Board, Player)}; by default every copy is a clone of the board.
+ * <p>
+ * The tree is shared by all worker threads of the {@link SearchExecutor}. A thread walking down the tree counts
+ * every position it passes as a lost visit right away (a "virtual loss"), which is corrected when its playout is
+ * done, so other threads spread out over other parts of the tree instead of all following the same path.
+ * <p>
+ * The search stops at the same deadline as the {@link MinimaxAIPlayer}, see {@link TimeManager}.
+ */
+public class MCTSAIPlayer extends AIPlayer implements BoardObserver {
+
+    /**
+     * The exploration constant of UCT. Higher values try moves with fewer visits more often.
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    private MinimaxAIPlayer.AIDifficulty difficulty;
+
+    private final Object sessionLock = new Object();
+    private UUID session;
+
+    public MCTSAIPlayer(Board board, int id, String name, MinimaxAIPlayer.AIDifficulty difficulty) {
+        super(board, id, name);
+
+        this.difficulty = difficulty;
+        board.registerObserver(this);
+    }
+
+    public MCTSAIPlayer(Board board, int id, MinimaxAIPlayer.AIDifficulty difficulty) {
+        super(board, id);
+
+        this.difficulty = difficulty;
+        board.registerObserver(this);
+    }
+
+    /**
+     * Only show valid moves when this AI player is part of a ConnectedGameManager
+     */
+    @Override
+    public boolean isShowValidMoves() {
+        return (board.getGameManager() instanceof ConnectedGameManager);
+    }
+
+    /**
+     * Request a move from the AI player
+     */
+    @Override
+    public void requestMove() {
+        List<BoardPiece> validMoves = board.getValidMoves(this);
+        if (validMoves.size() == 0) {
+            board.makeMove(this, null);
+            return;
+        } else if (validMoves.size() == 1) {
+            board.makeMove(this, validMoves.get(0));
+            return;
+        }
+
+        switch (difficulty) {
+            case EASY:
+                executeRandomMove();
+                break;
+            case MEDIUM:
+                if (Math.random() > 0.5) {
+                    executeRandomMove();
+                } else {
+                    executeMCTSMove();
+                }
+                break;
+            case HARD:
+                executeMCTSMove();
+                break;
+            default:
+                throw new IllegalStateException("Invalid AI difficulty '" + difficulty + "'!");
+        }
+    }
+
+    /**
+     * Executes a random move to the board
+     */
+    public void executeRandomMove() {
+        List<BoardPiece> validMoves = board.getValidMoves(this);
+
+        BoardPiece randomMove = null;
+        if (!validMoves.isEmpty()) {
+            randomMove = validMoves.get((int) (Math.random() * validMoves.size()));
+        }
+
+        board.makeMove(this, randomMove);
+    }
+
+    /**
+     * Searches the current position with MCTS on the worker threads until the time is up, and then executes the
+     * best move using {@link Board#makeMove(Player, int, int)}
+     */
+    public void executeMCTSMove() {
+        markTurnPhase(TurnLatencyTracker.Phase.SEARCH_STARTED);
+
+        UUID session = UUID.randomUUID();
+        synchronized (sessionLock) {
+            this.session = session;
+        }
+
+        // The search runs on its own copy of the board, the real board belongs to the event loop.
+        PlayoutPosition root;
+        try {
+            root = createPlayoutPosition(board, this);
+        } catch (CloneNotSupportedException e) {
+            e.printStackTrace();
+            executeRandomMove();
+            return;
+        }
+
+        TimeManager timeManager = TimeManager.forMove(board, this);
+        Logger.info("Thinking for " + timeManager.getSoftLimit() + "ms using MCTS.");
+
+        long start = System.nanoTime();
+        long deadline = start + timeManager.getSoftLimit() * 1_000_000;
+        Node rootNode = new Node(PlayoutPosition.PASS, board.getGameManager().getOtherPlayer(this).getID());
+        AtomicLong playouts = new AtomicLong();
+
+        int submitted = 0;
+        for (int i = 0; i < SearchExecutor.getInstance().getParallelism(); i++) {
+            if (SearchExecutor.getInstance().submit(() -> search(session, root, rootNode, deadline, playouts))) {
+                submitted++;
+            }
+        }
+
+        SearchExecutor.getInstance().schedule(() -> board.getGameManager().getEventLoop().execute(
+                () -> onSearchDone(session, rootNode, playouts.get(), start)), timeManager.getSoftLimit());
+
+        if (submitted < SearchExecutor.getInstance().getParallelism()) {
+            Logger.warning("Could only start " + submitted + " MCTS search(es), the search workers are overloaded.");
+        }
+        if (submitted == 0) {
+            // Without any playouts we'd play an arbitrary move, so search here, even though it blocks the caller
+            search(session, root, rootNode, deadline, playouts);
+        }
+    }
+
+    /**
+     * Copies the position to search, which every iteration copies again and plays on. Called on the event loop.
+     *
+     * @param board  the board
+     * @param toMove the player to move
+     * @return the position
+     * @throws CloneNotSupportedException when the board can't be copied
+     */
+    protected PlayoutPosition createPlayoutPosition(Board board, Player toMove) throws CloneNotSupportedException {
+        Board position = board.clone();
+        position.setDisableRequestMove(true);
+        position.setCurrentPlayer(toMove);
+        return new BoardPlayoutPosition(position);
+    }
+
+    /**
+     * Runs MCTS iterations on the calling worker thread until the deadline or until the session is stopped.
+     *
+     * @param session  current threading session
+     * @param root     the position to search, with us to move
+     * @param rootNode the node of the position
+     * @param deadline when to stop, see {@link System#nanoTime()}
+     * @param playouts counts the finished iterations
+     */
+    private void search(UUID session, PlayoutPosition root, Node rootNode, long deadline, AtomicLong playouts) {
+        Random random = ThreadLocalRandom.current();
+        int[] moves = new int[board.getWidth() * board.getHeight()];
+
+        while (System.nanoTime() < deadline && isSessionActive(session)) {
+            PlayoutPosition position;
+            try {
+                position = root.copy();
+            } catch (CloneNotSupportedException e) {
+                e.printStackTrace();
+                return;
+            }
+
+            List<Node> path = new ArrayList<>();
+            Node node = rootNode;
+            node.visits.incrementAndGet();
+            path.add(node);
+
+            // Selection and expansion: walk down until a new node was added, or the game is over
+            boolean expanded = false;
+            while (!expanded) {
+                Node next;
+                synchronized (node) {
+                    if (node.untriedMoves == null) {
+                        node.initialize(position, moves);
+                    }
+
+                    if (node.terminal) {
+                        break;
+                    }
+
+                    if (!node.untriedMoves.isEmpty()) {
+                        int move = node.untriedMoves.remove(random.nextInt(node.untriedMoves.size()));
+                        next = new Node(move, position.getPlayerToMove());
+                        node.children.add(next);
+                        expanded = true;
+                    } else {
+                        next = node.selectChild();
+                    }
+                }
+
+                // The virtual loss, until the result of the playout is known
+                next.visits.incrementAndGet();
+                path.add(next);
+
+                position.play(next.move);
+                node = next;
+            }
+
+            int winner = playout(position, moves, random);
+
+            for (Node visited : path) {
+                if (winner == PlayoutPosition.DRAW) {
+                    visited.score.addAndGet(1);
+                } else if (winner == visited.mover) {
+                    visited.score.addAndGet(2);
+                }
+            }
+
+            playouts.incrementAndGet();
+        }
+    }
+
+    /**
+     * Finishes the game with random moves, see {@link #choosePlayoutMove(PlayoutPosition, int[], int, Random)}.
+     *
+     * @param position the position to play on, which is changed
+     * @param moves    an array to find the valid moves in, as long as the amount of squares
+     * @param random   the random generator of the thread
+     * @return the ID of the winner, or {@link PlayoutPosition#DRAW}
+     */
+    private int playout(PlayoutPosition position, int[] moves, Random random) {
+        while (!position.isGameOver()) {
+            int count = position.getValidMoves(moves);
+            position.play(count == 0 ? PlayoutPosition.PASS : choosePlayoutMove(position, moves, count, random));
+        }
+
+        return position.getWinner();
+    }
+
+    /**
+     * Picks a move during a playout. Picks a random move; subclasses can prefer moves which are known to be good
+     * in their game, as long as this stays cheap, because it is called for every move of every playout.
+     *
+     * @param position the position, with the player to move
+     * @param moves    the squares of the valid moves of the player
+     * @param count    the amount of valid moves in the array, never 0
+     * @param random   the random generator of the thread
+     * @return the square to play
+     */
+    protected int choosePlayoutMove(PlayoutPosition position, int[] moves, int count, Random random) {
+        return moves[random.nextInt(count)];
+    }
+
+    /**
+     * Plays the move which was visited most. Runs on the event loop of the game.
+     *
+     * @param session  current threading session
+     * @param rootNode the node of the position we searched
+     * @param playouts the amount of finished iterations
+     * @param start    when the search started, see {@link System#nanoTime()}
+     */
+    private void onSearchDone(UUID session, Node rootNode, long playouts, long start) {
+        synchronized (sessionLock) {
+            if (this.session != session) {
+                return;
+            }
+
+            this.session = null;
+        }
+
+        Node best = null;
+        synchronized (rootNode) {
+            for (Node child : rootNode.children) {
+                if (best == null || child.visits.get() > best.visits.get()) {
+                    best = child;
+                }
+            }
+        }
+
+        List<BoardPiece> validMoves = board.getValidMoves(this);
+        BoardPiece bestMove = best == null || best.move == PlayoutPosition.PASS ? null :
+                board.getBoardPiece(best.move % board.getWidth(), best.move / board.getWidth());
+        if (!validMoves.isEmpty() && (bestMove == null || !validMoves.contains(bestMove))) {
+            Logger.error("MCTS couldn't come up with a valid move! Sending a random move..");
+            bestMove = validMoves.get((int) (Math.random() * validMoves.size()));
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        if (best != null) {
+            Logger.info(String.format("Found best move %s with %d of %d visits and a win rate of %.1f%%, " +
+                            "after %,d playouts in %dms (%,.0f playouts/s).",
+                    bestMove == null ? "pass" : bestMove.getCoordinate(), best.visits.get(), rootNode.visits.get(),
+                    best.getWinRate() * 100, playouts, elapsedMs, playouts * 1000.0 / Math.max(1, elapsedMs)));
+        }
+
+        markTurnPhase(TurnLatencyTracker.Phase.SEARCH_DONE);
+
+        if (bestMove == null) {
+            board.makeMove(this, null);
+        } else {
+            board.makeMove(this, bestMove.getX(), bestMove.getY());
+        }
+    }
+
+    private boolean isSessionActive(UUID session) {
+        synchronized (sessionLock) {
+            return this.session == session;
+        }
+    }
+
+    /**
+     * Timestamps a phase of our current turn, when this AI player is part of a ConnectedGameManager
+     *
+     * @param phase the phase which was just reached
+     */
+    private void markTurnPhase(TurnLatencyTracker.Phase phase) {
+        if (board.getGameManager() instanceof ConnectedGameManager) {
+            ((ConnectedGameManager) board.getGameManager()).getTurnLatencyTracker().mark(phase);
+        }
+    }
+
+    public MinimaxAIPlayer.AIDifficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(MinimaxAIPlayer.AIDifficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    @Override
+    public void onPlayerMoved(Player who, BoardPiece where) {
+    }
+
+    @Override
+    public void onPlayerMoveFinalized(Player previous, Player current) {
+    }
+
+    @Override
+    public void onGameStart(Player startingPlayer) {
+    }
+
+    @Override
+    public void onPlayerWon(Player who) {
+        synchronized (sessionLock) {
+            session = null;
+        }
+    }
+
+    /**
+     * A playout position which plays on a clone of the board, for games without a more compact representation.
+     */
+    private static class BoardPlayoutPosition implements PlayoutPosition {
+
+        private final Board board;
+
+        private BoardPlayoutPosition(Board board) {
+            this.board = board;
+        }
+
+        @Override
+        public PlayoutPosition copy() throws CloneNotSupportedException {
+            return new BoardPlayoutPosition(board.clone());
+        }
+
+        @Override
+        public int getPlayerToMove() {
+            return board.getCurrentPlayer().getID();
+        }
+
+        @Override
+        public int getValidMoves(int[] moves) {
+            int count = 0;
+            for (BoardPiece move : board.getValidMoves(board.getCurrentPlayer())) {
+                moves[count++] = move.getX() + move.getY() * board.getWidth();
+            }
+            return count;
+        }
+
+        /**
+         * Executes the move without the checks and notifications of {@link Board#makeMove(Player, int, int)}.
+         */
+        @Override
+        public void play(int move) {
+            Player player = board.getCurrentPlayer();
+            if (move != PASS) {
+                board._executeMove(player, board.getBoardPiece(move % board.getWidth(), move / board.getWidth()));
+            }
+
+            board.setCurrentPlayer(board.getGameManager().getOtherPlayer(player));
+        }
+
+        @Override
+        public boolean isGameOver() {
+            return board.calculateIsGameOver();
+        }
+
+        @Override
+        public int getWinner() {
+            Player winner = board.calculateWinner();
+            return winner == null ? DRAW : winner.getID();
+        }
+    }
+
+    /**
+     * A position in the search tree. The children and untried moves are guarded by the node itself; the visits and
+     * score are atomic, so they can be read while walking down the tree without locking every child.
+     */
+    private static class Node {
+
+        // The square of the move leading to this position
+        private final int move;
+        // The ID of the player who made the move, the score is from their point of view
+        private final int mover;
+
+        private final AtomicInteger visits = new AtomicInteger();
+        // 2 points for a win, 1 for a draw
+        private final AtomicInteger score = new AtomicInteger();
+
+        private final List<Node> children = new ArrayList<>();
+        private List<Integer> untriedMoves;
+        private boolean terminal;
+
+        private Node(int move, int mover) {
+            this.move = move;
+            this.mover = mover;
+        }
+
+        /**
+         * Finds the moves of the position, the first time a thread reaches it. A player without valid moves passes,
+         * unless the game is over.
+         *
+         * @param position the position
+         * @param moves    an array to find the valid moves in, as long as the amount of squares
+         */
+        private void initialize(PlayoutPosition position, int[] moves) {
+            terminal = position.isGameOver();
+            untriedMoves = new ArrayList<>();
+            if (terminal) {
+                return;
+            }
+
+            int count = position.getValidMoves(moves);
+            for (int i = 0; i < count; i++) {
+                untriedMoves.add(moves[i]);
+            }
+            if (count == 0) {
+                untriedMoves.add(PlayoutPosition.PASS);
+            }
+        }
+
+        /**
+         * @return The child with the highest UCT value. Must be called while holding the lock of this node.
+         */
+        private Node selectChild() {
+            double logVisits = Math.log(Math.max(1, visits.get()));
+
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int childVisits = Math.max(1, child.visits.get());
+                double value = child.score.get() / (2.0 * childVisits) +
+                        EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return The fraction of the playouts through this node won by {@link #mover}, counting draws as half
+         */
+        private double getWinRate() {
+            int visits = this.visits.get();
+            return visits == 0 ? 0 : score.get() / (2.0 * visits);
+        }
+    }
+}
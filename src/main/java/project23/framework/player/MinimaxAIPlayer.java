@@ -1,46 +1,156 @@
 package project23.framework.player;
 
+import project23.framework.BoardState;
 import project23.framework.ConfigData;
 import project23.framework.ConnectedGameManager;
+import project23.framework.TurnLatencyTracker;
 import project23.framework.board.Board;
 import project23.framework.board.BoardObserver;
 import project23.framework.board.BoardPiece;
+import project23.framework.board.BoardPosition;
+import project23.framework.board.BoardSymmetry;
 import project23.util.Logger;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver {
 
     private AIDifficulty difficulty;
 
+    /**
+     * The session of searches which are never stopped, see {@link #searchFixedDepth(Board, int)}.
+     */
+    private static final UUID FIXED_DEPTH_SESSION = new UUID(0, 0);
+
     private final Object minimaxSessionLock = new Object();
     private UUID minimaxSession;
 
+    // The best move of the last finished iteration, and of the iteration which is currently running
     private final Object bestMoveLock = new Object();
     private BoardPiece bestMove;
     private float bestMoveValue;
+    private int[] bestMoveLine;
+    private BoardPiece iterationBestMove;
+    private float iterationBestMoveValue;
+    private int[] iterationBestMoveLine;
+
+    /**
+     * Marks the end of a line of moves, see {@link #miniMax(UUID, Board, int, int, float, float, Player, int, int, int[])}.
+     */
+    private static final int LINE_END = -2;
+
+    /**
+     * A pass in a line of moves.
+     */
+    private static final int LINE_PASS = -1;
+
+    private volatile TimeManager timeManager;
+    /**
+     * The depth the current search stops at regardless of the time, or 0 when the time manager decides.
+     */
+    private volatile int fixedDepth;
 
     private final AtomicBoolean anyEndedInNonGameOver = new AtomicBoolean();
     private final AtomicInteger highestDepth = new AtomicInteger();
-    private final Set<UUID> runningThreads = new HashSet<>();
+
+    // What this player searched, over all searches
+    private final SearchCounters counters = new SearchCounters();
+
+    // The statistics of the current search, guarded by bestMoveLock
+    private final List<SearchStatistics.Iteration> iterations = new ArrayList<>();
+    private SearchCounters.Snapshot searchStartCounters;
+    private long searchStartNanos;
+    private String searchPosition;
+    private boolean ponderHit;
+
+    private final List<SearchStatisticsListener> statisticsListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Killer moves are kept for this many plies since the start of the game, later plies share the last ones.
+     */
+    private static final int KILLER_PLIES = 128;
+
+    /**
+     * History scores stay below this, so they never outrank a killer move.
+     */
+    private static final int HISTORY_LIMIT = 1 << 30;
+
+    /**
+     * Counts the leaves of the searches on this thread which didn't end in a game-over, so a position knows whether
+     * the search below it reached the end of the game everywhere.
+     */
+    private static final ThreadLocal<long[]> OPEN_LEAVES = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * MTD(f) moves every next guess at least this far from the bound the previous pass found, doubling while the
+     * passes keep failing to the same side, and stops when the bounds are this close.
+     */
+    private static final float MTDF_STEP = 1f / 64;
+    private static final float MTDF_TOLERANCE = 1f / 256;
+
+    // What earlier searches learned, kept for as long as this player plays, so every search starts with the results
+    // and move ordering of the previous ones. Shared by the worker threads without locking, they are only hints for
+    // the move ordering, except the transposition table which checks its own entries.
+    private TranspositionTable transpositionTable;
+    // The two latest moves which caused a cutoff, by ply since the start of the game, so they stay valid for the
+    // next move's search
+    private final int[][] killers = new int[KILLER_PLIES][2];
+    // How often every move caused a cutoff, by player ID and square, weighted by depth
+    private final int[][] history;
+
+    private volatile ProbCut probCut;
+    private volatile LateMoveReductions lateMoveReductions = ConfigData.getInstance().getLateMoveReductions();
+    private volatile SearchDriver searchDriver = ConfigData.getInstance().getSearchDriver();
+
+    // Results of pondering on the opponent's time, keyed by the predicted reply of the opponent
+    private final Map<BoardPiece, SearchResult> ponderResults = new ConcurrentHashMap<>();
+    private volatile BoardPiece lastOpponentMove;
+    // Whether pondering already started the search of our next move, see newSearch()
+    private volatile boolean pondered;
 
     public MinimaxAIPlayer(Board board, int id, String name, AIDifficulty difficulty) {
         super(board, id, name);
 
         this.difficulty = difficulty;
+        this.history = new int[board.getMaxPlayers()][board.getWidth() * board.getHeight()];
+        clearKillers();
         board.registerObserver(this);
+        registerStatisticsLog();
     }
 
     public MinimaxAIPlayer(Board board, int id, AIDifficulty difficulty) {
         super(board, id);
 
         this.difficulty = difficulty;
+        this.history = new int[board.getMaxPlayers()][board.getWidth() * board.getHeight()];
+        clearKillers();
         board.registerObserver(this);
+        registerStatisticsLog();
+    }
+
+    /**
+     * Writes the statistics of every search to the configured file, if there is one.
+     */
+    private void registerStatisticsLog() {
+        if (ConfigData.getInstance().getSearchStatisticsFile() != null) {
+            addStatisticsListener(SearchStatisticsLog.forFile(ConfigData.getInstance().getSearchStatisticsFile()));
+        }
+    }
+
+    /**
+     * @param listener receives the statistics of every move this player finds by searching
+     */
+    public void addStatisticsListener(SearchStatisticsListener listener) {
+        statisticsListeners.add(listener);
+    }
+
+    public void removeStatisticsListener(SearchStatisticsListener listener) {
+        statisticsListeners.remove(listener);
     }
 
     /**
@@ -52,11 +162,319 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
      */
     protected abstract float evaluateBoard(Board board, int treeDepth);
 
+    /**
+     * Called before a search starts at the board. The boards of the search are clones of it, so anything attached to
+     * it here is inherited by all of them. Does nothing by default.
+     *
+     * @param root the board the search starts at
+     */
+    protected void prepareSearch(Board root) {
+    }
+
+    /**
+     * Whether the search should use the symmetries of the position, see {@link BoardSymmetry}: moves leading to a
+     * position symmetric to that of another move are skipped. Looking for symmetries costs time at every node, so
+     * this is off by default, games turn it on while their positions are likely to be symmetric.
+     *
+     * @param board a position in the search, with a square board
+     * @return Whether to use the symmetries of the position
+     */
+    protected boolean isSymmetryWorthChecking(Board board) {
+        return false;
+    }
+
+    /**
+     * Removes the moves leading to a position symmetric to that of another move, when that's worth checking.
+     *
+     * @param board a position in the search
+     * @param moves the valid moves on the board
+     */
+    private void removeSymmetricMoves(Board board, List<BoardPiece> moves) {
+        if (moves.size() > 1 && BoardSymmetry.appliesTo(board) && isSymmetryWorthChecking(board)) {
+            BoardSymmetry.removeSymmetricMoves(board, moves);
+        }
+    }
+
+    /**
+     * Starts a new search on top of what earlier searches learned: the transposition table entries of earlier
+     * searches age by a generation, and the history scores are halved, so the latest searches count the most.
+     * Called once for every move of ours: when pondering starts, or else when the search of the move starts.
+     */
+    private void newSearch() {
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable(ConfigData.getInstance().getTranspositionTableSize());
+        } else {
+            transpositionTable.newSearch();
+        }
+
+        for (int[] playerHistory : history) {
+            for (int square = 0; square < playerHistory.length; square++) {
+                playerHistory[square] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Forgets what earlier searches learned, so the next search takes as long as the first one did. Used by tools
+     * which compare searches, like the engine regression suite; must not be called while searching.
+     */
+    public void clearSearchMemory() {
+        transpositionTable = null;
+        clearKillers();
+        for (int[] playerHistory : history) {
+            Arrays.fill(playerHistory, 0);
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, TranspositionTable.NO_MOVE);
+        }
+    }
+
+    /**
+     * @param board a position in the search, with a square board
+     * @return The symmetry to hash the position with: the canonical one when symmetries are used, so symmetric
+     * positions share their entry in the transposition table
+     */
+    private int getKeySymmetry(Board board) {
+        return isSymmetryWorthChecking(board) ? BoardSymmetry.canonicalSymmetry(board) : 0;
+    }
+
+    /**
+     * @param board a position
+     * @return The amount of pieces on the board, which is the amount of moves since the start of the game, not
+     * counting passes
+     */
+    private static int countPieces(Board board) {
+        int pieces = 0;
+        for (int count : board.piecesCount().values()) {
+            pieces += count;
+        }
+        return pieces;
+    }
+
+    /**
+     * Sorts the moves so the ones most likely to cause a cutoff come first: the best move of an earlier search of
+     * the position, then the killer moves of the ply, then the rest by their history score.
+     *
+     * @param board    a position in the search
+     * @param moves    the valid moves on the board, without passes
+     * @param hashMove the number of the square of the best move of an earlier search, or
+     *                 {@link TranspositionTable#NO_MOVE}
+     * @param ply      the amount of moves since the start of the game
+     * @param player   the player to move
+     * @return The amount of moves at the start which are the best move of an earlier search or a killer move
+     */
+    private int orderMoves(Board board, List<BoardPiece> moves, int hashMove, int ply, Player player) {
+        if (moves.size() < 2) {
+            return moves.size();
+        }
+
+        int width = board.getWidth();
+        int[] plyKillers = killers[Math.min(ply, KILLER_PLIES - 1)];
+        int[] playerHistory = history[player.getID()];
+
+        int[] scores = new int[moves.size()];
+        for (int i = 0; i < scores.length; i++) {
+            BoardPiece move = moves.get(i);
+            int square = move.getX() + move.getY() * width;
+
+            int score;
+            if (square == hashMove) {
+                score = Integer.MAX_VALUE;
+            } else if (square == plyKillers[0]) {
+                score = HISTORY_LIMIT + 1;
+            } else if (square == plyKillers[1]) {
+                score = HISTORY_LIMIT;
+            } else {
+                score = playerHistory[square];
+            }
+
+            // Insertion sort, there are only a few moves
+            int j = i;
+            for (; j > 0 && scores[j - 1] < score; j--) {
+                scores[j] = scores[j - 1];
+                moves.set(j, moves.get(j - 1));
+            }
+            scores[j] = score;
+            moves.set(j, move);
+        }
+
+        int expectedMoves = 0;
+        while (expectedMoves < scores.length && scores[expectedMoves] >= HISTORY_LIMIT) {
+            expectedMoves++;
+        }
+        return expectedMoves;
+    }
+
+    /**
+     * Remembers a move which caused a cutoff, so it is searched early in the positions of the same ply and player.
+     *
+     * @param player the player who made the move
+     * @param square the number of the square of the move
+     * @param ply    the amount of moves since the start of the game, before the move
+     * @param depth  the depth the position was searched to, deeper cutoffs save more
+     */
+    private void recordCutoff(Player player, int square, int ply, int depth) {
+        int[] plyKillers = killers[Math.min(ply, KILLER_PLIES - 1)];
+        if (plyKillers[0] != square) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = square;
+        }
+
+        int[] playerHistory = history[player.getID()];
+        playerHistory[square] = Math.min(playerHistory[square] + depth * depth, HISTORY_LIMIT - 1);
+    }
+
+    /**
+     * Sorts the valid moves of the position a search starts at, see
+     * {@link #orderMoves(Board, List, int, int, Player)}. When we searched the position before, as a deeper position
+     * in the search of our previous move or while pondering, its best move comes first.
+     *
+     * @param position the position the search starts at, with this player to move
+     * @param moves    the valid moves on the board
+     * @param ply      the amount of moves since the start of the game
+     */
+    private void orderRootMoves(Board position, List<BoardPiece> moves, int ply) {
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (BoardSymmetry.appliesTo(position)) {
+            int symmetry = getKeySymmetry(position);
+            long entry = transpositionTable.probe(BoardSymmetry.key(position, symmetry), counters);
+            hashMove = getHashMove(position, entry, symmetry);
+        }
+        orderMoves(position, moves, hashMove, ply, this);
+    }
+
+    /**
+     * Stores the result of a finished iteration, so the next iteration and later searches of the position start with
+     * its best move.
+     *
+     * @param position      the position the search started at
+     * @param depth         the depth of the iteration
+     * @param bestMove      the best move
+     * @param bestMoveValue the value of the best move
+     * @param solved        whether every line of the search ended in a game-over
+     */
+    private void storeRootResult(Board position, int depth, BoardPiece bestMove, float bestMoveValue, boolean solved) {
+        if (bestMove == null || !BoardSymmetry.appliesTo(position)) {
+            return;
+        }
+
+        int symmetry = getKeySymmetry(position);
+        int size = position.getWidth();
+        transpositionTable.store(BoardSymmetry.key(position, symmetry), bestMoveValue, depth + 1,
+                TranspositionTable.EXACT,
+                BoardSymmetry.transform(bestMove.getX() + bestMove.getY() * size, size, symmetry), solved);
+    }
+
+    /**
+     * @param board    a position
+     * @param entry    the transposition table entry of the position, or 0
+     * @param symmetry the symmetry the position was hashed with
+     * @return The number of the square of the best move in the entry, or {@link TranspositionTable#NO_MOVE}
+     */
+    private static int getHashMove(Board board, long entry, int symmetry) {
+        if (entry == 0 || TranspositionTable.getMove(entry) == TranspositionTable.NO_MOVE) {
+            return TranspositionTable.NO_MOVE;
+        }
+        return BoardSymmetry.transform(TranspositionTable.getMove(entry), board.getWidth(),
+                BoardSymmetry.inverse(symmetry));
+    }
+
+    /**
+     * Notes that a line of the search ended without the game being over, so a deeper search could change the
+     * result.
+     */
+    private void markOpenLeaf() {
+        OPEN_LEAVES.get()[0]++;
+        synchronized (anyEndedInNonGameOver) {
+            anyEndedInNonGameOver.set(true);
+        }
+    }
+
+    /**
+     * @param session current threading session
+     * @return Whether the session was stopped, so the results of its searches can't be trusted
+     */
+    private boolean isStopped(UUID session) {
+        if (session == FIXED_DEPTH_SESSION) {
+            return false;
+        }
+        synchronized (minimaxSessionLock) {
+            return minimaxSession != session;
+        }
+    }
+
+    /**
+     * @param board a position in the search
+     * @return The phase of the game the position is in, which picks its {@link ProbCut} parameters. 0 by default.
+     */
+    protected int getPhase(Board board) {
+        return 0;
+    }
+
+    /**
+     * @return The ProbCut parameters the search uses, or <code>null</code> when it doesn't use ProbCut
+     */
+    public ProbCut getProbCut() {
+        return probCut;
+    }
+
+    /**
+     * @param probCut the ProbCut parameters to search with, for the phases of {@link #getPhase(Board)}, or
+     *                <code>null</code> to search without ProbCut, which is the default. Applies from the next position
+     *                the search enters.
+     */
+    public void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+    }
+
+    /**
+     * @return The late move reductions the search uses, or <code>null</code> when it searches every move at full
+     * depth
+     */
+    public LateMoveReductions getLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * @param lateMoveReductions the late move reductions to search with, or <code>null</code> to search every move at
+     *                           full depth. {@link ConfigData#getLateMoveReductions()} by default. Applies from the
+     *                           next position the search enters.
+     */
+    public void setLateMoveReductions(LateMoveReductions lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    /**
+     * @return How every iteration is searched
+     */
+    public SearchDriver getSearchDriver() {
+        return searchDriver;
+    }
+
+    /**
+     * @param searchDriver how to search every iteration. {@link ConfigData#getSearchDriver()} by default. Applies
+     *                     from the next iteration.
+     */
+    public void setSearchDriver(SearchDriver searchDriver) {
+        this.searchDriver = searchDriver;
+    }
+
     /**
      * @return The starting depth of the minimax algorithm
      */
     public abstract int getStartDepth();
 
+    /**
+     * @return The average time {@link #evaluateBoard(Board, int)} takes in nanoseconds, or {@link Double#NaN} when the
+     * evaluation doesn't measure it
+     */
+    public double getEvaluationNanos() {
+        return Double.NaN;
+    }
+
     /**
      * Only show valid moves when this AI player is part of a ConnectedGameManager
      */
@@ -70,6 +488,8 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
      */
     @Override
     public void requestMove() {
+        stopPondering();
+
         List<BoardPiece> validMoves = board.getValidMoves(this);
         if (validMoves.size() == 0) {
             board.makeMove(this, null);
@@ -116,37 +536,117 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
      * Check all valid moves using minimax, and execute it using {@link Board#makeMove(Player, BoardPiece)}
      */
     public void executeMinimaxMove() {
+        markTurnPhase(TurnLatencyTracker.Phase.SEARCH_STARTED);
+
         UUID session = UUID.randomUUID();
         synchronized (minimaxSessionLock) {
             minimaxSession = session;
         }
 
+        // The search runs on its own copy of the board, the real board belongs to the event loop.
+        Board snapshot;
+        try {
+            snapshot = board.clone();
+        } catch (CloneNotSupportedException e) {
+            e.printStackTrace();
+            executeRandomMove();
+            return;
+        }
+        snapshot.setDisableRequestMove(true);
+
+        TimeManager timeManager = TimeManager.forMove(board, this);
+        this.timeManager = timeManager;
+
+        int fixedDepth = ConfigData.getInstance().getMinimaxFixedDepth();
+        this.fixedDepth = fixedDepth;
+        if (fixedDepth > 0) {
+            Logger.info("Searching to a fixed depth of " + fixedDepth + ".");
+        } else {
+            Logger.info("Thinking for " + timeManager.getSoftLimit() + "ms, at most " + timeManager.getHardLimit() + "ms.");
+        }
+
+        int startDepth = fixedDepth > 0 ? Math.min(getStartDepth(), fixedDepth) : getStartDepth();
+        SearchResult ponderResult = takeSearchResult();
+        if (pondered) {
+            // Pondering already aged the memory for this move, its results are part of this search
+            pondered = false;
+        } else {
+            newSearch();
+        }
+
         synchronized (bestMoveLock) {
-            bestMove = null;
-            bestMoveValue = Float.NEGATIVE_INFINITY;
+            if (ponderResult != null) {
+                bestMove = board.getBoardPiece(ponderResult.bestMove.getX(), ponderResult.bestMove.getY());
+                bestMoveValue = ponderResult.bestMoveValue;
+            } else {
+                bestMove = null;
+                bestMoveValue = Float.NEGATIVE_INFINITY;
+            }
+            bestMoveLine = null;
+
+            iterationBestMove = null;
+            iterationBestMoveValue = Float.NEGATIVE_INFINITY;
+            iterationBestMoveLine = null;
+
+            iterations.clear();
+            searchStartCounters = counters.snapshot();
+            searchStartNanos = System.nanoTime();
+            searchPosition = BoardPosition.of(board).toString();
+            ponderHit = ponderResult != null;
         }
 
         synchronized (highestDepth) {
-            highestDepth.set(0);
+            highestDepth.set(ponderResult != null ? ponderResult.depth : 0);
         }
 
-        performAsyncMinimax(session, getStartDepth());
+        if (ponderResult != null) {
+            // The depths up to the pondered depth have already been searched, continue from there.
+            startDepth = ponderResult.depth + 1;
+            timeManager.onIterationDone(ponderResult.depth, ponderResult.bestMove, ponderResult.bestMoveValue);
+        }
 
-        Thread watchdogThread = new Thread(() -> {
-            try {
-                Thread.sleep(ConfigData.getInstance().getMinimaxThinkingTime());
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        performAsyncMinimax(session, snapshot, startDepth);
+
+        // With a fixed depth, only the iterations decide when the search is done.
+        if (fixedDepth <= 0) {
+            scheduleWatchdog(session, timeManager);
+        }
+    }
+
+    /**
+     * Ends the search when the time budget is used up. The budget can be extended while the search is running, so
+     * when the deadline is reached the remaining time is checked again.
+     *
+     * @param session     current threading session
+     * @param timeManager the time manager of the search
+     */
+    private void scheduleWatchdog(UUID session, TimeManager timeManager) {
+        SearchExecutor.getInstance().schedule(() -> {
+            synchronized (minimaxSessionLock) {
+                if (minimaxSession != session) {
+                    return;
+                }
             }
 
-            onMinimaxDone(session);
-        });
-        watchdogThread.setDaemon(true);
-        watchdogThread.start();
+            if (timeManager.getRemaining() > 0) {
+                scheduleWatchdog(session, timeManager);
+            } else {
+                finishMinimax(session);
+            }
+        }, timeManager.getRemaining());
+    }
+
+    /**
+     * Hands the result of the search to the event loop of the game, which makes the move.
+     *
+     * @param session current threading session
+     */
+    private void finishMinimax(UUID session) {
+        board.getGameManager().getEventLoop().execute(() -> onMinimaxDone(session));
     }
 
     /**
-     * Picks the best move out of the minimax tree.
+     * Picks the best move out of the minimax tree. Runs on the event loop of the game.
      * Chooses a random valid move if minimax could not come up with a best move.
      *
      * @param session current threading session
@@ -162,9 +662,18 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
 
         BoardPiece bestMove;
         float bestMoveValue;
+        int[] bestMoveLine;
         synchronized (bestMoveLock) {
             bestMove = this.bestMove;
             bestMoveValue = this.bestMoveValue;
+            bestMoveLine = this.bestMoveLine;
+
+            if (bestMove == null) {
+                // Not even the first iteration finished, a move from the unfinished iteration is better than nothing.
+                bestMove = this.iterationBestMove;
+                bestMoveValue = this.iterationBestMoveValue;
+                bestMoveLine = this.iterationBestMoveLine;
+            }
         }
 
         List<BoardPiece> validMoves = board.getValidMoves(this);
@@ -192,6 +701,7 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
         }
 
         Logger.info("Found best move " + bestMove + " with a value of " + bestMoveValue + " at a depth of " + highestDepthValue + ".");
+        Logger.debug(() -> SearchExecutor.getInstance().toString());
 
         StringBuilder certaintyMessage = new StringBuilder();
         if (Math.abs(bestMoveValue) < 0.8f) {
@@ -223,111 +733,755 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
 
         Logger.info(certaintyMessage.toString());
 
-        board.makeMove(this, bestMove);
+        markTurnPhase(TurnLatencyTracker.Phase.SEARCH_DONE);
+
+        if (!statisticsListeners.isEmpty()) {
+            SearchStatistics statistics = createStatistics(bestMove, bestMoveValue, bestMoveLine, highestDepthValue);
+            Logger.debug(() -> "Search statistics: " + statistics);
+            for (SearchStatisticsListener listener : statisticsListeners) {
+                try {
+                    listener.onSearchDone(this, statistics);
+                } catch (RuntimeException e) {
+                    // The move has to be made anyway
+                    Logger.error("Search statistics listener failed: " + e);
+                }
+            }
+        }
+
+        // The best move may be a piece of the search snapshot, so make the move by its coordinates.
+        if (bestMove == null) {
+            board.makeMove(this, null);
+        } else {
+            board.makeMove(this, bestMove.getX(), bestMove.getY());
+        }
     }
 
     /**
-     * Executes minimax algorithm on async threads
+     * Collects the statistics of the search which just finished.
      *
-     * @param session current thread session
-     * @param depth   minimax tree depth
+     * @param bestMove      the move that will be made
+     * @param bestMoveValue the value of the move
+     * @param bestMoveLine  the line of moves starting with the best move, or <code>null</code> when unknown
+     * @param depth         the highest depth which was searched completely
+     * @return the statistics
      */
-    private void performAsyncMinimax(UUID session, int depth) {
-        synchronized (minimaxSessionLock) {
-            if (minimaxSession != session) {
-                return;
-            }
-        }
-
-        synchronized (runningThreads) {
-            // Just to be sure!
-            runningThreads.clear();
+    private SearchStatistics createStatistics(BoardPiece bestMove, float bestMoveValue, int[] bestMoveLine, int depth) {
+        List<SearchStatistics.Iteration> iterations;
+        SearchCounters.Snapshot searchCounters;
+        long elapsedMs;
+        String position;
+        boolean ponderHit;
+        synchronized (bestMoveLock) {
+            iterations = new ArrayList<>(this.iterations);
+            searchCounters = counters.snapshot().since(searchStartCounters);
+            elapsedMs = (System.nanoTime() - searchStartNanos) / 1_000_000;
+            position = searchPosition;
+            ponderHit = this.ponderHit;
         }
 
-        synchronized (anyEndedInNonGameOver) {
-            anyEndedInNonGameOver.set(false);
+        List<String> principalVariation = new ArrayList<>();
+        if (bestMoveLine != null) {
+            for (int i = 0; i < bestMoveLine.length && bestMoveLine[i] != LINE_END; i++) {
+                principalVariation.add(bestMoveLine[i] == LINE_PASS ? "pass" :
+                        BoardPiece.coordinate(bestMoveLine[i] % board.getWidth(), bestMoveLine[i] / board.getWidth()));
+            }
+        } else {
+            principalVariation.add(formatMove(bestMove));
         }
 
-        List<BoardPiece> validMoves = board.getValidMoves(this);
+        TimeManager timeManager = this.timeManager;
+        return new SearchStatistics(
+                System.currentTimeMillis(),
+                getName(),
+                ConfigData.getInstance().getCurrentGameType().displayName,
+                position,
+                formatMove(bestMove),
+                bestMoveValue,
+                depth,
+                ponderHit,
+                elapsedMs,
+                timeManager.getSoftLimit(),
+                timeManager.getHardLimit(),
+                fixedDepth > 0 ? "the fixed depth was reached" : timeManager.getStopReason(),
+                searchCounters,
+                getEvaluationNanos(),
+                iterations,
+                principalVariation);
+    }
 
-        for (BoardPiece boardPiece : validMoves) {
-            int x = boardPiece.getX();
-            int y = boardPiece.getY();
+    private static String formatMove(BoardPiece move) {
+        return move == null ? "pass" : move.getCoordinate();
+    }
 
-            final UUID threadUuid = UUID.randomUUID();
-            synchronized (runningThreads) {
-                runningThreads.add(threadUuid);
-            }
+    /**
+     * Starts searching the positions after every possible reply of the opponent in the background, so we can
+     * continue from there when the opponent's move arrives. Only done during server matches, because that's
+     * where the opponent takes long enough to think for it to pay off.
+     */
+    private void startPondering() {
+        if (!ConfigData.getInstance().isPonderEnabled() ||
+                ConfigData.getInstance().getMinimaxFixedDepth() > 0 ||
+                difficulty == AIDifficulty.EASY ||
+                !(board.getGameManager() instanceof ConnectedGameManager)) {
+            return;
+        }
 
-            Thread thread = new Thread(() -> {
-                synchronized (minimaxSessionLock) {
-                    if (minimaxSession != session) {
-                        return;
-                    }
-                }
+        Board snapshot;
+        try {
+            snapshot = board.clone();
+        } catch (CloneNotSupportedException e) {
+            e.printStackTrace();
+            return;
+        }
+        snapshot.setDisableRequestMove(true);
 
-                float moveValue = miniMax(session, board, depth, this, x, y);
+        // Pondering uses the same session as a normal search, so starting a real search automatically stops it.
+        UUID session = UUID.randomUUID();
+        synchronized (minimaxSessionLock) {
+            minimaxSession = session;
+            ponderResults.clear();
+        }
+        lastOpponentMove = null;
+        newSearch();
+        pondered = true;
 
-                synchronized (bestMoveLock) {
-                    if (moveValue > bestMoveValue) {
-                        bestMove = boardPiece;
-                        bestMoveValue = moveValue;
-                    }
-                }
+        SearchExecutor.getInstance().submit(() -> ponder(session, snapshot));
+    }
 
-                boolean isEmpty;
-                synchronized (runningThreads) {
-                    runningThreads.remove(threadUuid);
-                    isEmpty = runningThreads.isEmpty();
-                }
+    /**
+     * Stops pondering, if we were.
+     */
+    private void stopPondering() {
+        synchronized (minimaxSessionLock) {
+            minimaxSession = null;
+        }
+    }
 
-                if (isEmpty) {
-                    // We're DONE!
-                    synchronized (minimaxSessionLock) {
-                        if (minimaxSession != session) {
-                            return;
-                        }
+    /**
+     * Searches the positions after every valid reply of the opponent with increasing depth, until the session is
+     * stopped or every position has been searched until the end of the game.
+     *
+     * @param session  current threading session
+     * @param snapshot the board with the opponent to move
+     */
+    private void ponder(UUID session, Board snapshot) {
+        Player opponent = snapshot.getCurrentPlayer();
+
+        Map<BoardPiece, Board> positions = new LinkedHashMap<>();
+        for (BoardPiece reply : snapshot.getValidMoves(opponent)) {
+            Board position;
+            try {
+                position = snapshot.clone();
+            } catch (CloneNotSupportedException e) {
+                e.printStackTrace();
+                return;
+            }
+            position.setDisableRequestMove(true);
+            position.makeMove(opponent, reply.getX(), reply.getY());
+
+            if (position.getBoardState() == BoardState.PLAYING &&
+                    position.getCurrentPlayer() == this &&
+                    !position.getValidMoves(this).isEmpty()) {
+                positions.put(reply, position);
+            }
+        }
+
+        if (!positions.isEmpty()) {
+            performAsyncPonder(session, positions, getStartDepth());
+        }
+    }
+
+    /**
+     * Ponders on all positions at a single depth on the worker threads. The last position to finish starts the
+     * next depth, so no worker is kept waiting on the others.
+     *
+     * @param session   current threading session
+     * @param positions the positions after every reply of the opponent
+     * @param depth     minimax tree depth
+     */
+    private void performAsyncPonder(UUID session, Map<BoardPiece, Board> positions, int depth) {
+        synchronized (minimaxSessionLock) {
+            if (minimaxSession != session) {
+                return;
+            }
+        }
+
+        synchronized (anyEndedInNonGameOver) {
+            anyEndedInNonGameOver.set(false);
+        }
+
+        AtomicInteger remaining = new AtomicInteger(positions.size());
+        for (Map.Entry<BoardPiece, Board> position : positions.entrySet()) {
+            boolean submitted = SearchExecutor.getInstance().submit(() -> {
+                ponderPosition(session, position.getKey(), position.getValue(), depth);
+
+                if (remaining.decrementAndGet() != 0) {
+                    return;
+                }
+
+                synchronized (minimaxSessionLock) {
+                    if (minimaxSession != session) {
+                        return;
                     }
+                }
 
-                    synchronized (highestDepth) {
-                        if (depth > highestDepth.get()) {
-                            highestDepth.set(depth);
-                        }
+                boolean anyEndedInNonGameOverValue;
+                synchronized (anyEndedInNonGameOver) {
+                    anyEndedInNonGameOverValue = anyEndedInNonGameOver.get();
+                }
+
+                if (!anyEndedInNonGameOverValue) {
+                    Logger.debug("Pondered all replies until the end of the game at a depth of " + depth + ".");
+                    return;
+                }
+
+                Logger.debug(() -> "Pondered " + positions.size() + " replies at a depth of " + depth + ".");
+                performAsyncPonder(session, positions, depth + 1);
+            });
+            if (!submitted) {
+                // This depth can never finish, so no deeper depth is started. The results so far stay valid.
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds our best move in the position after a single reply of the opponent, and stores it as ponder result.
+     *
+     * @param session  current threading session
+     * @param reply    the reply of the opponent which lead to the position
+     * @param position the position, with us to move
+     * @param depth    minimax tree depth
+     */
+    private void ponderPosition(UUID session, BoardPiece reply, Board position, int depth) {
+        SearchResult result = searchRoot(session, position, depth, System.nanoTime(), counters.getNodes());
+
+        // Checked under the same lock the results are taken under, so no result of a stopped session can be stored
+        // after they were taken.
+        synchronized (minimaxSessionLock) {
+            if (minimaxSession != session) {
+                // Stopped halfway, so the values can't be trusted.
+                return;
+            }
+
+            ponderResults.put(reply, result);
+        }
+    }
+
+    /**
+     * Looks up the ponder result for the move the opponent actually made, and clears all other results. Call after
+     * the pondering session was replaced.
+     *
+     * @return The ponder result, or <code>null</code> when we didn't ponder on the opponent's move
+     */
+    private SearchResult takeSearchResult() {
+        BoardPiece reply = lastOpponentMove;
+        SearchResult result;
+        boolean pondered;
+        synchronized (minimaxSessionLock) {
+            result = reply == null ? null : ponderResults.get(reply);
+
+            pondered = !ponderResults.isEmpty();
+            ponderResults.clear();
+        }
+        lastOpponentMove = null;
+
+        if (result == null || !board.getValidMoves(this).contains(result.bestMove)) {
+            if (pondered) {
+                Logger.info("Ponder miss, the opponent played a move we didn't ponder on. Starting a fresh search.");
+            }
+            return null;
+        }
+
+        Logger.info("Ponder hit! Already searched until a depth of " + result.depth + ", with best move " + result.bestMove + ".");
+        return result;
+    }
+
+    /**
+     * Timestamps a phase of our current turn, when this AI player is part of a ConnectedGameManager
+     *
+     * @param phase the phase which was just reached
+     */
+    private void markTurnPhase(TurnLatencyTracker.Phase phase) {
+        if (board.getGameManager() instanceof ConnectedGameManager) {
+            ((ConnectedGameManager) board.getGameManager()).getTurnLatencyTracker().mark(phase);
+        }
+    }
+
+    /**
+     * Executes minimax algorithm on the worker threads, one task per root move
+     *
+     * @param session  current thread session
+     * @param position the snapshot of the board to search on
+     * @param depth    minimax tree depth
+     */
+    private void performAsyncMinimax(UUID session, Board position, int depth) {
+        synchronized (minimaxSessionLock) {
+            if (minimaxSession != session) {
+                return;
+            }
+        }
+
+        synchronized (anyEndedInNonGameOver) {
+            anyEndedInNonGameOver.set(false);
+        }
+
+        synchronized (bestMoveLock) {
+            iterationBestMove = null;
+            iterationBestMoveValue = Float.NEGATIVE_INFINITY;
+            iterationBestMoveLine = null;
+        }
+
+        prepareSearch(position);
+
+        long iterationStartNodes = counters.getNodes();
+        long iterationStartNanos = System.nanoTime();
+
+        int ply = countPieces(position);
+        List<BoardPiece> validMoves = position.getValidMoves(this);
+        removeSymmetricMoves(position, validMoves);
+        orderRootMoves(position, validMoves, ply);
+
+        if (searchDriver == SearchDriver.MTDF) {
+            // Every pass depends on the one before, so the passes run one after another on a single worker
+            boolean submitted = SearchExecutor.getInstance().submit(() -> {
+                if (isStopped(session)) {
+                    return;
+                }
+
+                int[] line = new int[depth + 2];
+                SearchResult result = searchRootMtdf(session, position, validMoves, depth, ply, line);
+
+                synchronized (minimaxSessionLock) {
+                    if (minimaxSession != session) {
+                        // Stopped halfway, so the value can't be trusted.
+                        return;
+                    }
+
+                    synchronized (bestMoveLock) {
+                        iterationBestMove = result.bestMove;
+                        iterationBestMoveValue = result.bestMoveValue;
+                        iterationBestMoveLine = line;
                     }
+                }
+
+                finishIteration(session, position, depth, iterationStartNodes, iterationStartNanos, result.passes);
+            });
+            if (!submitted) {
+                finishRejectedIteration(session, depth);
+            }
+            return;
+        }
+
+        // Counts down as the root moves finish, the last one finishes the iteration
+        AtomicInteger remaining = new AtomicInteger(validMoves.size());
+
+        for (BoardPiece boardPiece : validMoves) {
+            int x = boardPiece.getX();
+            int y = boardPiece.getY();
+
+            boolean submitted = SearchExecutor.getInstance().submit(() -> {
+                synchronized (minimaxSessionLock) {
+                    if (minimaxSession != session) {
+                        return;
+                    }
+                }
+
+                // Moves which can't beat the best move so far only have to prove that
+                float alpha;
+                synchronized (bestMoveLock) {
+                    alpha = iterationBestMoveValue;
+                }
+
+                int[] line = new int[depth + 2];
+                float moveValue = miniMax(session, position, depth, ply + 1, alpha, Float.POSITIVE_INFINITY,
+                        this, x, y, line);
 
-                    boolean anyEndedInNonGameOverValue;
-                    synchronized (anyEndedInNonGameOver) {
-                        anyEndedInNonGameOverValue = anyEndedInNonGameOver.get();
+                synchronized (minimaxSessionLock) {
+                    if (minimaxSession != session) {
+                        // Stopped halfway, so the value can't be trusted.
+                        return;
                     }
 
-                    if (anyEndedInNonGameOverValue) {
-                        // We can still go higher!
-                        Logger.info("Done with minimax at a depth of " + depth + ", but we still have time. Going deeper!");
-                        performAsyncMinimax(session, depth + 1);
-                    } else {
-                        Logger.info("All minimax ends ended in a game-over. Aborting early at a depth of " + depth + "!");
-                        onMinimaxDone(session);
+                    synchronized (bestMoveLock) {
+                        if (moveValue > iterationBestMoveValue) {
+                            iterationBestMove = boardPiece;
+                            iterationBestMoveValue = moveValue;
+                            iterationBestMoveLine = line;
+                        }
                     }
                 }
+
+                if (remaining.decrementAndGet() == 0) {
+                    finishIteration(session, position, depth, iterationStartNodes, iterationStartNanos, 1);
+                }
             });
-            thread.setDaemon(true);
-            thread.start();
+            if (!submitted) {
+                finishRejectedIteration(session, depth);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ends the search with the best move of the last finished iteration, because a task of the current iteration
+     * was rejected by the {@link SearchExecutor} and the iteration can never finish.
+     *
+     * @param session current thread session
+     * @param depth   minimax tree depth of the unfinished iteration
+     */
+    private void finishRejectedIteration(UUID session, int depth) {
+        Logger.warning("Could not search at a depth of " + depth + ", the search workers are overloaded. Stopping.");
+        finishMinimax(session);
+    }
+
+    /**
+     * Makes the best move of a finished iteration the best move of the search, and starts the next iteration unless
+     * the search should stop.
+     *
+     * @param session             current thread session
+     * @param position            the snapshot of the board the search is on
+     * @param depth               minimax tree depth of the iteration
+     * @param iterationStartNodes the node count when the iteration started
+     * @param iterationStartNanos when the iteration started, see {@link System#nanoTime()}
+     * @param passes              the amount of times the position was searched in the iteration
+     */
+    private void finishIteration(UUID session, Board position, int depth, long iterationStartNodes,
+                                 long iterationStartNanos, int passes) {
+        // We're DONE!
+        synchronized (minimaxSessionLock) {
+            if (minimaxSession != session) {
+                return;
+            }
+        }
+
+        synchronized (highestDepth) {
+            if (depth > highestDepth.get()) {
+                highestDepth.set(depth);
+            }
+        }
+
+        long now = System.nanoTime();
+        long iterationNodes = counters.getNodes() - iterationStartNodes;
+
+        BoardPiece finishedBestMove;
+        float finishedBestMoveValue;
+        synchronized (bestMoveLock) {
+            bestMove = finishedBestMove = iterationBestMove;
+            bestMoveValue = finishedBestMoveValue = iterationBestMoveValue;
+            bestMoveLine = iterationBestMoveLine;
+
+            iterations.add(new SearchStatistics.Iteration(depth, iterationNodes,
+                    (now - iterationStartNanos) / 1_000_000, (now - searchStartNanos) / 1_000_000,
+                    formatMove(finishedBestMove), finishedBestMoveValue, passes));
+        }
+
+        boolean anyEndedInNonGameOverValue;
+        synchronized (anyEndedInNonGameOver) {
+            anyEndedInNonGameOverValue = anyEndedInNonGameOver.get();
+        }
+
+        storeRootResult(position, depth, finishedBestMove, finishedBestMoveValue,
+                !anyEndedInNonGameOverValue);
+
+        TimeManager timeManager = this.timeManager;
+        timeManager.onIterationDone(depth, finishedBestMove, finishedBestMoveValue);
+
+        if (!anyEndedInNonGameOverValue) {
+            Logger.info("All minimax ends ended in a game-over. Aborting early at a depth of " + depth + "!");
+            finishMinimax(session);
+        } else if (fixedDepth > 0) {
+            if (depth >= fixedDepth) {
+                Logger.info("Done with minimax at the fixed depth of " + depth + " after " + timeManager.getElapsed() + "ms.");
+                finishMinimax(session);
+            } else {
+                performAsyncMinimax(session, position, depth + 1);
+            }
+        } else if (timeManager.shouldStopAfterIteration()) {
+            Logger.info("Done with minimax at a depth of " + depth + " after " + timeManager.getElapsed() +
+                    "ms, stopping because " + timeManager.getStopReason() + ".");
+            finishMinimax(session);
+        } else {
+            // We can still go higher!
+            Logger.info("Done with minimax at a depth of " + depth + ", but we still have time. Going deeper!");
+            performAsyncMinimax(session, position, depth + 1);
+        }
+    }
+
+    /**
+     * Searches a position to a fixed depth on the calling thread, without a time limit and without making a move.
+     * Used by benchmarks and tests; during a game, use {@link #requestMove()}.
+     *
+     * @param position the position to search, with this player to move
+     * @param depth    minimax tree depth, like the depth of an iteration of {@link #executeMinimaxMove()}
+     * @return the best move and its value
+     */
+    public SearchResult searchFixedDepth(Board position, int depth) {
+        newSearch();
+        return searchRoot(FIXED_DEPTH_SESSION, position, depth, System.nanoTime(), counters.getNodes());
+    }
+
+    /**
+     * Searches a position with increasing depth on the calling thread until the time is up, without making a move.
+     * Unlike {@link #executeMinimaxMove()} the first iteration has a depth of 0, so the time it takes to reach
+     * every depth can be compared. Used by tools like the engine regression suite; during a game, use
+     * {@link #requestMove()}.
+     *
+     * @param position the position to search, with this player to move
+     * @param timeMs   the time to search for, in milliseconds
+     * @return the result of every iteration which finished in time, the last one holds the best move. Empty when not
+     * even the first iteration finished.
+     */
+    public List<SearchResult> searchFixedTime(Board position, long timeMs) {
+        UUID session = UUID.randomUUID();
+        synchronized (minimaxSessionLock) {
+            minimaxSession = session;
+        }
+
+        newSearch();
+
+        ScheduledFuture<?> deadline = SearchExecutor.getInstance().schedule(() -> {
+            synchronized (minimaxSessionLock) {
+                if (minimaxSession == session) {
+                    minimaxSession = null;
+                }
+            }
+        }, timeMs);
+
+        long startNanos = System.nanoTime();
+        long startNodes = counters.getNodes();
+        List<SearchResult> results = new ArrayList<>();
+
+        for (int depth = 0; ; depth++) {
+            synchronized (anyEndedInNonGameOver) {
+                anyEndedInNonGameOver.set(false);
+            }
+
+            SearchResult result = searchRoot(session, position, depth, startNanos, startNodes);
+
+            synchronized (minimaxSessionLock) {
+                if (minimaxSession != session) {
+                    // Stopped halfway, so the result can't be trusted.
+                    break;
+                }
+            }
+
+            results.add(result);
+
+            boolean anyEndedInNonGameOverValue;
+            synchronized (anyEndedInNonGameOver) {
+                anyEndedInNonGameOverValue = anyEndedInNonGameOver.get();
+            }
+
+            if (!anyEndedInNonGameOverValue) {
+                // Searched until the end of the game, going deeper won't change anything.
+                break;
+            }
         }
+
+        deadline.cancel(false);
+        synchronized (minimaxSessionLock) {
+            if (minimaxSession == session) {
+                minimaxSession = null;
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Searches all valid moves of a position on the calling thread.
+     *
+     * @param session    current threading session
+     * @param position   the position to search, with this player to move
+     * @param depth      minimax tree depth
+     * @param startNanos when the search started, see {@link System#nanoTime()}
+     * @param startNodes the node count when the search started
+     * @return the best move and its value
+     */
+    private SearchResult searchRoot(UUID session, Board position, int depth, long startNanos, long startNodes) {
+        long openLeavesBefore = OPEN_LEAVES.get()[0];
+
+        prepareSearch(position);
+        int ply = countPieces(position);
+        List<BoardPiece> validMoves = position.getValidMoves(this);
+        removeSymmetricMoves(position, validMoves);
+        orderRootMoves(position, validMoves, ply);
+
+        SearchResult result = searchDriver == SearchDriver.MTDF ?
+                searchRootMtdf(session, position, validMoves, depth, ply, null) :
+                searchRootWindow(session, position, validMoves, depth, ply, Float.NEGATIVE_INFINITY,
+                        Float.POSITIVE_INFINITY, null);
+
+        if (!isStopped(session)) {
+            storeRootResult(position, depth, result.bestMove, result.bestMoveValue,
+                    OPEN_LEAVES.get()[0] == openLeavesBefore);
+        }
+
+        return new SearchResult(result.bestMove, result.bestMoveValue, depth,
+                counters.getNodes() - startNodes, System.nanoTime() - startNanos, result.passes);
+    }
+
+    /**
+     * Searches the moves of a position one after another, with a window. Like {@link #miniMax}, the value is only a
+     * bound when it lies outside the window.
+     *
+     * @param session  current threading session
+     * @param position the position to search, with this player to move
+     * @param moves    the valid moves of the position, in the order to search them
+     * @param depth    minimax tree depth
+     * @param ply      the amount of moves since the start of the game
+     * @param alpha    the value we're already sure to get
+     * @param beta     the value above which the search stops
+     * @param bestLine receives the line of the best move, or <code>null</code>
+     * @return the best move and its value, without nodes and time
+     */
+    private SearchResult searchRootWindow(UUID session, Board position, List<BoardPiece> moves, int depth, int ply,
+                                          float alpha, float beta, int[] bestLine) {
+        BoardPiece bestMove = null;
+        float bestMoveValue = Float.NEGATIVE_INFINITY;
+        int[] line = bestLine == null ? null : new int[bestLine.length];
+
+        for (BoardPiece move : moves) {
+            float moveValue = miniMax(session, position, depth, ply + 1, Math.max(alpha, bestMoveValue), beta,
+                    this, move.getX(), move.getY(), line);
+            if (moveValue > bestMoveValue) {
+                bestMove = move;
+                bestMoveValue = moveValue;
+                if (line != null) {
+                    System.arraycopy(line, 0, bestLine, 0, line.length);
+                }
+            }
+            if (bestMoveValue >= beta) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestMove, bestMoveValue, depth, 0, 0, 1);
+    }
+
+    /**
+     * Searches the moves of a position with MTD(f): zero window searches which each only show whether the value lies
+     * above or below a guess, until the lower and upper bound meet. The first guess is the value of the previous
+     * search of the position in the transposition table, usually the previous iteration. The move which proved the
+     * lower bound is searched first in the next pass.
+     * <p>
+     * A pass which is cut off by ProbCut only returns the edge of its window, so instead of guessing the bound
+     * itself, every next guess lies at least {@link #MTDF_STEP} beyond it, but never beyond the middle between the
+     * bounds.
+     *
+     * @param session  current threading session
+     * @param position the position to search, with this player to move
+     * @param moves    the valid moves of the position, in the order to search them, which is changed
+     * @param depth    minimax tree depth
+     * @param ply      the amount of moves since the start of the game
+     * @param bestLine receives the line of the best move, or <code>null</code>
+     * @return the best move, its value and the amount of passes, without nodes and time
+     */
+    private SearchResult searchRootMtdf(UUID session, Board position, List<BoardPiece> moves, int depth, int ply,
+                                        int[] bestLine) {
+        float lower = Float.NEGATIVE_INFINITY;
+        float upper = Float.POSITIVE_INFINITY;
+        float beta = getRootGuess(position);
+        float step = MTDF_STEP;
+        boolean failedHigh = false;
+        BoardPiece bestMove = null;
+        int[] line = bestLine == null ? null : new int[bestLine.length];
+        SearchResult pass = null;
+        int passes = 0;
+
+        while (upper - lower > MTDF_TOLERANCE && !isStopped(session)) {
+            pass = searchRootWindow(session, position, moves, depth, ply, Math.nextDown(beta), beta, line);
+            passes++;
+
+            boolean passFailedHigh = pass.bestMoveValue >= beta;
+            step = passes > 1 && passFailedHigh == failedHigh ? step * 2 : MTDF_STEP;
+            failedHigh = passFailedHigh;
+
+            if (failedHigh) {
+                lower = pass.bestMoveValue;
+                bestMove = pass.bestMove;
+                if (line != null) {
+                    System.arraycopy(line, 0, bestLine, 0, line.length);
+                }
+
+                moves.remove(bestMove);
+                moves.add(0, bestMove);
+                beta = lower + step;
+            } else {
+                upper = pass.bestMoveValue;
+                beta = upper - step;
+            }
+
+            if (!(beta > lower && beta <= upper)) {
+                beta = lower + (upper - lower) / 2;
+            }
+        }
+
+        if (bestMove == null && pass != null) {
+            // No pass failed high, only when stopped halfway or without moves
+            return new SearchResult(pass.bestMove, pass.bestMoveValue, depth, 0, 0, passes);
+        }
+        return new SearchResult(bestMove, lower, depth, 0, 0, passes);
+    }
+
+    /**
+     * @param position the position a search starts at, with this player to move
+     * @return The value of the position in the transposition table, or 0 when it isn't there
+     */
+    private float getRootGuess(Board position) {
+        if (!BoardSymmetry.appliesTo(position)) {
+            return 0;
+        }
+
+        long entry = transpositionTable.probe(BoardSymmetry.key(position, getKeySymmetry(position)), counters);
+        return entry == 0 ? 0 : TranspositionTable.getValue(entry);
+    }
+
+    /**
+     * @return The amount of positions this player searched so far, over all searches
+     */
+    public long getNodeCount() {
+        return counters.getNodes();
+    }
+
+    /**
+     * @return What this player searched so far, over all searches
+     */
+    public SearchCounters getCounters() {
+        return counters;
     }
 
     /**
      * returns the highest value move when the end is reached because either a lack of valid moves,
      * the end of a node or the maximum search depth is reached.
+     * <p>
+     * Searches with alpha-beta pruning: once a move proves the value lies outside the window between
+     * <code>alpha</code> and <code>beta</code>, the other moves can't change the result and are skipped. The value
+     * is then only a bound, but one on the side of the window the caller ignores. Both are from this player's point
+     * of view, like the value.
      *
      * @param _board a playing board.
      * @param depth  depth of the nodes to look into.
+     * @param ply    the amount of moves since the start of the game, after the move
+     * @param alpha  the value this player is already sure to get elsewhere
+     * @param beta   the value the opponent is already sure to get elsewhere
+     * @param line   receives the move followed by the best line of moves after it, ended by {@link #LINE_END} when
+     *               shorter than the array, or when the rest of the line came from the transposition table. Must
+     *               hold at least <code>depth + 2</code> moves, or be <code>null</code>.
      * @return int value of the board.
      */
-    private float miniMax(UUID session, Board _board, int depth, Player player, int moveX, int moveY) {
-        synchronized (minimaxSessionLock) {
-            if (minimaxSession != session) {
-                return 0;
-            }
+    private float miniMax(UUID session, Board _board, int depth, int ply, float alpha, float beta, Player player,
+                          int moveX, int moveY, int[] line) {
+        if (isStopped(session)) {
+            return 0;
+        }
+
+        counters.countNode();
+
+        if (line != null) {
+            line[0] = moveX == -1 && moveY == -1 ? LINE_PASS : moveX + moveY * _board.getWidth();
+            line[1] = LINE_END;
         }
 
         // Clone the board
@@ -351,24 +1505,74 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
         if (depth == 0 || gameOver) {
             // end reached.
             if (!gameOver) {
-                synchronized (anyEndedInNonGameOver) {
-                    anyEndedInNonGameOver.set(true);
-                }
+                markOpenLeaf();
             }
 
             return evaluateBoard(board, depth);
         }
 
+        // Look the position up, an earlier search may already know its value, or else its best move
+        boolean useTable = BoardSymmetry.appliesTo(board);
+        int symmetry = 0;
+        long key = 0;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (useTable) {
+            symmetry = getKeySymmetry(board);
+            key = BoardSymmetry.key(board, symmetry);
+            long entry = transpositionTable.probe(key, counters);
+
+            if (entry != 0 && (TranspositionTable.isSolved(entry) || TranspositionTable.getDepth(entry) >= depth)) {
+                float value = TranspositionTable.getValue(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT ||
+                        bound == TranspositionTable.LOWER && value >= beta ||
+                        bound == TranspositionTable.UPPER && value <= alpha) {
+                    if (!TranspositionTable.isSolved(entry)) {
+                        markOpenLeaf();
+                    }
+                    return value;
+                }
+            }
+            hashMove = getHashMove(board, entry, symmetry);
+        }
+
         Player playerToMove = board.getCurrentPlayer();
         boolean lookForMax = playerToMove == this;
+
+        float probCutValue = probCut(session, _board, board, depth, ply, alpha, beta, player, moveX, moveY, lookForMax);
+        if (!Float.isNaN(probCutValue)) {
+            return probCutValue;
+        }
+
         float extremeVal = lookForMax ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
 
         List<BoardPiece> validMoves = board.getValidMoves(playerToMove);
+        int expectedMoves;
         if (validMoves.isEmpty()) { /* && board.canPass(playerToMove) */
             validMoves.add(null);
+            expectedMoves = 1;
+        } else {
+            removeSymmetricMoves(board, validMoves);
+            expectedMoves = orderMoves(board, validMoves, hashMove, ply, playerToMove);
         }
+        LateMoveReductions lateMoveReductions = this.lateMoveReductions;
+
+        int[] childLine = null;
+        int[] bestChildLine = null;
+        if (line != null) {
+            childLine = new int[depth + 1];
+            bestChildLine = new int[depth + 1];
+            bestChildLine[0] = LINE_END;
+        }
+
+        float windowAlpha = alpha;
+        float windowBeta = beta;
+        long[] openLeaves = OPEN_LEAVES.get();
+        long openLeavesBefore = openLeaves[0];
+        int bestSquare = TranspositionTable.NO_MOVE;
 
-        for (BoardPiece _boardPiece : validMoves) {
+        for (int moveNumber = 0; moveNumber < validMoves.size(); moveNumber++) {
+            BoardPiece _boardPiece = validMoves.get(moveNumber);
             int x, y;
             if (_boardPiece != null) {
                 x = _boardPiece.getX();
@@ -377,18 +1581,126 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
                 x = y = -1;
             }
 
-            float val = miniMax(session, board, depth - 1, playerToMove, x, y);
-
-            if (lookForMax) {
-                if (val > extremeVal) extremeVal = val;
+            // A late move is first searched less deep, only to see whether it beats the best move so far
+            int reduction = lateMoveReductions == null || moveNumber < expectedMoves ? 0 :
+                    lateMoveReductions.getReduction(depth, moveNumber);
+            float best = lookForMax ? alpha : beta;
+            float val;
+            if (reduction > 0 && !Float.isInfinite(best)) {
+                counters.countReduction();
+                val = lookForMax ?
+                        miniMax(session, board, depth - 1 - reduction, ply + 1, alpha, Math.nextUp(alpha),
+                                playerToMove, x, y, childLine) :
+                        miniMax(session, board, depth - 1 - reduction, ply + 1, Math.nextDown(beta), beta,
+                                playerToMove, x, y, childLine);
+                if (lookForMax ? val > alpha : val < beta) {
+                    counters.countReSearch();
+                    val = miniMax(session, board, depth - 1, ply + 1, alpha, beta, playerToMove, x, y, childLine);
+                }
             } else {
-                if (val < extremeVal) extremeVal = val;
+                val = miniMax(session, board, depth - 1, ply + 1, alpha, beta, playerToMove, x, y, childLine);
             }
+
+            if (lookForMax ? val > extremeVal : val < extremeVal) {
+                extremeVal = val;
+                bestSquare = _boardPiece == null ? TranspositionTable.NO_MOVE : x + y * board.getWidth();
+
+                if (line != null) {
+                    int[] swap = bestChildLine;
+                    bestChildLine = childLine;
+                    childLine = swap;
+                }
+
+                if (lookForMax) {
+                    alpha = Math.max(alpha, val);
+                } else {
+                    beta = Math.min(beta, val);
+                }
+
+                if (alpha >= beta) {
+                    // The other player won't let the game get here, the other moves don't matter
+                    counters.countCutoff();
+                    if (_boardPiece != null) {
+                        recordCutoff(playerToMove, bestSquare, ply, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (line != null) {
+            System.arraycopy(bestChildLine, 0, line, 1, bestChildLine.length);
+        }
+
+        if (useTable && !isStopped(session)) {
+            int bound = extremeVal <= windowAlpha ? TranspositionTable.UPPER :
+                    extremeVal >= windowBeta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            int move = bestSquare == TranspositionTable.NO_MOVE ? TranspositionTable.NO_MOVE :
+                    BoardSymmetry.transform(bestSquare, board.getWidth(), symmetry);
+            transpositionTable.store(key, extremeVal, depth, bound, move, openLeaves[0] == openLeavesBefore);
         }
 
         return extremeVal;
     }
 
+    /**
+     * Tries the {@link ProbCut} checks of a position: shallow searches, whose values predict with enough confidence
+     * whether a deep search of the position would fail high or low. The shallow searches search the position the same
+     * way {@link #miniMax(UUID, Board, int, int, float, float, Player, int, int, int[])} does, but with a null window
+     * around the value the prediction needs.
+     *
+     * @param session    current threading session
+     * @param parent     the position before the move
+     * @param board      the position after the move
+     * @param depth      the depth the position is about to be searched to
+     * @param ply        the amount of moves since the start of the game, after the move
+     * @param alpha      the value this player is already sure to get elsewhere
+     * @param beta       the value the opponent is already sure to get elsewhere
+     * @param player     the player who made the move
+     * @param moveX      the X-coordinate of the move, -1 for a pass
+     * @param moveY      the Y-coordinate of the move, -1 for a pass
+     * @param lookForMax whether this player is to move in the position
+     * @return The bound of the window the deep search would very likely fail at, or {@link Float#NaN} when it can't
+     * be predicted
+     */
+    private float probCut(UUID session, Board parent, Board board, int depth, int ply, float alpha, float beta,
+                          Player player, int moveX, int moveY, boolean lookForMax) {
+        ProbCut probCut = this.probCut;
+        if (probCut == null) {
+            return Float.NaN;
+        }
+
+        int phase = getPhase(board);
+        ProbCut.Check[] checks = probCut.getChecks(phase, depth);
+        float threshold = probCut.getThreshold(phase);
+        for (ProbCut.Check check : checks) {
+            // The regression is from the point of view of the player to move, and values from ours
+            float intercept = lookForMax ? check.getIntercept() : -check.getIntercept();
+            float margin = threshold * check.getSigma();
+
+            if (beta != Float.POSITIVE_INFINITY) {
+                float bound = (beta - intercept + margin) / check.getSlope();
+                float value = miniMax(session, parent, check.getShallowDepth(), ply, Math.nextDown(bound), bound,
+                        player, moveX, moveY, null);
+                if (value >= bound) {
+                    counters.countCutoff();
+                    return beta;
+                }
+            }
+
+            if (alpha != Float.NEGATIVE_INFINITY) {
+                float bound = (alpha - intercept - margin) / check.getSlope();
+                float value = miniMax(session, parent, check.getShallowDepth(), ply, bound, Math.nextUp(bound),
+                        player, moveX, moveY, null);
+                if (value <= bound) {
+                    counters.countCutoff();
+                    return alpha;
+                }
+            }
+        }
+        return Float.NaN;
+    }
+
     public AIDifficulty getDifficulty() {
         return difficulty;
     }
@@ -399,10 +1711,16 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
 
     @Override
     public void onPlayerMoved(Player who, BoardPiece where) {
+        if (who != this) {
+            lastOpponentMove = where;
+        }
     }
 
     @Override
     public void onPlayerMoveFinalized(Player previous, Player current) {
+        if (previous == this && current != this && !board.calculateIsGameOver()) {
+            startPondering();
+        }
     }
 
     @Override
@@ -416,6 +1734,88 @@ public abstract class MinimaxAIPlayer extends AIPlayer implements BoardObserver
         }
     }
 
+    /**
+     * The best move found by a search, like our best move in the position after a predicted reply of the opponent.
+     */
+    public static class SearchResult {
+
+        private final BoardPiece bestMove;
+        private final float bestMoveValue;
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+        private final int passes;
+
+        private SearchResult(BoardPiece bestMove, float bestMoveValue, int depth, long nodes, long elapsedNanos,
+                             int passes) {
+            this.bestMove = bestMove;
+            this.bestMoveValue = bestMoveValue;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.passes = passes;
+        }
+
+        /**
+         * @return The best move, or <code>null</code> when there were no valid moves
+         */
+        public BoardPiece getBestMove() {
+            return bestMove;
+        }
+
+        public float getBestMoveValue() {
+            return bestMoveValue;
+        }
+
+        /**
+         * @return The depth the best move was found at
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return The amount of positions searched since the search started, or 0 when not counted
+         */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return The time since the search started in nanoseconds, or 0 when not measured
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return The amount of times the position was searched to the depth, more than 1 with the
+         * {@link SearchDriver#MTDF} driver
+         */
+        public int getPasses() {
+            return passes;
+        }
+
+        /**
+         * @return The amount of positions searched per second, or 0 when not measured
+         */
+        public double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return "SearchResult{" +
+                    "bestMove=" + bestMove +
+                    ", bestMoveValue=" + bestMoveValue +
+                    ", depth=" + depth +
+                    ", nodes=" + nodes +
+                    ", elapsedNanos=" + elapsedNanos +
+                    ", passes=" + passes +
+                    '}';
+        }
+    }
+
     public enum AIDifficulty {
         EASY,
         MEDIUM,
@@ -0,0 +1,55 @@
+package project23.framework.player;
+
+/**
+ * A compact copy of a position of a game between two players, which the {@link MCTSAIPlayer} copies for every
+ * iteration and plays its selection and playout on, instead of cloning the whole board. Players are identified by
+ * their ID, and moves by their square, <code>x + y * width</code>.
+ */
+public interface PlayoutPosition {
+
+    /**
+     * The move of a player without valid moves.
+     */
+    int PASS = -1;
+
+    /**
+     * The winner of a drawn game.
+     */
+    int DRAW = -1;
+
+    /**
+     * @return A copy of this position, which can be changed without changing this position
+     * @throws CloneNotSupportedException when the position can't be copied
+     */
+    PlayoutPosition copy() throws CloneNotSupportedException;
+
+    /**
+     * @return The ID of the player to move
+     */
+    int getPlayerToMove();
+
+    /**
+     * Finds the valid moves of the player to move.
+     *
+     * @param moves the array to write the moves to, at least as long as the amount of squares
+     * @return the amount of valid moves, 0 when the player has to pass
+     */
+    int getValidMoves(int[] moves);
+
+    /**
+     * Makes a move for the player to move, and gives the turn to the other player.
+     *
+     * @param move the square of the move, or {@link #PASS}
+     */
+    void play(int move);
+
+    /**
+     * @return Whether neither player can make a move anymore
+     */
+    boolean isGameOver();
+
+    /**
+     * @return The ID of the player who won the finished game, or {@link #DRAW}
+     */
+    int getWinner();
+}
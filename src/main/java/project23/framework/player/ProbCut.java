@@ -0,0 +1,252 @@
+package project23.framework.player;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The parameters of Multi-ProbCut, which lets the minimax search skip positions a deep search would very likely cut
+ * off anyway. The value of a deep search of a position is predicted from the value of a much cheaper shallow search
+ * with a linear regression, <code>deep = slope * shallow + intercept</code>, whose errors have a standard deviation
+ * of <code>sigma</code>. When the shallow search shows the deep value lies outside the search window with enough
+ * confidence, the position gets the bound of the window without searching it deeply.
+ * <p>
+ * The parameters differ per game phase, see {@link MinimaxAIPlayer#getPhase(project23.framework.board.Board)}, and
+ * there can be several checks for every depth, which are tried cheapest first. The threshold of a phase is the amount
+ * of standard deviations the prediction has to clear the window by: higher is safer, lower prunes more.
+ * <p>
+ * The regressions are fitted on the values of searches of real positions by the
+ * {@link project23.headless.ProbCutCalibrator}, which writes them as text, see {@link #write(OutputStream)}. Values
+ * are from the point of view of the player to move.
+ */
+public class ProbCut {
+
+    private static final Check[] NO_CHECKS = new Check[0];
+
+    /**
+     * The threshold, by phase.
+     */
+    private final float[] thresholds;
+
+    /**
+     * The checks, by phase and depth, cheapest first.
+     */
+    private final Check[][][] checks;
+
+    /**
+     * @param thresholds the amount of standard deviations a prediction has to clear the window by, by phase
+     * @param checks     the checks for all phases and depths
+     */
+    public ProbCut(float[] thresholds, List<Check> checks) {
+        for (float threshold : thresholds) {
+            if (!(threshold >= 0)) {
+                throw new IllegalArgumentException("A threshold can't be negative, got " + threshold + ".");
+            }
+        }
+
+        int maxDepth = 0;
+        for (Check check : checks) {
+            if (check.phase >= thresholds.length) {
+                throw new IllegalArgumentException("A check is for phase " + check.phase + ", but there are only " + thresholds.length + " phases.");
+            }
+            maxDepth = Math.max(maxDepth, check.depth);
+        }
+
+        this.thresholds = thresholds.clone();
+        this.checks = new Check[thresholds.length][maxDepth + 1][];
+        for (int phase = 0; phase < thresholds.length; phase++) {
+            for (int depth = 0; depth <= maxDepth; depth++) {
+                int checkPhase = phase;
+                int checkDepth = depth;
+                Check[] depthChecks = checks.stream()
+                        .filter(check -> check.phase == checkPhase && check.depth == checkDepth)
+                        .sorted(Comparator.comparingInt(check -> check.shallowDepth))
+                        .toArray(Check[]::new);
+                this.checks[phase][depth] = depthChecks.length == 0 ? NO_CHECKS : depthChecks;
+            }
+        }
+    }
+
+    /**
+     * @return The amount of phases
+     */
+    public int getPhases() {
+        return thresholds.length;
+    }
+
+    /**
+     * @param phase a phase
+     * @return The amount of standard deviations a prediction has to clear the window by
+     */
+    public float getThreshold(int phase) {
+        return thresholds[phase];
+    }
+
+    /**
+     * @param phase a phase
+     * @param depth the depth a position is about to be searched to
+     * @return The checks to try before searching the position, cheapest first
+     */
+    public Check[] getChecks(int phase, int depth) {
+        if (phase >= checks.length || depth >= checks[phase].length) {
+            return NO_CHECKS;
+        }
+        return checks[phase][depth];
+    }
+
+    /**
+     * Reads parameters in the format of {@link #write(OutputStream)}.
+     *
+     * @param in the stream to read from, which is not closed
+     * @return the parameters
+     * @throws IOException when the parameters couldn't be read or are invalid
+     */
+    public static ProbCut read(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        float[] thresholds = null;
+        List<Check> checks = new ArrayList<>();
+
+        String line;
+        for (int lineNumber = 1; (line = reader.readLine()) != null; lineNumber++) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "phases":
+                        thresholds = new float[Integer.parseInt(parts[1])];
+                        break;
+                    case "threshold":
+                        if (thresholds == null) {
+                            throw new IllegalArgumentException("The amount of phases has to come first.");
+                        }
+                        thresholds[Integer.parseInt(parts[1])] = Float.parseFloat(parts[2]);
+                        break;
+                    case "check":
+                        checks.add(new Check(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                                Integer.parseInt(parts[3]), Float.parseFloat(parts[4]), Float.parseFloat(parts[5]),
+                                Float.parseFloat(parts[6])));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown setting '" + parts[0] + "'.");
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid ProbCut parameters on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        if (thresholds == null) {
+            throw new IOException("The ProbCut parameters don't say how many phases there are.");
+        }
+        try {
+            return new ProbCut(thresholds, checks);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid ProbCut parameters: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the parameters as text: the amount of phases, the threshold of every phase, and a line for every check
+     * with its phase, depth, shallow depth, slope, intercept and sigma.
+     *
+     * @param out the stream to write to, which is not closed
+     * @throws IOException when writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write("# Multi-ProbCut parameters, see project23.framework.player.ProbCut\n");
+        writer.write("phases " + thresholds.length + "\n");
+        for (int phase = 0; phase < thresholds.length; phase++) {
+            writer.write("threshold " + phase + " " + thresholds[phase] + "\n");
+        }
+        writer.write("# check <phase> <depth> <shallow depth> <slope> <intercept> <sigma>\n");
+        for (Check[][] phaseChecks : checks) {
+            for (Check[] depthChecks : phaseChecks) {
+                for (Check check : depthChecks) {
+                    writer.write(check + "\n");
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String toString() {
+        long count = Arrays.stream(checks).flatMap(Arrays::stream).mapToLong(depthChecks -> depthChecks.length).sum();
+        return "ProbCut{phases=" + thresholds.length + ", checks=" + count + ", thresholds=" + Arrays.toString(thresholds) + "}";
+    }
+
+    /**
+     * A check before searching a position to a depth: the regression of the value of that depth on the value of a
+     * shallow search.
+     */
+    public static class Check {
+
+        private final int phase;
+        private final int depth;
+        private final int shallowDepth;
+        private final float slope;
+        private final float intercept;
+        private final float sigma;
+
+        /**
+         * @param phase        the phase the check is for
+         * @param depth        the depth of the search the check predicts, like the <code>depth</code> a position is
+         *                     searched to in the minimax search
+         * @param shallowDepth the depth of the shallow search, lower than the depth
+         * @param slope        the slope of the regression, positive
+         * @param intercept    the intercept of the regression
+         * @param sigma        the standard deviation of the errors of the regression
+         */
+        public Check(int phase, int depth, int shallowDepth, float slope, float intercept, float sigma) {
+            if (phase < 0 || shallowDepth < 0 || shallowDepth >= depth) {
+                throw new IllegalArgumentException("A check needs a phase and a shallow depth below its depth, got phase " + phase + ", depth " + depth + " and shallow depth " + shallowDepth + ".");
+            }
+            if (!(slope > 0) || !(sigma >= 0) || Float.isNaN(intercept)) {
+                throw new IllegalArgumentException("A check needs a positive slope and a sigma of at least 0, got slope " + slope + ", intercept " + intercept + " and sigma " + sigma + ".");
+            }
+
+            this.phase = phase;
+            this.depth = depth;
+            this.shallowDepth = shallowDepth;
+            this.slope = slope;
+            this.intercept = intercept;
+            this.sigma = sigma;
+        }
+
+        public int getPhase() {
+            return phase;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getShallowDepth() {
+            return shallowDepth;
+        }
+
+        public float getSlope() {
+            return slope;
+        }
+
+        public float getIntercept() {
+            return intercept;
+        }
+
+        public float getSigma() {
+            return sigma;
+        }
+
+        @Override
+        public String toString() {
+            return "check " + phase + " " + depth + " " + shallowDepth + " " + slope + " " + intercept + " " + sigma;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package project23.framework.player;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what a search does, like the amount of positions searched. The counters are shared by all worker threads
+ * of a player and only ever go up, so to get the counts of a single search take a {@link #snapshot()} before and
+ * after it.
+ * <p>
+ * A search which doesn't prune or use a transposition table leaves those counters at 0.
+ */
+public class SearchCounters {
+
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder cutoffs = new LongAdder();
+    private final LongAdder ttProbes = new LongAdder();
+    private final LongAdder ttHits = new LongAdder();
+    private final LongAdder ttCollisions = new LongAdder();
+    private final LongAdder reductions = new LongAdder();
+    private final LongAdder reSearches = new LongAdder();
+
+    /**
+     * Counts a searched position.
+     */
+    public void countNode() {
+        nodes.increment();
+    }
+
+    /**
+     * Counts a position whose remaining moves were skipped, because it can't change the result.
+     */
+    public void countCutoff() {
+        cutoffs.increment();
+    }
+
+    /**
+     * Counts a lookup in the transposition table.
+     *
+     * @param hit       whether an entry for the position was found
+     * @param collision whether the slot of the position was taken by another position
+     */
+    public void countTTProbe(boolean hit, boolean collision) {
+        ttProbes.increment();
+        if (hit) {
+            ttHits.increment();
+        }
+        if (collision) {
+            ttCollisions.increment();
+        }
+    }
+
+    /**
+     * Counts a move which was searched less deep, because it was ordered late.
+     */
+    public void countReduction() {
+        reductions.increment();
+    }
+
+    /**
+     * Counts a reduced move which had to be searched again at full depth, because it beat the best move so far.
+     */
+    public void countReSearch() {
+        reSearches.increment();
+    }
+
+    /**
+     * @return The amount of positions searched so far
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * @return The current value of every counter
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(nodes.sum(), cutoffs.sum(), ttProbes.sum(), ttHits.sum(), ttCollisions.sum(),
+                reductions.sum(), reSearches.sum());
+    }
+
+    /**
+     * The values of the counters at one point in time, or the difference between two points in time.
+     */
+    public static class Snapshot {
+
+        private final long nodes;
+        private final long cutoffs;
+        private final long ttProbes;
+        private final long ttHits;
+        private final long ttCollisions;
+        private final long reductions;
+        private final long reSearches;
+
+        private Snapshot(long nodes, long cutoffs, long ttProbes, long ttHits, long ttCollisions, long reductions,
+                         long reSearches) {
+            this.nodes = nodes;
+            this.cutoffs = cutoffs;
+            this.ttProbes = ttProbes;
+            this.ttHits = ttHits;
+            this.ttCollisions = ttCollisions;
+            this.reductions = reductions;
+            this.reSearches = reSearches;
+        }
+
+        /**
+         * @param start an earlier snapshot of the same counters
+         * @return What was counted between the earlier snapshot and this one
+         */
+        public Snapshot since(Snapshot start) {
+            return new Snapshot(
+                    nodes - start.nodes,
+                    cutoffs - start.cutoffs,
+                    ttProbes - start.ttProbes,
+                    ttHits - start.ttHits,
+                    ttCollisions - start.ttCollisions,
+                    reductions - start.reductions,
+                    reSearches - start.reSearches);
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getCutoffs() {
+            return cutoffs;
+        }
+
+        public long getTTProbes() {
+            return ttProbes;
+        }
+
+        public long getTTHits() {
+            return ttHits;
+        }
+
+        public long getTTCollisions() {
+            return ttCollisions;
+        }
+
+        public long getReductions() {
+            return reductions;
+        }
+
+        public long getReSearches() {
+            return reSearches;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package project23.framework.player;
+
+/**
+ * How the {@link MinimaxAIPlayer} searches the position of every iteration.
+ */
+public enum SearchDriver {
+    /**
+     * A single alpha-beta search with the full window.
+     */
+    ALPHA_BETA,
+    /**
+     * MTD(f): a sequence of alpha-beta searches with a zero window, which each only show whether the value lies
+     * above or below a guess, and narrow the bounds until they meet. Starts from the value of the previous iteration,
+     * and relies on the transposition table to not search the same positions again in every pass.
+     */
+    MTDF;
+
+    /**
+     * @param name The name of a driver, in any case, with <code>-</code> or <code>_</code>
+     * @return The driver with that name, or <code>null</code> when there is none
+     */
+    public static SearchDriver fromName(String name) {
+        String normalized = name.trim().toUpperCase().replace('-', '_');
+        if (normalized.equals("MTD_F") || normalized.equals("MTD(F)")) {
+            return MTDF;
+        }
+
+        try {
+            return valueOf(normalized);
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,201 @@
+package project23.framework.player;
+
+import project23.framework.ConfigData;
+import project23.util.Logger;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The threads all {@link MinimaxAIPlayer}s search on, shared by every game in this process.
+ * <p>
+ * Search tasks run on a bounded pool of named daemon worker threads. Deadlines (like the end of the thinking time)
+ * are scheduled on a separate single scheduler thread, so they fire on time even when all workers are busy. When
+ * the work queue is full, the submission fails, and the submitter decides what to do without the task. Tasks are
+ * never run on the submitting thread, which is often the event loop of a game.
+ */
+public class SearchExecutor {
+
+    /**
+     * The maximum amount of search tasks waiting for a worker.
+     */
+    private static final int QUEUE_CAPACITY = 4096;
+
+    private static SearchExecutor instance;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger peakQueueSize = new AtomicInteger();
+    private final AtomicLong submittedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    /**
+     * Singleton pattern, creates instance only when it's necessary
+     *
+     * @return instance
+     */
+    public static synchronized SearchExecutor getInstance() {
+        if (instance == null) {
+            instance = new SearchExecutor(ConfigData.getInstance().getSearchParallelism());
+        }
+        return instance;
+    }
+
+    /**
+     * @return The parallelism used when none is configured: the amount of available processors
+     */
+    public static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private SearchExecutor(int parallelism) {
+        parallelism = Math.max(1, parallelism);
+
+        workers = new ThreadPoolExecutor(
+                parallelism, parallelism,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                new NamedThreadFactory("MinimaxWorker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        workers.allowCoreThreadTimeOut(true);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("MinimaxWatchdog"));
+
+        Logger.info("Started search executor with " + parallelism + " worker thread(s).");
+    }
+
+    /**
+     * Runs a search task on one of the worker threads.
+     *
+     * @param task the task
+     * @return <code>false</code> when the task was rejected because the queue is full, it will never run then
+     */
+    public boolean submit(Runnable task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.incrementAndGet();
+            Logger.warning("Rejected a search task, " + workers.getQueue().size() + " tasks are already waiting for a worker.");
+            return false;
+        }
+
+        submittedTasks.incrementAndGet();
+        peakQueueSize.accumulateAndGet(workers.getQueue().size(), Math::max);
+        return true;
+    }
+
+    /**
+     * Runs a task on the scheduler thread after a delay. Scheduled tasks should be short, and hand off any
+     * heavy work to {@link #submit(Runnable)}.
+     *
+     * @param task    the task
+     * @param delayMs the delay in milliseconds
+     * @return the future, which can be used to cancel the task
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return scheduler.schedule(task, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Changes the amount of worker threads. Tasks which are already running are not affected.
+     *
+     * @param parallelism the new amount of worker threads, at least 1
+     */
+    public synchronized void setParallelism(int parallelism) {
+        parallelism = Math.max(1, parallelism);
+
+        // The maximum pool size may never drop below the core pool size, so the order matters.
+        if (parallelism > workers.getMaximumPoolSize()) {
+            workers.setMaximumPoolSize(parallelism);
+            workers.setCorePoolSize(parallelism);
+        } else {
+            workers.setCorePoolSize(parallelism);
+            workers.setMaximumPoolSize(parallelism);
+        }
+    }
+
+    /**
+     * @return The amount of worker threads
+     */
+    public int getParallelism() {
+        return workers.getMaximumPoolSize();
+    }
+
+    /**
+     * @return The amount of workers which are currently running a task
+     */
+    public int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * @return The amount of tasks waiting for a worker
+     */
+    public int getQueueSize() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * @return The largest amount of tasks which were waiting for a worker at the same time
+     */
+    public int getPeakQueueSize() {
+        return peakQueueSize.get();
+    }
+
+    /**
+     * @return The amount of tasks submitted since the start
+     */
+    public long getSubmittedTaskCount() {
+        return submittedTasks.get();
+    }
+
+    /**
+     * @return The amount of tasks finished by the workers since the start
+     */
+    public long getCompletedTaskCount() {
+        return workers.getCompletedTaskCount();
+    }
+
+    /**
+     * @return The amount of tasks which were rejected, because the queue was full
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchExecutor{" +
+                "parallelism=" + getParallelism() +
+                ", active=" + getActiveCount() +
+                ", queued=" + getQueueSize() +
+                ", peakQueued=" + getPeakQueueSize() +
+                ", submitted=" + getSubmittedTaskCount() +
+                ", completed=" + getCompletedTaskCount() +
+                ", rejected=" + getRejectedTaskCount() +
+                '}';
+    }
+
+    /**
+     * Creates daemon threads named <code>&lt;prefix&gt;-&lt;number&gt;</code>, so they show up recognizable in
+     * thread dumps and profiles.
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
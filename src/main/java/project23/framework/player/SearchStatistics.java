@@ -0,0 +1,336 @@
+package project23.framework.player;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What the {@link MinimaxAIPlayer} did to find a single move: the result, where the time went and how big the
+ * search tree was at every depth. Handed to the {@link SearchStatisticsListener}s of the player.
+ */
+public class SearchStatistics {
+
+    private final long timestamp;
+    private final String player;
+    private final String game;
+    private final String position;
+    private final String bestMove;
+    private final float bestMoveValue;
+    private final int depth;
+    private final boolean ponderHit;
+    private final long elapsedMs;
+    private final long softLimitMs;
+    private final long hardLimitMs;
+    private final String stopReason;
+    private final SearchCounters.Snapshot counters;
+    private final double evaluationNanos;
+    private final List<Iteration> iterations;
+    private final List<String> principalVariation;
+
+    /**
+     * @param timestamp          when the search finished, in milliseconds since the epoch
+     * @param player             the name of the player who searched
+     * @param game               the name of the game
+     * @param position           the position that was searched, as written by
+     *                           {@link project23.framework.board.BoardPosition#toString()}
+     * @param bestMove           the coordinate of the best move, or <code>pass</code>
+     * @param bestMoveValue      the value of the best move
+     * @param depth              the highest depth which was searched completely
+     * @param ponderHit          whether the search continued from the result of pondering
+     * @param elapsedMs          how long the search took in milliseconds
+     * @param softLimitMs        the time budget of the search when it finished, in milliseconds
+     * @param hardLimitMs        the time the search could never exceed, in milliseconds
+     * @param stopReason         why the search stopped
+     * @param counters           what was counted during the whole search, including an unfinished last iteration
+     * @param evaluationNanos    the average time an evaluation takes in nanoseconds, or {@link Double#NaN} when
+     *                           unknown
+     * @param iterations         every iteration which finished, by increasing depth
+     * @param principalVariation the expected moves of both players, starting with the best move
+     */
+    public SearchStatistics(long timestamp, String player, String game, String position, String bestMove,
+                            float bestMoveValue, int depth, boolean ponderHit, long elapsedMs, long softLimitMs,
+                            long hardLimitMs, String stopReason, SearchCounters.Snapshot counters,
+                            double evaluationNanos, List<Iteration> iterations, List<String> principalVariation) {
+        this.timestamp = timestamp;
+        this.player = player;
+        this.game = game;
+        this.position = position;
+        this.bestMove = bestMove;
+        this.bestMoveValue = bestMoveValue;
+        this.depth = depth;
+        this.ponderHit = ponderHit;
+        this.elapsedMs = elapsedMs;
+        this.softLimitMs = softLimitMs;
+        this.hardLimitMs = hardLimitMs;
+        this.stopReason = stopReason;
+        this.counters = counters;
+        this.evaluationNanos = evaluationNanos;
+        this.iterations = Collections.unmodifiableList(iterations);
+        this.principalVariation = Collections.unmodifiableList(principalVariation);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public String getGame() {
+        return game;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    public float getBestMoveValue() {
+        return bestMoveValue;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isPonderHit() {
+        return ponderHit;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public long getSoftLimitMs() {
+        return softLimitMs;
+    }
+
+    public long getHardLimitMs() {
+        return hardLimitMs;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public long getNodes() {
+        return counters.getNodes();
+    }
+
+    /**
+     * @return The amount of positions searched per second
+     */
+    public double getNodesPerSecond() {
+        return elapsedMs == 0 ? 0 : counters.getNodes() * 1000.0 / elapsedMs;
+    }
+
+    /**
+     * @return The average factor by which the tree grew with every extra depth, over all finished iterations, or 0
+     * when less than two iterations finished
+     */
+    public double getEffectiveBranchingFactor() {
+        if (iterations.size() < 2) {
+            return 0;
+        }
+
+        Iteration first = iterations.get(0);
+        Iteration last = iterations.get(iterations.size() - 1);
+        if (first.nodes == 0 || last.depth == first.depth) {
+            return 0;
+        }
+
+        return Math.pow((double) last.nodes / first.nodes, 1.0 / (last.depth - first.depth));
+    }
+
+    /**
+     * @return The fraction of positions whose remaining moves were skipped
+     */
+    public double getCutoffRate() {
+        return rate(counters.getCutoffs(), counters.getNodes());
+    }
+
+    /**
+     * @return The fraction of transposition table lookups which found the position
+     */
+    public double getTTHitRate() {
+        return rate(counters.getTTHits(), counters.getTTProbes());
+    }
+
+    /**
+     * @return The fraction of transposition table lookups which found the slot taken by another position
+     */
+    public double getTTCollisionRate() {
+        return rate(counters.getTTCollisions(), counters.getTTProbes());
+    }
+
+    /**
+     * @return The fraction of reduced moves which had to be searched again at full depth
+     */
+    public double getReSearchRate() {
+        return rate(counters.getReSearches(), counters.getReductions());
+    }
+
+    /**
+     * @return The average time an evaluation takes in nanoseconds, or {@link Double#NaN} when unknown
+     */
+    public double getEvaluationNanos() {
+        return evaluationNanos;
+    }
+
+    public SearchCounters.Snapshot getCounters() {
+        return counters;
+    }
+
+    public List<Iteration> getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return The moves both players are expected to make, starting with the best move
+     */
+    public List<String> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * @param value a value
+     * @return The value, or {@link JSONObject#NULL} when it's infinite (like when no move was found) or NaN (like when
+     * it wasn't measured), which JSON can't hold
+     */
+    private static Object toJsonNumber(double value) {
+        return Double.isFinite(value) ? (Object) value : JSONObject.NULL;
+    }
+
+    private static double rate(long count, long total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+
+    /**
+     * @return The statistics as a JSON object with snake_case keys
+     */
+    public JSONObject toJson() {
+        try {
+            JSONArray iterationsJson = new JSONArray();
+            for (Iteration iteration : iterations) {
+                iterationsJson.put(iteration.toJson());
+            }
+
+            return new JSONObject()
+                    .put("timestamp", timestamp)
+                    .put("player", player)
+                    .put("game", game)
+                    .put("position", position)
+                    .put("best_move", bestMove)
+                    .put("best_move_value", toJsonNumber(bestMoveValue))
+                    .put("depth", depth)
+                    .put("ponder_hit", ponderHit)
+                    .put("elapsed_ms", elapsedMs)
+                    .put("soft_limit_ms", softLimitMs)
+                    .put("hard_limit_ms", hardLimitMs)
+                    .put("stop_reason", stopReason)
+                    .put("nodes", counters.getNodes())
+                    .put("nps", Math.round(getNodesPerSecond()))
+                    .put("ebf", getEffectiveBranchingFactor())
+                    .put("cutoffs", counters.getCutoffs())
+                    .put("cutoff_rate", getCutoffRate())
+                    .put("tt_probes", counters.getTTProbes())
+                    .put("tt_hit_rate", getTTHitRate())
+                    .put("tt_collision_rate", getTTCollisionRate())
+                    .put("reductions", counters.getReductions())
+                    .put("re_search_rate", getReSearchRate())
+                    .put("eval_ns", toJsonNumber(evaluationNanos))
+                    .put("iterations", iterationsJson)
+                    .put("pv", new JSONArray(principalVariation));
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s at depth %d: %,d nodes in %dms (%,.0f nodes/s), EBF %.2f, PV %s",
+                bestMove, depth, counters.getNodes(), elapsedMs, getNodesPerSecond(),
+                getEffectiveBranchingFactor(), String.join(" ", principalVariation));
+    }
+
+    /**
+     * A single finished iteration of the search.
+     */
+    public static class Iteration {
+
+        private final int depth;
+        private final long nodes;
+        private final long timeMs;
+        private final long elapsedMs;
+        private final String bestMove;
+        private final float bestMoveValue;
+        private final int passes;
+
+        /**
+         * @param depth         the depth of the iteration
+         * @param nodes         the amount of positions searched in the iteration
+         * @param timeMs        how long the iteration took, in milliseconds
+         * @param elapsedMs     the time since the start of the search when the iteration finished, in milliseconds
+         * @param bestMove      the coordinate of the best move of the iteration, or <code>pass</code>
+         * @param bestMoveValue the value of the best move
+         * @param passes        the amount of times the position was searched, more than 1 with the
+         *                      {@link SearchDriver#MTDF} driver
+         */
+        public Iteration(int depth, long nodes, long timeMs, long elapsedMs, String bestMove, float bestMoveValue,
+                         int passes) {
+            this.depth = depth;
+            this.nodes = nodes;
+            this.timeMs = timeMs;
+            this.elapsedMs = elapsedMs;
+            this.bestMove = bestMove;
+            this.bestMoveValue = bestMoveValue;
+            this.passes = passes;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getTimeMs() {
+            return timeMs;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public String getBestMove() {
+            return bestMove;
+        }
+
+        public float getBestMoveValue() {
+            return bestMoveValue;
+        }
+
+        public int getPasses() {
+            return passes;
+        }
+
+        private JSONObject toJson() throws JSONException {
+            return new JSONObject()
+                    .put("depth", depth)
+                    .put("nodes", nodes)
+                    .put("time_ms", timeMs)
+                    .put("elapsed_ms", elapsedMs)
+                    .put("best_move", bestMove)
+                    .put("best_move_value", toJsonNumber(bestMoveValue))
+                    .put("passes", passes);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package project23.framework.player;
+
+/**
+ * Receives the {@link SearchStatistics} of every move a {@link MinimaxAIPlayer} found by searching.
+ */
+public interface SearchStatisticsListener {
+
+    /**
+     * Called on the event loop of the game, right before the move is made. Should return quickly.
+     *
+     * @param player     the player who searched
+     * @param statistics the statistics of the search
+     */
+    void onSearchDone(MinimaxAIPlayer player, SearchStatistics statistics);
+}
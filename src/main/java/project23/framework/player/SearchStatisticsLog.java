@@ -0,0 +1,51 @@
+package project23.framework.player;
+
+import project23.util.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Appends the {@link SearchStatistics} of every move to a file as JSON lines: one JSON object per line, see
+ * {@link SearchStatistics#toJson()}. Existing lines are kept, so the statistics of many sessions can be collected in
+ * a single file.
+ */
+public class SearchStatisticsLog implements SearchStatisticsListener {
+
+    private static final Map<File, SearchStatisticsLog> logs = new HashMap<>();
+
+    private final File file;
+    private BufferedWriter writer;
+
+    private SearchStatisticsLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @param file the file to append to
+     * @return The log writing to the file, shared by all players
+     */
+    public static synchronized SearchStatisticsLog forFile(File file) {
+        return logs.computeIfAbsent(file.getAbsoluteFile(), SearchStatisticsLog::new);
+    }
+
+    @Override
+    public synchronized void onSearchDone(MinimaxAIPlayer player, SearchStatistics statistics) {
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new FileWriter(file, true));
+            }
+
+            writer.write(statistics.toJson().toString());
+            writer.newLine();
+            // A line per move is rare enough to flush every time, so nothing is lost when the process is killed.
+            writer.flush();
+        } catch (IOException e) {
+            Logger.error("Couldn't write the search statistics to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package project23.framework.player;
+
+import project23.framework.ConfigData;
+import project23.framework.ConnectedGameManager;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPiece;
+
+/**
+ * Decides how long the {@link MinimaxAIPlayer} may think about a single move.
+ * <p>
+ * Every move gets a soft budget, based on the configured thinking time, the game phase and the number of valid
+ * moves. After every finished iteration of the search the budget is re-evaluated: we stop early when the best move
+ * has been stable for a couple of iterations, and extend the budget when the score of the best move dropped. The
+ * budget is never extended past the hard limit, which during server matches stays a safety margin (plus the
+ * measured round trip time) below the server's turn timeout.
+ */
+public class TimeManager {
+
+    /**
+     * Time in milliseconds kept free below the server's turn timeout.
+     */
+    private static final long SAFETY_MARGIN = 500;
+
+    /**
+     * The smallest budget we give a move, in milliseconds, unless less time than this is left before the hard limit.
+     */
+    private static final long MIN_BUDGET = 100;
+
+    /**
+     * How far the budget may be extended past the configured thinking time.
+     */
+    private static final double MAX_EXTENSION_FACTOR = 2.0;
+
+    /**
+     * Stop when the best move stayed the same for this many iterations..
+     */
+    private static final int STABLE_ITERATIONS = 3;
+
+    /**
+     * ..and at least this fraction of the budget has been used.
+     */
+    private static final double STABLE_MIN_FRACTION = 0.4;
+
+    /**
+     * Extend the budget when the score of the best move dropped more than this between two iterations..
+     */
+    private static final float SCORE_DROP_THRESHOLD = 0.25f;
+
+    /**
+     * ..by this factor.
+     */
+    private static final double SCORE_DROP_EXTENSION = 1.5;
+
+    private final long startTime = System.currentTimeMillis();
+    private final long hardLimit;
+    private long softLimit;
+
+    private BoardPiece lastBestMove;
+    private float lastBestMoveValue;
+    private int stableIterations = 0;
+
+    private long lastIterationEnd = 0;
+    private long lastIterationDuration = 0;
+    private long previousIterationDuration = 0;
+
+    private String stopReason = "the time is up";
+
+    /**
+     * @param thinkingTime The configured thinking time in milliseconds
+     * @param hardLimit    The time in milliseconds which may never be exceeded
+     * @param validMoves   The amount of valid moves in the position
+     * @param boardFill    The fraction of the board which is occupied, between 0 and 1
+     */
+    public TimeManager(long thinkingTime, long hardLimit, int validMoves, double boardFill) {
+        // The floor may never push us past the server's timeout, so it is capped by the time which is left
+        long floor = Math.min(MIN_BUDGET, Math.max(0, hardLimit));
+        this.hardLimit = Math.max(floor, hardLimit);
+
+        // Little happens in the opening, and when there are few moves to choose from
+        double phaseFactor;
+        if (boardFill < 0.2) {
+            phaseFactor = 0.5 + 2.5 * boardFill;
+        } else if (boardFill > 0.75) {
+            phaseFactor = 1.15;
+        } else {
+            phaseFactor = 1.0;
+        }
+
+        double mobilityFactor = Math.min(1.2, 0.4 + 0.15 * validMoves);
+
+        long budget = (long) (thinkingTime * phaseFactor * mobilityFactor);
+        this.softLimit = Math.max(floor, Math.min(budget, this.hardLimit));
+    }
+
+    /**
+     * Creates a time manager for the move the player is about to think about, using the thinking time in
+     * {@link ConfigData}. During server matches the time since receiving YOURTURN and the round trip time to the
+     * server are subtracted from the hard limit.
+     *
+     * @param board  the board
+     * @param player the player to move
+     * @return the time manager
+     */
+    public static TimeManager forMove(Board board, Player player) {
+        ConfigData config = ConfigData.getInstance();
+        long thinkingTime = config.getMinimaxThinkingTime();
+
+        long hardLimit = thinkingTime;
+        if (board.getGameManager() instanceof ConnectedGameManager) {
+            ConnectedGameManager cgm = (ConnectedGameManager) board.getGameManager();
+
+            long roundTripTime = (long) Math.ceil(cgm.getClient().getRoundTripTime());
+            long elapsed = cgm.getTurnLatencyTracker().getTurnElapsedMillis();
+            long serverLimit = config.getServerTurnTimeout() - SAFETY_MARGIN - roundTripTime - elapsed;
+
+            hardLimit = Math.min(serverLimit, (long) (thinkingTime * MAX_EXTENSION_FACTOR));
+        }
+
+        int occupied = 0;
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                if (board.getBoardPiece(x, y).hasOwner()) {
+                    occupied++;
+                }
+            }
+        }
+        double boardFill = (double) occupied / (board.getWidth() * board.getHeight());
+
+        return new TimeManager(thinkingTime, hardLimit, board.getValidMoves(player).size(), boardFill);
+    }
+
+    /**
+     * Updates the budget after an iteration of the search has finished.
+     *
+     * @param depth         the depth of the iteration
+     * @param bestMove      the best move found in the iteration
+     * @param bestMoveValue the value of the best move
+     */
+    public synchronized void onIterationDone(int depth, BoardPiece bestMove, float bestMoveValue) {
+        long now = getElapsed();
+
+        if (bestMove != null && bestMove.equals(lastBestMove)) {
+            stableIterations++;
+        } else {
+            stableIterations = 1;
+        }
+
+        if (lastBestMove != null && lastBestMoveValue - bestMoveValue > SCORE_DROP_THRESHOLD) {
+            long extended = Math.min(hardLimit, (long) (softLimit * SCORE_DROP_EXTENSION));
+            if (extended > softLimit) {
+                softLimit = extended;
+                stableIterations = 0;
+            }
+        }
+
+        lastBestMove = bestMove;
+        lastBestMoveValue = bestMoveValue;
+
+        previousIterationDuration = lastIterationDuration;
+        lastIterationDuration = now - lastIterationEnd;
+        lastIterationEnd = now;
+    }
+
+    /**
+     * Called after every finished iteration of the search.
+     *
+     * @return Whether to stop searching instead of starting the next iteration
+     */
+    public synchronized boolean shouldStopAfterIteration() {
+        long elapsed = getElapsed();
+
+        if (elapsed >= softLimit) {
+            stopReason = "the time is up";
+            return true;
+        }
+
+        if (stableIterations >= STABLE_ITERATIONS && elapsed >= softLimit * STABLE_MIN_FRACTION) {
+            stopReason = "the best move has been stable for " + stableIterations + " iterations";
+            return true;
+        }
+
+        // The next iteration takes about as much longer than the last one, as the last one took compared to the one
+        // before. There's no point in starting it when it can't finish.
+        if (lastIterationDuration > 0 && previousIterationDuration > 0) {
+            double growth = Math.max(1.0, (double) lastIterationDuration / previousIterationDuration);
+            if (elapsed + lastIterationDuration * growth > hardLimit) {
+                stopReason = "the next iteration won't finish in time";
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return The time in milliseconds until the budget is used up, which may grow after an iteration finishes
+     */
+    public synchronized long getRemaining() {
+        return softLimit - getElapsed();
+    }
+
+    /**
+     * @return The time in milliseconds since the search started
+     */
+    public long getElapsed() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * @return The current budget in milliseconds
+     */
+    public synchronized long getSoftLimit() {
+        return softLimit;
+    }
+
+    /**
+     * @return The time in milliseconds which may never be exceeded
+     */
+    public long getHardLimit() {
+        return hardLimit;
+    }
+
+    /**
+     * @return Why the last call to {@link #shouldStopAfterIteration()} returned true
+     */
+    public synchronized String getStopReason() {
+        return stopReason;
+    }
+}
@@ -0,0 +1,146 @@
+package project23.framework.player;
+
+/**
+ * Remembers the results of searched positions by their hash, so a position reached again, through another order of
+ * moves or in the search of a later move, doesn't have to be searched again, and otherwise its best move can be
+ * searched first. A table belongs to one player and lives as long as the player, so the positions of the previous
+ * move's search are still there when the next search starts.
+ * <p>
+ * Instead of clearing the table, every search gets a new generation, see {@link #newSearch()}: entries of older
+ * searches are still found, but are the first to be replaced.
+ * <p>
+ * The worker threads read and write the table without locking. Every slot stores the entry and the hash XORed with
+ * the entry, so a slot another thread wrote halfway through doesn't match the hash and is seen as empty.
+ * <p>
+ * An entry is a <code>long</code>, read with the static getters, and 0 when nothing was found.
+ */
+public final class TranspositionTable {
+
+    /**
+     * The value is exact, a lower bound (the search failed high) or an upper bound (the search failed low).
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /**
+     * The move of an entry without a best move.
+     */
+    public static final int NO_MOVE = 0x7F;
+
+    /**
+     * The largest depth an entry can hold, deeper searches are stored with this depth.
+     */
+    public static final int MAX_DEPTH = 0xFF;
+
+    private static final int BYTES_PER_SLOT = 2 * Long.BYTES;
+
+    // The layout of an entry: the value in the low 32 bits, followed by these fields
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int SOLVED_SHIFT = 49;
+    private static final int GENERATION_SHIFT = 50;
+    private static final int GENERATION_MASK = 0xFF;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    private volatile int generation;
+
+    /**
+     * @param sizeMb the memory the table may use in megabytes, rounded down to a power of two amount of slots
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1) {
+            throw new IllegalArgumentException("The table needs at least 1MB, not " + sizeMb + "MB.");
+        }
+
+        int slots = Integer.highestOneBit((int) Math.min((long) sizeMb * 1024 * 1024 / BYTES_PER_SLOT, 1 << 30));
+        keys = new long[slots];
+        entries = new long[slots];
+        mask = slots - 1;
+    }
+
+    /**
+     * Starts a new generation. The entries of earlier searches stay, but are replaced before those of this search.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * @param key      the hash of the position
+     * @param counters counts the lookup
+     * @return The entry of the position, or 0 when there is none
+     */
+    public long probe(long key, SearchCounters counters) {
+        int slot = (int) key & mask;
+        long entry = entries[slot];
+        long slotKey = keys[slot] ^ entry;
+
+        boolean hit = entry != 0 && slotKey == key;
+        counters.countTTProbe(hit, entry != 0 && !hit);
+        return hit ? entry : 0;
+    }
+
+    /**
+     * Stores the result of a search, unless the slot holds a deeper result of this generation for another position.
+     *
+     * @param key    the hash of the position
+     * @param value  the value the search found
+     * @param depth  the depth the position was searched to
+     * @param bound  {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param move   the number of the square of the best move, or {@link #NO_MOVE}
+     * @param solved whether every line of the search ended in a game-over, so the value holds at any depth
+     */
+    public void store(long key, float value, int depth, int bound, int move, boolean solved) {
+        int slot = (int) key & mask;
+        long old = entries[slot];
+        int generation = this.generation;
+
+        if (old != 0 && (keys[slot] ^ old) != key && getGeneration(old) == generation && getDepth(old) > depth) {
+            return;
+        }
+
+        long entry = (Float.floatToRawIntBits(value) & 0xFFFFFFFFL) |
+                (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT |
+                (long) bound << BOUND_SHIFT |
+                (long) (move & NO_MOVE) << MOVE_SHIFT |
+                (solved ? 1L : 0L) << SOLVED_SHIFT |
+                (long) generation << GENERATION_SHIFT;
+        entries[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    public static float getValue(long entry) {
+        return Float.intBitsToFloat((int) entry);
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    public static int getBound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    /**
+     * @return The number of the square of the best move, or {@link #NO_MOVE}
+     */
+    public static int getMove(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & NO_MOVE;
+    }
+
+    /**
+     * @return Whether every line of the search ended in a game-over
+     */
+    public static boolean isSolved(long entry) {
+        return (entry >>> SOLVED_SHIFT & 1) != 0;
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+}
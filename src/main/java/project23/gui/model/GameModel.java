@@ -8,11 +8,14 @@ import project23.framework.GameManager;
 import project23.framework.board.Board;
 import project23.framework.board.BoardObserver;
 import project23.framework.board.BoardPiece;
+import project23.framework.board.BoardSnapshot;
 import project23.framework.player.LocalPlayer;
 import project23.framework.player.Player;
 
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class GameModel extends Model implements BoardObserver {
 
@@ -23,6 +26,10 @@ public class GameModel extends Model implements BoardObserver {
     private boolean stopClock;
     private Label clockLabel;
 
+    // The newest snapshot of the board, and whether an update of the view is queued on the FX thread
+    private final AtomicReference<BoardSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+
     /**
      * Sets gameManager and board variables, and registers this model as observer. This method does not start the match.
      */
@@ -30,7 +37,40 @@ public class GameModel extends Model implements BoardObserver {
         gameManager = ConfigData.getInstance().getGameManager();
         board = gameManager.getBoard();
         board.registerObserver(this);
-        updateView(); // Draws an empty board
+
+        snapshot.set(null);
+        gameManager.getEventLoop().execute(this::requestUpdate); // Draws an empty board
+    }
+
+    /**
+     * Takes a snapshot of the board, and updates the view with it on the FX thread. When an update is already
+     * queued, that update will use this snapshot instead, so the FX thread never redraws more than once for all
+     * changes made between two updates.
+     * <p>
+     * Must be called on the event loop of the game, so the snapshot never contains a half-made move.
+     */
+    private void requestUpdate() {
+        snapshot.set(new BoardSnapshot(board));
+
+        if (updatePending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                // Cleared before updating, so a snapshot taken during the update queues a new one
+                updatePending.set(false);
+                updateView();
+            });
+        }
+    }
+
+    /**
+     * Shows an info message. Messages are not coalesced, every message gets its own update.
+     *
+     * @param message the message
+     */
+    private void showInfoMessage(String message) {
+        Platform.runLater(() -> {
+            setInfoMessage(message);
+            updateView();
+        });
     }
 
     public void clickTile(double x, double y) {
@@ -38,28 +78,39 @@ public class GameModel extends Model implements BoardObserver {
         int xTile = (int) Math.floor(x / cellSize);
         int yTile = (int) Math.floor(y / cellSize);
 
-        Player player = gameManager.getBoard().getCurrentPlayer();
+        // The board belongs to the event loop, so check and make the move over there
+        gameManager.getEventLoop().execute(() -> {
+            Player player = board.getCurrentPlayer();
 
-        if (player == null) {
-            return;
-        }
+            if (player == null) {
+                return;
+            }
 
-        if (player instanceof LocalPlayer) {
-            if (gameManager.getBoard().isValidMove(xTile, yTile)) {
-                ((LocalPlayer) player).executeMove(xTile, yTile);
+            if (player instanceof LocalPlayer) {
+                if (board.isValidMove(xTile, yTile)) {
+                    // The board observers update the view
+                    ((LocalPlayer) player).executeMove(xTile, yTile);
+                } else {
+                    showInfoMessage("Invalid move.");
+                }
             } else {
-                setInfoMessage("Invalid move.");
+                showInfoMessage("Please wait for your move");
             }
-        } else {
-            setInfoMessage("Please wait for your move");
-        }
-        updateView();
+        });
     }
 
     public Board getBoard() {
         return board;
     }
 
+    /**
+     * @return The newest snapshot of the board, or <code>null</code> when none was taken yet. The view should draw
+     * this instead of reading the board, which may be changed while drawing.
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     public GameManager getGameManager() {
         return gameManager;
     }
@@ -78,12 +129,13 @@ public class GameModel extends Model implements BoardObserver {
 
     @Override
     public void onPlayerMoveFinalized(Player previous, Player current) {
-        Platform.runLater(this::updateView);
+        requestUpdate();
     }
 
     @Override
     public void onPlayerWon(Player who) {
         stopClock = true;
+        snapshot.set(new BoardSnapshot(board));
         Platform.runLater(() -> {
             String message;
             if (who == null) {
@@ -99,7 +151,7 @@ public class GameModel extends Model implements BoardObserver {
     @Override
     public void onGameStart(Player startingPlayer) {
         restartClock = true;
-        Platform.runLater(this::updateView);
+        requestUpdate();
     }
 
     public ArrayList<String> getPlayerInfo(Map<Player, Integer> playerInfo) {
@@ -124,8 +176,10 @@ public class GameModel extends Model implements BoardObserver {
     }
 
     public void restartGame() {
-        gameManager.reset();
-        gameManager.requestStart();
+        gameManager.getEventLoop().execute(() -> {
+            gameManager.reset();
+            gameManager.requestStart();
+        });
     }
 
     /**
@@ -0,0 +1,196 @@
+package project23.gui.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import project23.framework.board.BoardSnapshot;
+import project23.util.Logger;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Draws a board on a single {@link Canvas}, instead of a node for every line and piece.
+ * <p>
+ * The renderer remembers what it drew in every cell during the last frame. When a new frame is drawn, only the cells
+ * whose owner or valid-move marker changed are repainted; for a move that is the placed piece, the flipped pieces
+ * and the markers which appeared or disappeared. Everything is repainted when the board, its size or the icons
+ * change.
+ * <p>
+ * Render requests are coalesced: {@link #requestRender(BoardSnapshot, List)} only marks the board as changed, and
+ * the actual drawing happens on the next pulse, at most once per pulse. All methods must be called on the FX thread.
+ */
+public class BoardCanvasRenderer {
+
+    private static final Color LINE_COLOR = Color.BLACK;
+    private static final Color VALID_MOVE_COLOR = Color.rgb(200, 200, 200, 0.5);
+
+    private final Canvas canvas;
+    private final PieceImageCache pieceImageCache;
+
+    private BoardSnapshot pendingBoard;
+    private List<URL> pendingIcons;
+
+    // What was drawn in the last frame, null when nothing is drawn
+    private int[][] drawnOwners;
+    private boolean[][] drawnValidMoves;
+    private double drawnBoardSize;
+    private List<URL> drawnIcons;
+
+    private final AnimationTimer pulseTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (pendingBoard != null) {
+                BoardSnapshot board = pendingBoard;
+                pendingBoard = null;
+                render(board, pendingIcons);
+            }
+        }
+    };
+
+    /**
+     * Creates the canvas and adds it to the pane. The canvas always has the preferred size of the pane.
+     *
+     * @param pane            the pane to draw on
+     * @param pieceImageCache the cache to get the piece images from
+     */
+    public BoardCanvasRenderer(Pane pane, PieceImageCache pieceImageCache) {
+        this.pieceImageCache = pieceImageCache;
+
+        canvas = new Canvas();
+        canvas.widthProperty().bind(pane.prefWidthProperty());
+        canvas.heightProperty().bind(pane.prefHeightProperty());
+        // Clicks are handled by the pane
+        canvas.setMouseTransparent(true);
+        pane.getChildren().add(canvas);
+
+        pulseTimer.start();
+    }
+
+    /**
+     * Draws the board on the next pulse. Requests made before that pulse are merged into one frame.
+     *
+     * @param board the board to draw
+     * @param icons the icons of the pieces, indexed by player id
+     */
+    public void requestRender(BoardSnapshot board, List<URL> icons) {
+        pendingBoard = board;
+        pendingIcons = icons;
+    }
+
+    /**
+     * Removes everything from the canvas, and cancels a requested render.
+     */
+    public void clear() {
+        pendingBoard = null;
+        drawnOwners = null;
+        drawnValidMoves = null;
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    /**
+     * @return The canvas the board is drawn on
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    private void render(BoardSnapshot board, List<URL> icons) {
+        long start = System.nanoTime();
+
+        int gridSize = board.getWidth();
+        int[][] owners = new int[gridSize][gridSize];
+        boolean[][] validMoves = new boolean[gridSize][gridSize];
+
+        for (int x = 0; x < gridSize; x++) {
+            for (int y = 0; y < gridSize; y++) {
+                owners[x][y] = board.getOwnerID(x, y);
+                validMoves[x][y] = board.isShownValidMove(x, y);
+            }
+        }
+
+        double boardSize = canvas.getWidth();
+        boolean repaintAll = drawnOwners == null ||
+                drawnOwners.length != gridSize ||
+                drawnBoardSize != boardSize ||
+                !icons.equals(drawnIcons);
+
+        if (repaintAll) {
+            canvas.getGraphicsContext2D().clearRect(0, 0, boardSize, canvas.getHeight());
+        }
+
+        int repainted = 0;
+        for (int x = 0; x < gridSize; x++) {
+            for (int y = 0; y < gridSize; y++) {
+                if (repaintAll ||
+                        drawnOwners[x][y] != owners[x][y] ||
+                        drawnValidMoves[x][y] != validMoves[x][y]) {
+                    paintCell(x, y, gridSize, owners[x][y], validMoves[x][y], icons);
+                    repainted++;
+                }
+            }
+        }
+
+        drawnOwners = owners;
+        drawnValidMoves = validMoves;
+        drawnBoardSize = boardSize;
+        drawnIcons = icons;
+
+        int repaintedCells = repainted;
+        Logger.debug(() -> "Repainted " + repaintedCells + " of " + gridSize * gridSize + " cells in " +
+                (System.nanoTime() - start) / 1000 + "us.");
+    }
+
+    /**
+     * Repaints a single cell: the grid lines around it, its piece and its valid-move marker. Nothing outside the
+     * cell is touched.
+     */
+    private void paintCell(int x, int y, int gridSize, int owner, boolean validMove, List<URL> icons) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double cellSize = canvas.getWidth() / gridSize;
+        double cellX = x * cellSize;
+        double cellY = y * cellSize;
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(cellX, cellY, cellSize, cellSize);
+        gc.clip();
+
+        gc.clearRect(cellX, cellY, cellSize, cellSize);
+
+        // Grid lines, only between cells. Half of every line falls in this cell, the other half in its neighbour.
+        gc.setStroke(LINE_COLOR);
+        gc.setLineWidth(1.0);
+        if (x > 0) {
+            gc.strokeLine(cellX, cellY, cellX, cellY + cellSize);
+        }
+        if (x < gridSize - 1) {
+            gc.strokeLine(cellX + cellSize, cellY, cellX + cellSize, cellY + cellSize);
+        }
+        if (y > 0) {
+            gc.strokeLine(cellX, cellY, cellX + cellSize, cellY);
+        }
+        if (y < gridSize - 1) {
+            gc.strokeLine(cellX, cellY + cellSize, cellX + cellSize, cellY + cellSize);
+        }
+
+        if (owner != BoardSnapshot.EMPTY) {
+            // Hoop dat er geen outofbounds komt! lol
+            Image pieceImage = pieceImageCache.get(icons.get(owner), cellSize * (1 - GameView.MARGIN));
+            if (pieceImage != null) {
+                gc.drawImage(pieceImage, cellSize * (x + GameView.MARGIN / 2), cellSize * (y + GameView.MARGIN / 2));
+            }
+        }
+
+        if (validMove) {
+            double radius = cellSize / 2 * (1 - GameView.MARGIN);
+            gc.setStroke(VALID_MOVE_COLOR);
+            gc.strokeOval(cellX + cellSize / 2 - radius, cellY + cellSize / 2 - radius, radius * 2, radius * 2);
+        }
+
+        gc.restore();
+    }
+}
@@ -5,27 +5,19 @@ import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.scene.Parent;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 import project23.framework.BoardState;
 import project23.framework.ConfigData;
-import project23.framework.board.Board;
-import project23.framework.board.BoardPiece;
-import project23.framework.player.Player;
+import project23.framework.board.BoardSnapshot;
 import project23.gui.controller.Controller;
 import project23.gui.model.GameModel;
-import project23.util.Logger;
 
-import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,6 +26,8 @@ public class GameView extends View<GameModel> {
 
     private final Pane gameBoardPane;
     private List<URL> playerIconFileURLs;
+    private final PieceImageCache pieceImageCache = new PieceImageCache();
+    private final BoardCanvasRenderer boardRenderer;
     private final Text waitingText;
     private Label clock;
     private int seconds;
@@ -56,11 +50,23 @@ public class GameView extends View<GameModel> {
     public GameView(Parent parent, Controller controller, int windowWidth, int windowHeight) {
         super(parent, controller, windowWidth, windowHeight);
         gameBoardPane = (Pane) lookup("#board");
+        boardRenderer = new BoardCanvasRenderer(gameBoardPane, pieceImageCache);
         this.waitingText = new Text("Please wait for the game to start.");
         animation.setCycleCount(10);
     }
 
-    public void setBoardPieceIcons(List<URL> playerIconFileURLs) {
+    /**
+     * Sets the icons of the board pieces. When they changed (a new game was started), the images are preloaded
+     * in the background, so they are ready by the time the first pieces are drawn.
+     *
+     * @param playerIconFileURLs the icons, indexed by player id
+     * @param gridSize           size of the grid
+     */
+    public void setBoardPieceIcons(List<URL> playerIconFileURLs, int gridSize) {
+        if (!playerIconFileURLs.equals(this.playerIconFileURLs)) {
+            pieceImageCache.preload(playerIconFileURLs, getPieceSize(gridSize));
+        }
+
         this.playerIconFileURLs = playerIconFileURLs;
     }
 
@@ -86,14 +92,18 @@ public class GameView extends View<GameModel> {
         showDialog(model.getDialogMessage(), model.getDialogTitle());
         showInfoText(model.getInfoMessage(), model.getLabelNode());
 
-        if (model.getBoard().getBoardState() == BoardState.WAITING && !ConfigData.getInstance()
+        BoardSnapshot snapshot = model.getSnapshot();
+        if (snapshot != null && snapshot.getBoardState() == BoardState.WAITING && !ConfigData.getInstance()
                 .getCurrentGame()
                 .isOnline()) {
             setBackgroundColorBoard(null);
             clearBoard();
-            gameBoardPane.getChildren().add(waitingText);
+            if (!gameBoardPane.getChildren().contains(waitingText)) {
+                gameBoardPane.getChildren().add(waitingText);
+            }
         } else {
-            drawBoard(model);
+            gameBoardPane.getChildren().remove(waitingText);
+            drawBoard(model, snapshot);
         }
     }
 
@@ -122,135 +132,42 @@ public class GameView extends View<GameModel> {
     }
 
     /**
-     * Draws the game board, sets the grid, draws the gamepieces
+     * Draws the game board. Only the cells which changed since the last frame are repainted, on the next pulse.
      *
      * @param model
+     * @param snapshot the board to draw
      */
-    private void drawBoard(GameModel model) {
-        Board board = model.getBoard();
-        if (board == null) {
+    private void drawBoard(GameModel model, BoardSnapshot snapshot) {
+        if (snapshot == null) {
             clearBoard();
             return;
         }
 
-        setBackgroundColorBoard(ConfigData.getInstance().getCurrentGame().getBoardBackgroundColor());
-        setBoardPieceIcons(ConfigData.getInstance().getCurrentGame().getBoardPieceIcons());
+        setBackgroundColorBoard(Color.web(ConfigData.getInstance().getCurrentGame().getBoardBackgroundColor()));
+
+        int gridSize = snapshot.getWidth();
+        setBoardPieceIcons(ConfigData.getInstance().getCurrentGame().getBoardPieceIcons(), gridSize);
 
         // Player stats
-        showPlayerInformation(model.getPlayerInfo(board.piecesCount()));
+        showPlayerInformation(model.getPlayerInfo(snapshot.getPiecesCount()));
 
         // Draw board, pieces and hints
-        int gridSize = board.getWidth();
-        drawLines(gridSize);
-
-        for (int x = 0; x < gridSize; x++) {
-            for (int y = 0; y < gridSize; y++) {
-                drawPiece(board.getBoardPiece(x, y), gridSize);
-            }
-        }
-
-        Player player = board.getCurrentPlayer();
-        if (player != null && board.isShowValidMoves() && player.isShowValidMoves()) {
-            drawValidMoves(board.getValidMoves(), gridSize);
-        }
-    }
-
-    /**
-     * Draws the possible moves for the player
-     *
-     * @param validMoves, list of possible moves saved in boardpieces
-     * @param gridSize,   size of the grid
-     */
-    private void drawValidMoves(List<BoardPiece> validMoves, int gridSize) {
-        double cellSize = gameBoardPane.getPrefWidth() / gridSize;
-
-        for (BoardPiece piece : validMoves) {
-            double boardX = piece.getX() * cellSize + cellSize / 2;
-            double boardY = piece.getY() * cellSize + cellSize / 2;
-
-            Circle boardHighlight = new Circle(boardX, boardY, cellSize / 2 * (1 - MARGIN));
-
-            boardHighlight.setFill(null);
-            boardHighlight.setStroke(Color.rgb(200, 200, 200, 0.5));
-            boardHighlight.setStrokeWidth(1.0);
-
-            gameBoardPane.getChildren().add(boardHighlight);
-        }
-    }
-
-    /**
-     * Draws the lines of the grid
-     *
-     * @param gridSize, size of the grid
-     */
-    public void drawLines(int gridSize) {
-        // Clear board
-        clearBoard();
-
-        double boardSize = gameBoardPane.getPrefWidth();
-
-        // 3 gridboxes => 2 lines 1|2|3
-        for (int i = 0; i < gridSize - 1; i++) {
-            double pos = (double) (i + 1) / gridSize * boardSize;
-
-            Line horizontalDivider = new Line();
-            horizontalDivider.setStartX(pos);
-            horizontalDivider.setStartY(0.0f);
-            horizontalDivider.setEndX(pos);
-            horizontalDivider.setEndY(boardSize);
-
-            Line verticalDivider = new Line();
-            verticalDivider.setStartX(0.0f);
-            verticalDivider.setStartY(pos);
-            verticalDivider.setEndX(boardSize);
-            verticalDivider.setEndY(pos);
-
-            gameBoardPane.getChildren().add(horizontalDivider);
-            gameBoardPane.getChildren().add(verticalDivider);
-        }
+        boardRenderer.requestRender(snapshot, playerIconFileURLs);
     }
 
     /**
      * Clears the board
      */
     public void clearBoard() {
-        gameBoardPane.getChildren().clear();
+        boardRenderer.clear();
     }
 
     /**
-     * Draws the gamepiece
-     * Gets the coordinates and adds a boardpiece to the coordinate when clicked
-     *
-     * @param piece,    boardpiece
-     * @param gridSize, size of the grid
+     * @param gridSize size of the grid
+     * @return The width and height of a piece image, for the current size of the board
      */
-    public void drawPiece(BoardPiece piece, int gridSize) {
-        if (!piece.hasOwner()) {
-            return;
-        }
-
-        int x = piece.getX();
-        int y = piece.getY();
-        double cellSize = gameBoardPane.getPrefWidth() / gridSize;
-
-        // Hoop dat er geen outofbounds komt! lol
-        URL pngURL = playerIconFileURLs.get(piece.getOwner().getID());
-
-        // Create image
-        Image pieceImage;
-        try {
-            pieceImage = new Image(pngURL.openStream(), cellSize * (1 - MARGIN), cellSize * (1 - MARGIN), true, true);
-        } catch (IOException e) {
-            Logger.error("Image does not exist?");
-            e.printStackTrace();
-            return; // stop, image not found
-        }
-
-        // Draw
-        ImageView imageView = new ImageView(pieceImage);
-        imageView.setX(cellSize * (x + MARGIN / 2));
-        imageView.setY(cellSize * (y + MARGIN / 2));
-        gameBoardPane.getChildren().add(imageView);
+    private double getPieceSize(int gridSize) {
+        return gameBoardPane.getPrefWidth() / gridSize * (1 - MARGIN);
     }
 
     /**
@@ -0,0 +1,81 @@
+package project23.gui.view;
+
+import javafx.scene.image.Image;
+import project23.util.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the board piece images decoded and scaled to the size they are drawn at, so redrawing the board does not
+ * have to read and rescale the PNG files again.
+ * <p>
+ * Images are cached per icon and size. All images are scaled to the same size, so when the size changes (the board
+ * was resized) the whole cache is dropped. Images can be loaded ahead of time on a background thread with
+ * {@link #preload(List, double)}; an image which is asked for before it was preloaded is loaded on the calling thread.
+ */
+public class PieceImageCache {
+
+    private final Map<String, Image> images = new ConcurrentHashMap<>();
+    private volatile double size = -1;
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PieceImageLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Loads the images of the given icons at the given size on a background thread.
+     *
+     * @param iconURLs the icons
+     * @param size     the width and height the images will be drawn at
+     */
+    public void preload(List<URL> iconURLs, double size) {
+        loader.execute(() -> {
+            long start = System.nanoTime();
+            for (URL iconURL : iconURLs) {
+                get(iconURL, size);
+            }
+            Logger.debug(() -> "Preloaded " + iconURLs.size() + " piece image(s) of " + Math.round(size) +
+                    "px in " + (System.nanoTime() - start) / 1_000_000 + "ms.");
+        });
+    }
+
+    /**
+     * @param iconURL the icon
+     * @param size    the width and height the image will be drawn at
+     * @return the image scaled to the given size, or <code>null</code> when the icon could not be read
+     */
+    public Image get(URL iconURL, double size) {
+        if (this.size != size) {
+            resize(size);
+        }
+
+        // The size is part of the key, so an image which finishes loading after a resize is never handed out
+        return images.computeIfAbsent(iconURL + "@" + size, key -> load(iconURL, size));
+    }
+
+    private synchronized void resize(double size) {
+        if (this.size != size) {
+            images.clear();
+            this.size = size;
+        }
+    }
+
+    private static Image load(URL iconURL, double size) {
+        try (InputStream in = iconURL.openStream()) {
+            return new Image(in, size, size, true, true);
+        } catch (IOException e) {
+            Logger.error("Image " + iconURL + " does not exist?");
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
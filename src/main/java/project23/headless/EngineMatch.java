@@ -0,0 +1,206 @@
+package project23.headless;
+
+import project23.framework.ConfigData;
+import project23.framework.Game;
+import project23.framework.GameManager;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardObserver;
+import project23.framework.board.BoardPiece;
+import project23.framework.player.AIEngine;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.Player;
+import project23.util.Logger;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
+
+/**
+ * Plays local games between two {@link AIEngine}s with the same thinking time, without a GUI, and reports the score.
+ * The engines take turns playing first. Both engines search on the same worker threads, but never at the same
+ * time, since neither of them thinks on the opponent's time during local games. For minimax players, the score also
+ * shows how many positions they searched per second and how deep, to compare strength per second of thinking time.
+ */
+public class EngineMatch {
+
+    private final GameType gameType;
+    private final String[] names;
+    private final List<BiFunction<Board, Integer, Player>> factories;
+
+    private final int[] wins = new int[2];
+    private int draws = 0;
+    private final long[] thinkingNanos = new long[2];
+    private final int[] moves = new int[2];
+    private final long[] searchedNodes = new long[2];
+    private final long[] searchMs = new long[2];
+    private final long[] searchDepths = new long[2];
+    private final int[] searches = new int[2];
+
+    /**
+     * @param gameType the game to play
+     * @param first    the first engine
+     * @param second   the second engine
+     */
+    public EngineMatch(GameType gameType, AIEngine first, AIEngine second) {
+        this(gameType, first.name().toLowerCase(), createFactory(gameType, first),
+                second.name().toLowerCase(), createFactory(gameType, second));
+    }
+
+    /**
+     * @param gameType      the game to play
+     * @param firstName     the name of the first player in the score
+     * @param firstFactory  creates the first player
+     * @param secondName    the name of the second player in the score
+     * @param secondFactory creates the second player
+     */
+    public EngineMatch(GameType gameType, String firstName, BiFunction<Board, Integer, Player> firstFactory,
+                       String secondName, BiFunction<Board, Integer, Player> secondFactory) {
+        this.gameType = gameType;
+        this.names = new String[]{firstName, secondName};
+        this.factories = List.of(firstFactory, secondFactory);
+    }
+
+    /**
+     * Plays a single game, and adds the result to the score.
+     *
+     * @param firstMoves which engine makes the first move, 0 or 1
+     * @throws InterruptedException when interrupted while waiting for the game to end
+     */
+    public void playGame(int firstMoves) throws InterruptedException {
+        ConfigData.getInstance().setCurrentGameType(gameType);
+        Game game = ConfigData.getInstance().getCurrentGame();
+        game.setOnline(false);
+
+        // Player 0 starts, so the engine which moves first gets seat 0
+        int[] seats = {firstMoves, 1 - firstMoves};
+
+        GameManager gameManager = new GameManager(game.createBoardFactory(),
+                factories.get(seats[0]), factories.get(seats[1]));
+        gameManager.initialize();
+        Board board = gameManager.getBoard();
+
+        for (int seat = 0; seat < 2; seat++) {
+            int engine = seats[seat];
+            if (gameManager.getPlayer(seat) instanceof MinimaxAIPlayer) {
+                ((MinimaxAIPlayer) gameManager.getPlayer(seat)).addStatisticsListener((player, statistics) -> {
+                    searchedNodes[engine] += statistics.getNodes();
+                    searchMs[engine] += statistics.getElapsedMs();
+                    searchDepths[engine] += statistics.getDepth();
+                    searches[engine]++;
+                });
+            }
+        }
+
+        CountDownLatch finished = new CountDownLatch(1);
+        board.registerObserver(new BoardObserver() {
+            private long turnStart = System.nanoTime();
+
+            @Override
+            public void onPlayerMoved(Player who, BoardPiece where) {
+                int engine = seats[who.getID()];
+                thinkingNanos[engine] += System.nanoTime() - turnStart;
+                moves[engine]++;
+            }
+
+            @Override
+            public void onPlayerMoveFinalized(Player previous, Player current) {
+                turnStart = System.nanoTime();
+            }
+
+            @Override
+            public void onGameStart(Player startingPlayer) {
+                turnStart = System.nanoTime();
+            }
+
+            @Override
+            public void onPlayerWon(Player who) {
+                if (who == null) {
+                    draws++;
+                } else {
+                    wins[seats[who.getID()]]++;
+                }
+                finished.countDown();
+            }
+        });
+
+        gameManager.getEventLoop().execute(() -> board._start(gameManager.getPlayer(0)));
+        finished.await();
+        gameManager.destroy();
+    }
+
+    private static BiFunction<Board, Integer, Player> createFactory(GameType gameType, AIEngine engine) {
+        ConfigData.getInstance().setCurrentGameType(gameType);
+        Game game = ConfigData.getInstance().getCurrentGame();
+        return engine == AIEngine.MCTS ? game.createMCTSAIPlayerFactory() : game.createMinimaxAIPlayerFactory();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2; i++) {
+            sb.append(String.format("%s: %d win(s), %.0fms per move", names[i], wins[i],
+                    moves[i] == 0 ? 0 : thinkingNanos[i] / 1e6 / moves[i]));
+            if (searches[i] > 0) {
+                sb.append(String.format(", %.0f nodes/s, depth %.1f", searchMs[i] == 0 ? 0 : searchedNodes[i] * 1000.0 / searchMs[i],
+                        (double) searchDepths[i] / searches[i]));
+            }
+            sb.append(". ");
+        }
+        return sb.append(draws).append(" draw(s).").toString();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        GameType gameType = GameType.OTHELLO;
+        AIEngine first = AIEngine.MINIMAX;
+        AIEngine second = AIEngine.MCTS;
+        int games = 2;
+        int thinkingTime = ConfigData.getInstance().getMinimaxThinkingTime();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--game":
+                        gameType = GameType.valueOf(args[++i].toUpperCase().replace('-', '_'));
+                        break;
+                    case "--first":
+                        first = AIEngine.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--second":
+                        second = AIEngine.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--games":
+                        games = Integer.parseInt(args[++i]);
+                        break;
+                    case "--thinking-time":
+                        thinkingTime = Integer.parseInt(args[++i]);
+                        break;
+                    case "--search-threads":
+                        ConfigData.getInstance().setSearchParallelism(Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: EngineMatch [--game othello|tic-tac-toe] [--first minimax|mcts] [--second minimax|mcts]");
+            System.err.println("                   [--games <n>] [--thinking-time <ms>] [--search-threads <n>]");
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+        ConfigData.getInstance().setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        ConfigData.getInstance().setMinimaxThinkingTime(thinkingTime);
+
+        EngineMatch match = new EngineMatch(gameType, first, second);
+        for (int game = 0; game < games; game++) {
+            match.playGame(game % 2);
+            Logger.info("After " + (game + 1) + " game(s): " + match);
+        }
+
+        Logger.flush();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,728 @@
+package project23.headless;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import project23.framework.ConfigData;
+import project23.framework.Game;
+import project23.framework.GameManager;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPiece;
+import project23.framework.board.BoardPosition;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.MinimaxAIPlayer.SearchResult;
+import project23.framework.player.SearchDriver;
+import project23.util.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Runs the {@link MinimaxAIPlayer} on a fixed set of Othello and tic-tac-toe positions, and compares the results with
+ * a stored baseline, so a change to the search or an evaluator which makes the AI slower or weaker is noticed.
+ * <p>
+ * Every position is searched twice, on the calling thread:
+ * <ul>
+ *     <li>to a fixed depth, which gives the same tree every run. It is searched a few times, and the fastest run
+ *     counts. A regression is a game whose searches take much longer than the baseline in total, or an expected
+ *     best move which is no longer found. A best move, score or node count which differs from the baseline is
+ *     only a warning, unless the suite is strict.</li>
+ *     <li>for a fixed time, with increasing depth. The time it took to reach every depth is recorded. A regression is
+ *     a depth that is more than a few plies lower than the baseline.</li>
+ * </ul>
+ * The positions are in <code>/regression/positions.txt</code>, and the baseline in
+ * <code>/regression/baseline.csv</code>. After an intended change (like a new evaluator), write a new baseline with
+ * <code>--write-baseline</code>. Before measuring, every position is searched once to warm up the JIT. Timings depend
+ * on the machine, so a baseline is only useful on the machine it was written on.
+ * <p>
+ * With <code>--search-driver mtdf</code> the positions are searched with {@link SearchDriver#MTDF} instead, to compare
+ * it with a baseline of the default driver. The results then also show how many passes the last iteration took.
+ */
+public class EngineRegressionSuite {
+
+    private static final String POSITIONS_RESOURCE = "/regression/positions.txt";
+    private static final String BASELINE_RESOURCE = "/regression/baseline.csv";
+
+    private static final String CSV_HEADER =
+            "game,position,mode,depth,time_ms,nodes,nps,move,score,expected,solved,time_to_depth";
+
+    private SearchDriver searchDriver = SearchDriver.ALPHA_BETA;
+
+    private int runs = 5;
+    private double maxSlowdown = 0.25;
+    private int maxDepthLoss = 1;
+    private boolean strict = false;
+
+    /**
+     * @param searchDriver how every iteration is searched
+     */
+    public void setSearchDriver(SearchDriver searchDriver) {
+        this.searchDriver = searchDriver;
+    }
+
+    /**
+     * @param runs the amount of times every fixed-depth search is repeated, the fastest run counts
+     */
+    public void setRuns(int runs) {
+        this.runs = Math.max(1, runs);
+    }
+
+    /**
+     * @param maxSlowdown how much slower the fixed-depth searches of a game may be than the baseline in total, as a
+     *                    fraction
+     */
+    public void setMaxSlowdown(double maxSlowdown) {
+        this.maxSlowdown = maxSlowdown;
+    }
+
+    /**
+     * @param maxDepthLoss how much lower the depth of a fixed-time search may be than the baseline
+     */
+    public void setMaxDepthLoss(int maxDepthLoss) {
+        this.maxDepthLoss = maxDepthLoss;
+    }
+
+    /**
+     * @param strict whether a different best move or score than the baseline is a regression, instead of a warning
+     */
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    /**
+     * Reads the positions of the suite.
+     *
+     * @param reader the positions, one per line: the game, the name, the fixed depth, the fixed time in
+     *               milliseconds, the position and optionally the expected best moves (like <code>a1,c3</code>)
+     * @return the positions, in the order of the file
+     * @throws IOException when the positions can't be read
+     */
+    public static List<SuitePosition> readPositions(Reader reader) throws IOException {
+        List<SuitePosition> positions = new ArrayList<>();
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            if (parts.length != 6 && parts.length != 7) {
+                throw new IllegalArgumentException("Invalid suite position '" + line + "'.");
+            }
+
+            GameType gameType = parseGameType(parts[0]);
+            ConfigData.getInstance().setCurrentGameType(gameType);
+            Board board = ConfigData.getInstance().getCurrentGame().createBoardFactory().apply(null);
+
+            positions.add(new SuitePosition(
+                    gameType,
+                    parts[1],
+                    Integer.parseInt(parts[2]),
+                    Long.parseLong(parts[3]),
+                    BoardPosition.parse(parts[4] + " " + parts[5], board.getWidth(), board.getHeight()),
+                    parts.length == 7 ? Arrays.asList(parts[6].split(",")) : Collections.emptyList()));
+        }
+
+        return positions;
+    }
+
+    /**
+     * Searches every position once to its fixed depth, without recording anything, so the searches which are
+     * measured run on compiled code.
+     *
+     * @param positions the positions
+     */
+    public void warmUp(List<SuitePosition> positions) {
+        for (SuitePosition position : positions) {
+            onBoard(position, (board, player) -> player.searchFixedDepth(board, position.depth));
+        }
+    }
+
+    /**
+     * Searches a position to its fixed depth and for its fixed time.
+     *
+     * @param position the position
+     * @return the result of the fixed-depth search, followed by the result of the fixed-time search
+     */
+    public List<Result> run(SuitePosition position) {
+        return onBoard(position, (board, player) -> {
+            SearchResult fastest = null;
+            for (int run = 0; run < runs; run++) {
+                // Every run starts from scratch, instead of from the transposition table of the previous one
+                player.clearSearchMemory();
+                SearchResult result = player.searchFixedDepth(board, position.depth);
+                if (fastest == null || result.getElapsedNanos() < fastest.getElapsedNanos()) {
+                    fastest = result;
+                }
+            }
+
+            player.clearSearchMemory();
+            List<SearchResult> iterations = player.searchFixedTime(board, position.timeMs);
+
+            List<Result> results = new ArrayList<>();
+            results.add(new Result(position, Mode.DEPTH, fastest, Collections.singletonList(fastest)));
+            results.add(new Result(position, Mode.TIME,
+                    iterations.isEmpty() ? null : iterations.get(iterations.size() - 1), iterations));
+            return results;
+        });
+    }
+
+    /**
+     * Starts a game of two AI players on a position, and destroys it again after the search.
+     *
+     * @param position the position
+     * @param search   searches the board with the player to move
+     * @return the result of the search
+     */
+    private <T> T onBoard(SuitePosition position, BiFunction<Board, MinimaxAIPlayer, T> search) {
+        ConfigData.getInstance().setCurrentGameType(position.gameType);
+        ConfigData.getInstance().setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        Game game = ConfigData.getInstance().getCurrentGame();
+        game.setOnline(false);
+
+        GameManager gameManager = new GameManager(game.createBoardFactory(),
+                game.createMinimaxAIPlayerFactory(), game.createMinimaxAIPlayerFactory());
+        gameManager.initialize();
+
+        try {
+            Board board = gameManager.getBoard();
+            board.setDisableRequestMove(true);
+            board._startFromPosition(position.position);
+
+            MinimaxAIPlayer player = (MinimaxAIPlayer) board.getCurrentPlayer();
+            player.setSearchDriver(searchDriver);
+            return search.apply(board, player);
+        } finally {
+            gameManager.destroy();
+        }
+    }
+
+    /**
+     * Compares results with the baseline.
+     *
+     * @param results  the results
+     * @param baseline the baseline results by {@link Result#getKey()}
+     * @return a message for every regression, empty when there are none
+     */
+    public List<String> compare(List<Result> results, Map<String, Result> baseline) {
+        List<String> regressions = new ArrayList<>();
+
+        // Single short searches are too noisy to compare, so the speed is compared per game
+        Map<GameType, double[]> totalTimeMs = new LinkedHashMap<>();
+
+        for (Result result : results) {
+            Result base = baseline.get(result.getKey());
+            if (base == null) {
+                Logger.warning(result.getKey() + " is not in the baseline.");
+                continue;
+            }
+
+            List<String> changes = new ArrayList<>();
+            List<String> warnings = new ArrayList<>();
+
+            if (base.solved && !result.solved) {
+                changes.add("no longer finds " + String.join(",", result.expected) + ", plays " + result.move);
+            }
+
+            if (result.mode == Mode.DEPTH) {
+                double[] total = totalTimeMs.computeIfAbsent(result.gameType, gameType -> new double[2]);
+                total[0] += result.timeMs;
+                total[1] += base.timeMs;
+
+                if (result.timeMs > base.timeMs * (1 + maxSlowdown)) {
+                    warnings.add(String.format("took %.1fms, baseline %.1fms", result.timeMs, base.timeMs));
+                }
+
+                (strict ? changes : warnings).addAll(describeChanges(result, base));
+            } else if (result.depth < base.depth - maxDepthLoss) {
+                changes.add("reached depth " + result.depth + ", baseline " + base.depth);
+            }
+
+            for (String warning : warnings) {
+                Logger.warning(result.getKey() + ": " + warning + ".");
+            }
+            for (String change : changes) {
+                regressions.add(result.getKey() + ": " + change + ".");
+            }
+        }
+
+        for (Map.Entry<GameType, double[]> total : totalTimeMs.entrySet()) {
+            double timeMs = total.getValue()[0];
+            double baseTimeMs = total.getValue()[1];
+            String message = String.format("%s/depth: took %.1fms in total, baseline %.1fms.",
+                    total.getKey().name().toLowerCase().replace('_', '-'), timeMs, baseTimeMs);
+
+            if (timeMs > baseTimeMs * (1 + maxSlowdown)) {
+                regressions.add(message);
+            } else {
+                Logger.info(message);
+            }
+        }
+
+        return regressions;
+    }
+
+    private static List<String> describeChanges(Result result, Result base) {
+        List<String> changes = new ArrayList<>();
+        if (!result.move.equals(base.move)) {
+            changes.add("plays " + result.move + ", baseline " + base.move);
+        }
+        if (Float.compare(result.score, base.score) != 0) {
+            changes.add("scores " + result.score + ", baseline " + base.score);
+        }
+        if (result.nodes != base.nodes) {
+            changes.add("searched " + result.nodes + " nodes, baseline " + base.nodes);
+        }
+        return changes;
+    }
+
+    /**
+     * Writes results as CSV, with a header line. The baseline is written in this format.
+     *
+     * @param results the results
+     * @param out     where to write to
+     */
+    public static void writeCsv(List<Result> results, PrintWriter out) {
+        out.println(CSV_HEADER);
+        for (Result result : results) {
+            out.println(result.toCsv());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads results written by {@link #writeCsv(List, PrintWriter)}.
+     *
+     * @param reader the CSV
+     * @return the results by {@link Result#getKey()}
+     * @throws IOException when the CSV can't be read
+     */
+    public static Map<String, Result> readCsv(Reader reader) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank() || line.equals(CSV_HEADER)) {
+                continue;
+            }
+
+            Result result = Result.fromCsv(line);
+            results.put(result.getKey(), result);
+        }
+
+        return results;
+    }
+
+    /**
+     * @param results the results
+     * @return the results as a JSON array, with the time to reach every depth as an array of objects
+     */
+    public static JSONArray toJson(List<Result> results) {
+        JSONArray array = new JSONArray();
+        try {
+            for (Result result : results) {
+                JSONArray timeToDepth = new JSONArray();
+                for (Map.Entry<Integer, Double> entry : result.timeToDepth.entrySet()) {
+                    timeToDepth.put(new JSONObject()
+                            .put("depth", entry.getKey())
+                            .put("time_ms", entry.getValue()));
+                }
+
+                array.put(new JSONObject()
+                        .put("game", result.gameType.name().toLowerCase().replace('_', '-'))
+                        .put("position", result.name)
+                        .put("mode", result.mode.name().toLowerCase())
+                        .put("depth", result.depth)
+                        .put("time_ms", result.timeMs)
+                        .put("nodes", result.nodes)
+                        .put("nps", Math.round(result.nodesPerSecond))
+                        .put("move", result.move)
+                        .put("score", (double) result.score)
+                        .put("expected", new JSONArray(result.expected))
+                        .put("solved", result.solved)
+                        .put("passes", result.passes)
+                        .put("time_to_depth", timeToDepth));
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        return array;
+    }
+
+    private static GameType parseGameType(String game) {
+        for (GameType gameType : GameType.values()) {
+            if (gameType.name().equalsIgnoreCase(game.replace('-', '_'))) {
+                return gameType;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown game '" + game + "'.");
+    }
+
+    /**
+     * @param move a move, or <code>null</code> for a pass
+     * @return The move written like <code>d3</code>: the column as a letter and the row as a number, or
+     * <code>pass</code>
+     */
+    private static String formatMove(BoardPiece move) {
+        return move == null ? "pass" : move.getCoordinate();
+    }
+
+    private static Reader openFileOrResource(String file, String resource) throws IOException {
+        if (file != null) {
+            return Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+        }
+
+        InputStream in = EngineRegressionSuite.class.getResourceAsStream(resource);
+        return in == null ? null : new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        EngineRegressionSuite suite = new EngineRegressionSuite();
+        String positionsFile = null;
+        String baselineFile = null;
+        String writeBaselineFile = null;
+        String csvFile = null;
+        String jsonFile = null;
+        String only = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--positions":
+                        positionsFile = args[++i];
+                        break;
+                    case "--baseline":
+                        baselineFile = args[++i];
+                        break;
+                    case "--write-baseline":
+                        writeBaselineFile = args[++i];
+                        break;
+                    case "--csv":
+                        csvFile = args[++i];
+                        break;
+                    case "--json":
+                        jsonFile = args[++i];
+                        break;
+                    case "--game":
+                        only = parseGameType(args[++i]).name();
+                        break;
+                    case "--runs":
+                        suite.setRuns(Integer.parseInt(args[++i]));
+                        break;
+                    case "--max-slowdown":
+                        suite.setMaxSlowdown(Double.parseDouble(args[++i]));
+                        break;
+                    case "--max-depth-loss":
+                        suite.setMaxDepthLoss(Integer.parseInt(args[++i]));
+                        break;
+                    case "--strict":
+                        suite.setStrict(true);
+                        break;
+                    case "--search-driver": {
+                        String name = args[++i];
+                        SearchDriver driver = SearchDriver.fromName(name);
+                        if (driver == null) {
+                            throw new IllegalArgumentException("Unknown search driver '" + name + "'.");
+                        }
+                        suite.setSearchDriver(driver);
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: EngineRegressionSuite [--positions <file>] [--baseline <file>] [--write-baseline <file>]");
+            System.err.println("                             [--csv <file>] [--json <file>] [--game <game>] [--runs <n>]");
+            System.err.println("                             [--max-slowdown <fraction>] [--max-depth-loss <plies>] [--strict]");
+            System.err.println("                             [--search-driver alpha-beta|mtdf]");
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+
+        List<SuitePosition> positions;
+        try (Reader reader = openFileOrResource(positionsFile, POSITIONS_RESOURCE)) {
+            positions = readPositions(reader);
+        }
+
+        if (only != null) {
+            String game = only;
+            positions.removeIf(position -> !position.gameType.name().equals(game));
+        }
+
+        suite.warmUp(positions);
+
+        List<Result> results = new ArrayList<>();
+        for (SuitePosition position : positions) {
+            for (Result result : suite.run(position)) {
+                Logger.info(result.toString());
+                results.add(result);
+            }
+        }
+
+        if (csvFile != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(csvFile), StandardCharsets.UTF_8))) {
+                writeCsv(results, out);
+            }
+        }
+
+        if (jsonFile != null) {
+            try {
+                Files.write(Paths.get(jsonFile), toJson(results).toString(2).getBytes(StandardCharsets.UTF_8));
+            } catch (JSONException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        if (writeBaselineFile != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(writeBaselineFile), StandardCharsets.UTF_8))) {
+                writeCsv(results, out);
+            }
+            Logger.info("Wrote the baseline of " + results.size() + " results to " + writeBaselineFile + ".");
+            Logger.flush();
+            System.exit(0);
+            return;
+        }
+
+        int exitCode = 0;
+        try (Reader reader = openFileOrResource(baselineFile, BASELINE_RESOURCE)) {
+            if (reader == null) {
+                Logger.warning("There is no baseline, nothing to compare with.");
+            } else {
+                List<String> regressions = suite.compare(results, readCsv(reader));
+                for (String regression : regressions) {
+                    Logger.error("REGRESSION " + regression);
+                }
+
+                if (regressions.isEmpty()) {
+                    Logger.info("No regressions in " + results.size() + " results.");
+                } else {
+                    Logger.error(regressions.size() + " regression(s) in " + results.size() + " results.");
+                    exitCode = 1;
+                }
+            }
+        }
+
+        Logger.flush();
+        System.exit(exitCode);
+    }
+
+    /**
+     * How a position was searched.
+     */
+    public enum Mode {
+        DEPTH,
+        TIME
+    }
+
+    /**
+     * A position of the suite, with the depth and time to search it for.
+     */
+    public static class SuitePosition {
+
+        private final GameType gameType;
+        private final String name;
+        private final int depth;
+        private final long timeMs;
+        private final BoardPosition position;
+        private final List<String> expected;
+
+        public SuitePosition(GameType gameType, String name, int depth, long timeMs, BoardPosition position,
+                             List<String> expected) {
+            this.gameType = gameType;
+            this.name = name;
+            this.depth = depth;
+            this.timeMs = timeMs;
+            this.position = position;
+            this.expected = expected;
+        }
+
+        public GameType getGameType() {
+            return gameType;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The result of searching a position of the suite once, in a single mode.
+     */
+    public static class Result {
+
+        private final GameType gameType;
+        private final String name;
+        private final Mode mode;
+        private final int depth;
+        private final double timeMs;
+        private final long nodes;
+        private final double nodesPerSecond;
+        private final String move;
+        private final float score;
+        private final List<String> expected;
+        private final boolean solved;
+        // The time since the start of the search at which every depth was done, in milliseconds
+        private final Map<Integer, Double> timeToDepth;
+        // The passes of the last iteration, not stored in the baseline
+        private final int passes;
+
+        private Result(GameType gameType, String name, Mode mode, int depth, double timeMs, long nodes,
+                       double nodesPerSecond, String move, float score, List<String> expected, boolean solved,
+                       Map<Integer, Double> timeToDepth, int passes) {
+            this.gameType = gameType;
+            this.name = name;
+            this.mode = mode;
+            this.depth = depth;
+            this.timeMs = timeMs;
+            this.nodes = nodes;
+            this.nodesPerSecond = nodesPerSecond;
+            this.move = move;
+            this.score = score;
+            this.expected = expected;
+            this.solved = solved;
+            this.timeToDepth = timeToDepth;
+            this.passes = passes;
+        }
+
+        /**
+         * @param position   the position of the suite
+         * @param mode       how it was searched
+         * @param result     the result of the search, or <code>null</code> when not even the first iteration finished
+         * @param iterations the result of every iteration of the search
+         */
+        private Result(SuitePosition position, Mode mode, SearchResult result, List<SearchResult> iterations) {
+            this(position.gameType, position.name, mode,
+                    result == null ? -1 : result.getDepth(),
+                    result == null ? 0 : result.getElapsedNanos() / 1e6,
+                    result == null ? 0 : result.getNodes(),
+                    result == null ? 0 : result.getNodesPerSecond(),
+                    result == null ? "none" : formatMove(result.getBestMove()),
+                    result == null ? 0 : result.getBestMoveValue(),
+                    position.expected,
+                    result != null && position.expected.contains(formatMove(result.getBestMove())),
+                    new LinkedHashMap<>(),
+                    result == null ? 0 : result.getPasses());
+
+            for (SearchResult iteration : iterations) {
+                timeToDepth.put(iteration.getDepth(), iteration.getElapsedNanos() / 1e6);
+            }
+        }
+
+        private static Result fromCsv(String line) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 12) {
+                throw new IllegalArgumentException("Invalid result '" + line + "'.");
+            }
+
+            Map<Integer, Double> timeToDepth = new LinkedHashMap<>();
+            if (!fields[11].isEmpty()) {
+                for (String entry : fields[11].split(";")) {
+                    String[] depthAndTime = entry.split(":");
+                    timeToDepth.put(Integer.parseInt(depthAndTime[0]), Double.parseDouble(depthAndTime[1]));
+                }
+            }
+
+            return new Result(
+                    parseGameType(fields[0]),
+                    fields[1],
+                    Mode.valueOf(fields[2].toUpperCase()),
+                    Integer.parseInt(fields[3]),
+                    Double.parseDouble(fields[4]),
+                    Long.parseLong(fields[5]),
+                    Double.parseDouble(fields[6]),
+                    fields[7],
+                    Float.parseFloat(fields[8]),
+                    fields[9].isEmpty() ? Collections.emptyList() : Arrays.asList(fields[9].split(";")),
+                    Boolean.parseBoolean(fields[10]),
+                    timeToDepth,
+                    1);
+        }
+
+        private String toCsv() {
+            StringBuilder timeToDepthField = new StringBuilder();
+            for (Map.Entry<Integer, Double> entry : timeToDepth.entrySet()) {
+                if (timeToDepthField.length() > 0) {
+                    timeToDepthField.append(';');
+                }
+                timeToDepthField.append(entry.getKey()).append(':').append(String.format("%.3f", entry.getValue()));
+            }
+
+            return String.join(",",
+                    gameType.name().toLowerCase().replace('_', '-'),
+                    name,
+                    mode.name().toLowerCase(),
+                    String.valueOf(depth),
+                    String.format("%.3f", timeMs),
+                    String.valueOf(nodes),
+                    String.valueOf(Math.round(nodesPerSecond)),
+                    move,
+                    String.valueOf(score),
+                    String.join(";", expected),
+                    String.valueOf(solved),
+                    timeToDepthField);
+        }
+
+        /**
+         * @return The key of the result in a baseline: the game, the name of the position and the mode
+         */
+        public String getKey() {
+            return gameType.name().toLowerCase().replace('_', '-') + "/" + name + "/" + mode.name().toLowerCase();
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public double getTimeMs() {
+            return timeMs;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public String getMove() {
+            return move;
+        }
+
+        public float getScore() {
+            return score;
+        }
+
+        public boolean isSolved() {
+            return solved;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s depth %2d  %,10.1fms  %,12d nodes  %,10.0f nodes/s  move %-4s  score %8.3f%s%s",
+                    getKey(), depth, timeMs, nodes, nodesPerSecond, move, score,
+                    passes > 1 ? String.format("  %d passes", passes) : "",
+                    expected.isEmpty() ? "" : solved ? "  solved" : "  NOT SOLVED, expected " + String.join(",", expected));
+        }
+    }
+}
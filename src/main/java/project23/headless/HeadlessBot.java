@@ -0,0 +1,258 @@
+package project23.headless;
+
+import project23.framework.*;
+import project23.framework.board.Board;
+import project23.framework.board.BoardObserver;
+import project23.framework.board.BoardPiece;
+import project23.framework.player.Player;
+import project23.framework.player.ServerPlayer;
+import project23.util.Logger;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays server matches with the AI, without a GUI.
+ * <p>
+ * The bot connects to the server, logs in and then subscribes, challenges a player and/or accepts challenges,
+ * depending on its {@link HeadlessOptions}. After every match it does the same again, until the configured amount
+ * of matches has been played or the connection is lost.
+ * <p>
+ * Nothing in this class (or the classes it uses) touches JavaFX, so it starts fast and runs on machines without a
+ * display or JavaFX runtime.
+ */
+public class HeadlessBot implements ConnectedGameManagerObserver, BoardObserver {
+
+    private final HeadlessOptions options;
+    private final GameType gameType;
+
+    private ConnectedGameManager cgm;
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private int wins = 0;
+    private int losses = 0;
+    private int draws = 0;
+
+    public HeadlessBot(HeadlessOptions options) {
+        this.options = options;
+        this.gameType = options.getGameType();
+    }
+
+    public static void main(String[] args) {
+        HeadlessOptions options;
+        try {
+            options = HeadlessOptions.parse(args);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.print(HeadlessOptions.usage());
+            System.exit(2);
+            return;
+        }
+
+        if (options.isHelp()) {
+            System.out.print(HeadlessOptions.usage());
+            return;
+        }
+
+        HeadlessBot bot = new HeadlessBot(options);
+        int status;
+        try {
+            bot.connect();
+            status = bot.awaitFinished() ? 0 : 1;
+        } catch (IOException e) {
+            Logger.error("Couldn't connect to server " + options.getHost() + ":" + options.getPort() + "!");
+            e.printStackTrace();
+            status = 1;
+        } catch (InterruptedException e) {
+            status = 1;
+        }
+
+        bot.shutdown();
+        System.exit(status);
+    }
+
+    /**
+     * Applies the options to the configuration, connects to the server and starts looking for a match.
+     *
+     * @throws IOException when the connection could not be made
+     */
+    public void connect() throws IOException {
+        Logger.setLevel(options.getLogLevel());
+        if (options.getLogFile() != null) {
+            Logger.setWriteToFile(options.getLogFile());
+        }
+
+        ConfigData config = ConfigData.getInstance();
+        config.setServerIP(options.getHost());
+        config.setServerPort(String.valueOf(options.getPort()));
+        config.setPlayerName(options.getName());
+        config.setAIDifficulty(options.getDifficulty());
+        config.setAIEngine(options.getEngine());
+        config.setMinimaxThinkingTime(options.getThinkingTime());
+        config.setMinimaxFixedDepth(options.getFixedDepth());
+        config.setServerTurnTimeout(options.getTurnTimeout());
+        config.setPonderEnabled(options.isPonder());
+        config.setSearchParallelism(options.getSearchThreads());
+        config.setSearchDriver(options.getSearchDriver());
+        config.setTranspositionTableSize(options.getHashSize());
+        config.setTrafficCaptureDirectory(options.getCaptureDirectory());
+        config.setSearchStatisticsFile(options.getSearchStatisticsFile());
+        config.setOthelloWeightsFile(options.getOthelloWeightsFile());
+        config.setOthelloNetworkFile(options.getOthelloNetworkFile());
+        config.setProbCutEnabled(options.isProbCut());
+        config.setOthelloProbCutFile(options.getOthelloProbCutFile());
+        config.setLateMoveReductions(options.getLateMoveReductions());
+        config.setCurrentGameType(gameType);
+
+        Game game = config.getCurrentGame();
+        game.setOnline(true);
+
+        Logger.info("Connecting to " + options.getHost() + ":" + options.getPort() + " as '" + options.getName() +
+                "' to play " + gameType.displayName + "...");
+
+        cgm = new ConnectedGameManager(
+                game.createBoardFactory(),
+                options.getHost(),
+                options.getPort(),
+                game.createAIPlayerFactory());
+        config.setGameManager(cgm);
+
+        cgm.registerObserver(this);
+        cgm.getBoard().registerObserver(this);
+
+        cgm.setSelfName(options.getName());
+        cgm.login();
+        findMatch();
+    }
+
+    /**
+     * Waits until the bot is done playing.
+     *
+     * @return <code>true</code> when all matches were played, <code>false</code> when the connection was lost
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean awaitFinished() throws InterruptedException {
+        while (!finished.await(1, TimeUnit.SECONDS)) {
+            if (!cgm.getClient().isAlive()) {
+                Logger.error("Lost the connection to the server.");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Closes the connection and writes the remaining log messages.
+     */
+    public void shutdown() {
+        Logger.info("Played " + (wins + losses + draws) + " match(es): " +
+                wins + " won, " + losses + " lost, " + draws + " draw(s).");
+
+        if (cgm != null) {
+            cgm.destroy();
+        }
+
+        Logger.flush();
+    }
+
+    /**
+     * Subscribes and/or challenges for the next match, as configured.
+     */
+    private void findMatch() {
+        if (options.isSubscribe()) {
+            cgm.subscribe();
+        }
+
+        if (options.getChallenge() != null) {
+            // The challenge is sent once the player list shows the player is online.
+            cgm.getClient().sendGetPlayerlistMessage();
+        }
+    }
+
+    @Override
+    public void onServerError(String errorMessage) {
+        Logger.warning("Server error: " + errorMessage);
+    }
+
+    @Override
+    public void onPlayerListReceive() {
+        String target = options.getChallenge();
+        if (target == null || cgm.getBoard().getBoardState() == BoardState.PLAYING) {
+            return;
+        }
+
+        if (cgm.getLobbyPlayers().contains(target)) {
+            Logger.info("Challenging " + target + "...");
+            cgm.challengePlayer(target);
+        }
+    }
+
+    @Override
+    public void onChallengeRequestReceive(ChallengeRequest challengeRequest) {
+        Set<String> accepted = options.getAcceptChallenges();
+        boolean allowed = accepted == null || accepted.contains(challengeRequest.getOpponentName());
+
+        if (!allowed ||
+                challengeRequest.getGameType() != gameType ||
+                cgm.getBoard().getBoardState() == BoardState.PLAYING) {
+            Logger.info("Ignoring challenge of " + challengeRequest.getOpponentName() + ".");
+            return;
+        }
+
+        Logger.info("Accepting challenge of " + challengeRequest.getOpponentName() + ".");
+        cgm.acceptChallengeRequest(challengeRequest);
+    }
+
+    @Override
+    public void onPreGameStart() {
+        cgm.updateSelfPlayerSupplier(ConfigData.getInstance().getCurrentGame().createAIPlayerFactory());
+    }
+
+    @Override
+    public void onPostGameStart() {
+        Board board = cgm.getBoard();
+        for (Player player : cgm.getPlayers()) {
+            if (player instanceof ServerPlayer) {
+                Logger.info("Match started against " + player.getName() + ", " +
+                        board.getCurrentPlayer().getName() + " begins.");
+            }
+        }
+    }
+
+    @Override
+    public void onPlayerMoved(Player who, BoardPiece where) {
+    }
+
+    @Override
+    public void onPlayerMoveFinalized(Player previous, Player current) {
+    }
+
+    @Override
+    public void onPlayerWon(Player who) {
+        if (who == null) {
+            draws++;
+            Logger.info("Match ended in a draw.");
+        } else if (who instanceof ServerPlayer) {
+            losses++;
+            Logger.info("Match lost against " + who.getName() + ".");
+        } else {
+            wins++;
+            Logger.info("Match won!");
+        }
+
+        int played = wins + losses + draws;
+        if (options.getGames() > 0 && played >= options.getGames()) {
+            finished.countDown();
+        } else {
+            findMatch();
+        }
+    }
+
+    @Override
+    public void onGameStart(Player startingPlayer) {
+    }
+}
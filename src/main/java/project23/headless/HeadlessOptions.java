@@ -0,0 +1,368 @@
+package project23.headless;
+
+import project23.framework.GameType;
+import project23.framework.player.AIEngine;
+import project23.framework.player.LateMoveReductions;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.SearchDriver;
+import project23.framework.player.SearchExecutor;
+import project23.util.Logger;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * The configuration of the {@link HeadlessBot}, read from a properties file and/or command line flags.
+ * <p>
+ * Every option can be given as <code>--key value</code> (or <code>--key=value</code>) on the command line, or as
+ * <code>key=value</code> in the file passed with <code>--config</code>. Flags on the command line override the file.
+ * Boolean options may be given as a flag without value, like <code>--subscribe</code>.
+ */
+public class HeadlessOptions {
+
+    /**
+     * All known options, with their description for the usage text.
+     */
+    private static final Map<String, String> OPTIONS = new LinkedHashMap<>();
+
+    static {
+        OPTIONS.put("config", "properties file to read the options from");
+        OPTIONS.put("host", "server address (default 145.33.225.170)");
+        OPTIONS.put("port", "server port (default 7789)");
+        OPTIONS.put("name", "player name to log in with (default C4)");
+        OPTIONS.put("game", "othello or tic-tac-toe (default othello)");
+        OPTIONS.put("subscribe", "subscribe for a match, again after every match (default true)");
+        OPTIONS.put("accept-challenges", "'all', 'none' or a comma separated list of player names (default none)");
+        OPTIONS.put("challenge", "player to challenge, again after every match");
+        OPTIONS.put("games", "stop after this many matches, 0 to keep playing (default 0)");
+        OPTIONS.put("difficulty", "easy, medium or hard (default hard)");
+        OPTIONS.put("engine", "minimax or mcts (default minimax)");
+        OPTIONS.put("thinking-time", "AI thinking time per move in milliseconds (default 8000)");
+        OPTIONS.put("fixed-depth", "search every move to this depth instead of using the thinking time, 0 for off (default 0)");
+        OPTIONS.put("turn-timeout", "server turn timeout in milliseconds (default 10000)");
+        OPTIONS.put("ponder", "think on the opponent's time (default true)");
+        OPTIONS.put("search-threads", "search worker threads (default: available processors)");
+        OPTIONS.put("search-driver", "alpha-beta or mtdf (default alpha-beta)");
+        OPTIONS.put("hash-size", "transposition table size per AI player in megabytes (default 16)");
+        OPTIONS.put("log-level", "debug, info, warn or error (default info)");
+        OPTIONS.put("log-file", "also write the log to this file");
+        OPTIONS.put("capture", "directory to capture the server traffic to, for the TrafficReplayer");
+        OPTIONS.put("search-stats", "append the statistics of every AI search to this file, as JSON lines");
+        OPTIONS.put("othello-weights", "load the Othello evaluation weights from this file, see OthelloTuner");
+        OPTIONS.put("othello-network", "evaluate Othello positions with the network in this file, see OthelloNetworkTrainer");
+        OPTIONS.put("probcut", "prune the search with ProbCut (default true)");
+        OPTIONS.put("othello-probcut", "load the Othello ProbCut parameters from this file, see ProbCutCalibrator");
+        OPTIONS.put("lmr", "'off', or the late move reductions like '" + LateMoveReductions.DEFAULT + "' (default)");
+    }
+
+    private final Properties properties;
+
+    private HeadlessOptions(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Reads the options from the command line, and from the config file when one was given.
+     *
+     * @param args the command line arguments
+     * @return the options
+     * @throws IllegalArgumentException when an option is unknown or has an invalid value
+     * @throws IOException              when the config file could not be read
+     */
+    public static HeadlessOptions parse(String[] args) throws IOException {
+        Properties commandLine = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument '" + arg + "'.");
+            }
+
+            String key = arg.substring(2);
+            String value;
+            if (key.contains("=")) {
+                value = key.substring(key.indexOf('=') + 1);
+                key = key.substring(0, key.indexOf('='));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                value = args[++i];
+            } else {
+                value = "true";
+            }
+
+            commandLine.setProperty(key, value);
+        }
+
+        Properties properties = new Properties();
+        if (commandLine.containsKey("config")) {
+            try (Reader reader = new FileReader(new File(commandLine.getProperty("config")))) {
+                properties.load(reader);
+            }
+        }
+        properties.putAll(commandLine);
+
+        for (String key : properties.stringPropertyNames()) {
+            if (!OPTIONS.containsKey(key) && !key.equals("headless") && !key.equals("help")) {
+                throw new IllegalArgumentException("Unknown option '" + key + "'.");
+            }
+        }
+
+        HeadlessOptions options = new HeadlessOptions(properties);
+        options.validate();
+        return options;
+    }
+
+    /**
+     * @return The usage text, listing all options
+     */
+    public static String usage() {
+        StringBuilder sb = new StringBuilder("Usage: HeadlessBot [--option value]...\n");
+        for (Map.Entry<String, String> option : OPTIONS.entrySet()) {
+            sb.append(String.format("  --%-18s %s%n", option.getKey(), option.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses every option once, so invalid values are reported before connecting.
+     */
+    private void validate() {
+        getPort();
+        getGameType();
+        getAcceptChallenges();
+        getGames();
+        getDifficulty();
+        getEngine();
+        getThinkingTime();
+        getFixedDepth();
+        getTurnTimeout();
+        getSearchThreads();
+        getSearchDriver();
+        getHashSize();
+        getLateMoveReductions();
+        getLogLevel();
+    }
+
+    public boolean isHelp() {
+        return getBoolean("help", false);
+    }
+
+    public String getHost() {
+        return properties.getProperty("host", "145.33.225.170");
+    }
+
+    public int getPort() {
+        return getInt("port", 7789);
+    }
+
+    public String getName() {
+        return properties.getProperty("name", "C4");
+    }
+
+    public GameType getGameType() {
+        String game = properties.getProperty("game", "othello").trim();
+        for (GameType gameType : GameType.values()) {
+            if (gameType.name().equalsIgnoreCase(game.replace('-', '_')) ||
+                    gameType.serverName.equalsIgnoreCase(game) ||
+                    gameType.displayName.equalsIgnoreCase(game)) {
+                return gameType;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown game '" + game + "'.");
+    }
+
+    public boolean isSubscribe() {
+        return getBoolean("subscribe", !properties.containsKey("challenge"));
+    }
+
+    /**
+     * @return <code>null</code> to accept challenges from everyone, or the names of the players whose challenges
+     * are accepted (empty to accept none)
+     */
+    public Set<String> getAcceptChallenges() {
+        String value = properties.getProperty("accept-challenges", "none").trim();
+        if (value.equalsIgnoreCase("all") || value.equalsIgnoreCase("true")) {
+            return null;
+        }
+        if (value.equalsIgnoreCase("none") || value.equalsIgnoreCase("false") || value.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> names = new HashSet<>();
+        for (String name : value.split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return The player to challenge, or <code>null</code>
+     */
+    public String getChallenge() {
+        return properties.getProperty("challenge");
+    }
+
+    public int getGames() {
+        return getInt("games", 0);
+    }
+
+    public MinimaxAIPlayer.AIDifficulty getDifficulty() {
+        String value = properties.getProperty("difficulty", "hard").trim();
+        try {
+            return MinimaxAIPlayer.AIDifficulty.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown difficulty '" + value + "'.");
+        }
+    }
+
+    public AIEngine getEngine() {
+        String value = properties.getProperty("engine", "minimax");
+        AIEngine engine = AIEngine.fromName(value);
+        if (engine == null) {
+            throw new IllegalArgumentException("Unknown engine '" + value + "'.");
+        }
+        return engine;
+    }
+
+    public int getThinkingTime() {
+        return getInt("thinking-time", 8000);
+    }
+
+    public int getFixedDepth() {
+        int fixedDepth = getInt("fixed-depth", 0);
+        if (fixedDepth < 0) {
+            throw new IllegalArgumentException("Option 'fixed-depth' should be at least 0, but is " + fixedDepth + ".");
+        }
+        return fixedDepth;
+    }
+
+    public int getTurnTimeout() {
+        return getInt("turn-timeout", 10000);
+    }
+
+    public boolean isPonder() {
+        return getBoolean("ponder", true);
+    }
+
+    public int getSearchThreads() {
+        return getInt("search-threads", SearchExecutor.defaultParallelism());
+    }
+
+    public SearchDriver getSearchDriver() {
+        String value = properties.getProperty("search-driver", "alpha-beta");
+        SearchDriver driver = SearchDriver.fromName(value);
+        if (driver == null) {
+            throw new IllegalArgumentException("Unknown search driver '" + value + "'.");
+        }
+        return driver;
+    }
+
+    public int getHashSize() {
+        int hashSize = getInt("hash-size", 16);
+        if (hashSize < 1) {
+            throw new IllegalArgumentException("Option 'hash-size' should be at least 1, but is " + hashSize + ".");
+        }
+        return hashSize;
+    }
+
+    public Logger.Level getLogLevel() {
+        String value = properties.getProperty("log-level", "info");
+        Logger.Level level = Logger.parseLevel(value, null);
+        if (level == null) {
+            throw new IllegalArgumentException("Unknown log level '" + value + "'.");
+        }
+        return level;
+    }
+
+    /**
+     * @return The file to write the log to, or <code>null</code>
+     */
+    public File getLogFile() {
+        String value = properties.getProperty("log-file");
+        return value == null ? null : new File(value);
+    }
+
+    /**
+     * @return The directory to capture the server traffic to, or <code>null</code>
+     */
+    public File getCaptureDirectory() {
+        String value = properties.getProperty("capture");
+        return value == null ? null : new File(value);
+    }
+
+    /**
+     * @return The file to append the search statistics to, or <code>null</code>
+     */
+    public File getSearchStatisticsFile() {
+        String value = properties.getProperty("search-stats");
+        return value == null ? null : new File(value);
+    }
+
+    /**
+     * @return The file to load the Othello evaluation weights from, or <code>null</code>
+     */
+    public File getOthelloWeightsFile() {
+        String value = properties.getProperty("othello-weights");
+        return value == null ? null : new File(value);
+    }
+
+    /**
+     * @return The file to load the Othello evaluation network from, or <code>null</code>
+     */
+    public File getOthelloNetworkFile() {
+        String value = properties.getProperty("othello-network");
+        return value == null ? null : new File(value);
+    }
+
+    public boolean isProbCut() {
+        return getBoolean("probcut", true);
+    }
+
+    /**
+     * @return The file to load the Othello ProbCut parameters from, or <code>null</code>
+     */
+    public File getOthelloProbCutFile() {
+        String value = properties.getProperty("othello-probcut");
+        return value == null ? null : new File(value);
+    }
+
+    /**
+     * @return The late move reductions, or <code>null</code> when they're off
+     */
+    public LateMoveReductions getLateMoveReductions() {
+        String value = properties.getProperty("lmr");
+        if (value == null) {
+            return LateMoveReductions.DEFAULT;
+        }
+        if (value.trim().equalsIgnoreCase("off") || value.trim().equalsIgnoreCase("false")) {
+            return null;
+        }
+        try {
+            return LateMoveReductions.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option 'lmr' is invalid: " + e.getMessage());
+        }
+    }
+
+    private int getInt(String key, int fallback) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return fallback;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option '" + key + "' should be a number, but is '" + value + "'.");
+        }
+    }
+
+    private boolean getBoolean(String key, boolean fallback) {
+        String value = properties.getProperty(key);
+        return value == null ? fallback : Boolean.parseBoolean(value.trim());
+    }
+}
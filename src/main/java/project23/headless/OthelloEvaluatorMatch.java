@@ -0,0 +1,94 @@
+package project23.headless;
+
+import project23.framework.ConfigData;
+import project23.framework.Game;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.othello.player.OthelloEvaluator;
+import project23.othello.player.OthelloMinimaxAIPlayer;
+import project23.othello.player.OthelloNetworkEvaluator;
+import project23.othello.player.OthelloPatternEvaluator;
+import project23.util.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compares the {@link OthelloNetworkEvaluator} with the {@link OthelloPatternEvaluator} by playing an
+ * {@link EngineMatch} between two minimax players which only differ in their evaluator. Both get the same thinking
+ * time, so a slower evaluator has to make up for searching fewer positions with better evaluations: the score
+ * compares their strength per second, and shows the positions per second and the depth each of them reached.
+ */
+public class OthelloEvaluatorMatch {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Path networkFile = null;
+        int games = 10;
+        int thinkingTime = 1000;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--network":
+                        networkFile = Paths.get(args[++i]);
+                        break;
+                    case "--weights":
+                        ConfigData.getInstance().setOthelloWeightsFile(Paths.get(args[++i]).toFile());
+                        break;
+                    case "--games":
+                        games = Integer.parseInt(args[++i]);
+                        break;
+                    case "--thinking-time":
+                        thinkingTime = Integer.parseInt(args[++i]);
+                        break;
+                    case "--search-threads":
+                        ConfigData.getInstance().setSearchParallelism(Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+
+            if (networkFile == null) {
+                throw new IllegalArgumentException("Missing the network to compare.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: OthelloEvaluatorMatch --network <file> [--weights <file>] [--games <n>]");
+            System.err.println("                             [--thinking-time <ms>] [--search-threads <n>]");
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+        ConfigData.getInstance().setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        ConfigData.getInstance().setMinimaxThinkingTime(thinkingTime);
+
+        OthelloNetworkEvaluator network;
+        try (InputStream in = Files.newInputStream(networkFile)) {
+            network = OthelloNetworkEvaluator.read(in);
+        }
+        OthelloPatternEvaluator patterns = OthelloPatternEvaluator.getDefault();
+
+        EngineMatch match = new EngineMatch(GameType.OTHELLO,
+                "patterns", (board, id) -> createPlayer(board, id, patterns),
+                "network", (board, id) -> createPlayer(board, id, network));
+        for (int game = 0; game < games; game++) {
+            match.playGame(game % 2);
+            Logger.info("After " + (game + 1) + " game(s): " + match);
+        }
+
+        Logger.info(String.format("Evaluation time: patterns %.0fns, network %.0fns.",
+                patterns.getNanosPerEvaluation(), network.getNanosPerEvaluation()));
+        Logger.flush();
+        System.exit(0);
+    }
+
+    private static OthelloMinimaxAIPlayer createPlayer(Board board, int id, OthelloEvaluator evaluator) {
+        return new OthelloMinimaxAIPlayer(board, id, Game.AI_NAME, ConfigData.getInstance().getAIDifficulty(), evaluator);
+    }
+}
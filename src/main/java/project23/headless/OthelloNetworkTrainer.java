@@ -0,0 +1,387 @@
+package project23.headless;
+
+import project23.framework.ConfigData;
+import project23.framework.GameType;
+import project23.framework.board.BoardPosition;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.headless.OthelloTuner.Sample;
+import project23.othello.board.OthelloPatterns;
+import project23.othello.player.OthelloNetworkEvaluator;
+import project23.othello.player.OthelloPatternEvaluator;
+import project23.util.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trains the network of the {@link OthelloNetworkEvaluator} on self-play positions, without a GUI. The positions are
+ * played by the {@link OthelloTuner}, or read from a samples file it wrote.
+ * <p>
+ * The network is trained with floating point weights, like the tuner fits its weights: the evaluation, scaled by a
+ * constant K, is turned into a winning chance by the logistic function, and stochastic gradient descent minimizes the
+ * logistic loss against the outcome of the game, mixed with the value of a deeper search when the samples have one.
+ * Every position is used once for each player. The weights are kept within what the quantized network can hold, and
+ * the weights with the lowest loss on the positions of the last games, which are left out of the training, are
+ * quantized and written to a network file, which the AI players load with <code>--othello-network</code>.
+ */
+public class OthelloNetworkTrainer {
+
+    private static final int SQUARES = OthelloPatterns.SIZE * OthelloPatterns.SIZE;
+
+    private int hiddenSize = 32;
+    private int epochs = 10;
+    private double learningRate = 0.001;
+    /**
+     * K, about the one the tuner finds for the pattern evaluation, so the network evaluates in pieces like it does.
+     */
+    private double scale = 0.03;
+    private double lambda = 0.5;
+    private double validationFraction = 0.1;
+    private long seed = 1;
+
+    /**
+     * The active inputs of a position for both players, and what the network should predict for the first.
+     */
+    private static class Example {
+
+        private final int phase;
+        private final int[] own;
+        private final int[] opponent;
+        private final float target;
+
+        private Example(int phase, int[] own, int[] opponent, float target) {
+            this.phase = phase;
+            this.own = own;
+            this.opponent = opponent;
+            this.target = target;
+        }
+    }
+
+    /**
+     * The floating point weights of a network, laid out like those of {@link OthelloNetworkEvaluator}.
+     */
+    private static class Network {
+
+        private final float[] hiddenBiases;
+        private final float[] hiddenWeights;
+        private final float[] outputBiases;
+        private final float[][] outputWeights;
+
+        private Network(float[] hiddenBiases, float[] hiddenWeights, float[] outputBiases, float[][] outputWeights) {
+            this.hiddenBiases = hiddenBiases;
+            this.hiddenWeights = hiddenWeights;
+            this.outputBiases = outputBiases;
+            this.outputWeights = outputWeights;
+        }
+
+        /**
+         * @return A network with small random weights, and hidden biases halfway the clipping range, so all hidden
+         * neurons start out learning
+         */
+        private static Network random(int hiddenSize, Random random) {
+            float[] hiddenBiases = new float[hiddenSize];
+            float[] hiddenWeights = new float[OthelloNetworkEvaluator.INPUTS * hiddenSize];
+            float[][] outputWeights = new float[OthelloNetworkEvaluator.OUTPUTS][2 * hiddenSize];
+            for (int i = 0; i < hiddenSize; i++) {
+                hiddenBiases[i] = 0.5f;
+            }
+            for (int i = 0; i < hiddenWeights.length; i++) {
+                hiddenWeights[i] = (random.nextFloat() * 2 - 1) * 0.1f;
+            }
+            for (float[] weights : outputWeights) {
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = (random.nextFloat() * 2 - 1) * 0.1f;
+                }
+            }
+            return new Network(hiddenBiases, hiddenWeights, new float[OthelloNetworkEvaluator.OUTPUTS], outputWeights);
+        }
+
+        private Network copy() {
+            float[][] outputWeights = new float[this.outputWeights.length][];
+            for (int output = 0; output < outputWeights.length; output++) {
+                outputWeights[output] = this.outputWeights[output].clone();
+            }
+            return new Network(hiddenBiases.clone(), hiddenWeights.clone(), outputBiases.clone(), outputWeights);
+        }
+    }
+
+    /**
+     * Trains a network on the samples.
+     *
+     * @param samples the positions to train on, in the order of the games they are from
+     * @return The quantized network with the weights which predicted the left out positions best
+     */
+    public OthelloNetworkEvaluator train(List<Sample> samples) {
+        // Positions of the same game share their outcome, so leave out the positions of the last games
+        int validationSize = (int) (samples.size() * validationFraction);
+        int trainingSize = samples.size() - validationSize;
+        List<Example> training = examples(samples.subList(0, trainingSize));
+        List<Example> validation = examples(samples.subList(trainingSize, samples.size()));
+        Logger.info(String.format("Training a network with %d hidden neuron(s) on %d position(s), leaving out %d, with K = %.4f.",
+                hiddenSize, trainingSize, validationSize, scale));
+
+        Random random = new Random(seed);
+        Network network = Network.random(hiddenSize, random);
+        Network best = network.copy();
+        double bestLoss = loss(network, validation.isEmpty() ? training : validation);
+        Logger.info(String.format("Before training: loss %.5f.", bestLoss));
+
+        float[] ownSums = new float[hiddenSize];
+        float[] opponentSums = new float[hiddenSize];
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            Collections.shuffle(training, random);
+            for (Example example : training) {
+                step(network, example, ownSums, opponentSums);
+            }
+
+            double trainingLoss = loss(network, training);
+            double validationLoss = validation.isEmpty() ? trainingLoss : loss(network, validation);
+            Logger.info(String.format("Epoch %d: training loss %.5f, validation loss %.5f.", epoch, trainingLoss, validationLoss));
+
+            if (validationLoss < bestLoss) {
+                bestLoss = validationLoss;
+                best = network.copy();
+            }
+        }
+
+        Logger.info(String.format("Keeping the network with a validation loss of %.5f.", bestLoss));
+        return OthelloNetworkEvaluator.quantize(best.hiddenBiases, best.hiddenWeights, best.outputBiases, best.outputWeights);
+    }
+
+    /**
+     * Does a step of gradient descent on a single example.
+     */
+    private void step(Network network, Example example, float[] ownSums, float[] opponentSums) {
+        float[] outputWeights = network.outputWeights[example.phase];
+        float value = evaluate(network, example, ownSums, opponentSums);
+        float gradient = (float) (learningRate * (sigmoid(scale * value) - example.target) * scale
+                * OthelloNetworkEvaluator.PIECES_PER_OUTPUT);
+
+        for (int i = 0; i < hiddenSize; i++) {
+            // Clipped sums don't pass on a gradient
+            float ownGradient = ownSums[i] > 0 && ownSums[i] < 1 ? gradient * outputWeights[i] : 0;
+            float opponentGradient = opponentSums[i] > 0 && opponentSums[i] < 1 ? gradient * outputWeights[hiddenSize + i] : 0;
+
+            outputWeights[i] = clamp(outputWeights[i] - gradient * clip(ownSums[i]), OthelloNetworkEvaluator.MAX_OUTPUT_WEIGHT);
+            outputWeights[hiddenSize + i] = clamp(outputWeights[hiddenSize + i] - gradient * clip(opponentSums[i]),
+                    OthelloNetworkEvaluator.MAX_OUTPUT_WEIGHT);
+
+            network.hiddenBiases[i] = clamp(network.hiddenBiases[i] - ownGradient - opponentGradient,
+                    OthelloNetworkEvaluator.MAX_HIDDEN_WEIGHT);
+            for (int input : example.own) {
+                int weight = input * hiddenSize + i;
+                network.hiddenWeights[weight] = clamp(network.hiddenWeights[weight] - ownGradient,
+                        OthelloNetworkEvaluator.MAX_HIDDEN_WEIGHT);
+            }
+            for (int input : example.opponent) {
+                int weight = input * hiddenSize + i;
+                network.hiddenWeights[weight] = clamp(network.hiddenWeights[weight] - opponentGradient,
+                        OthelloNetworkEvaluator.MAX_HIDDEN_WEIGHT);
+            }
+        }
+        network.outputBiases[example.phase] -= gradient;
+    }
+
+    /**
+     * @param ownSums      receives the hidden sums of the player the example is for
+     * @param opponentSums receives the hidden sums of the opponent
+     * @return The evaluation of the example in pieces
+     */
+    private float evaluate(Network network, Example example, float[] ownSums, float[] opponentSums) {
+        hiddenSums(network, example.own, ownSums);
+        hiddenSums(network, example.opponent, opponentSums);
+
+        float[] outputWeights = network.outputWeights[example.phase];
+        float output = network.outputBiases[example.phase];
+        for (int i = 0; i < hiddenSize; i++) {
+            output += clip(ownSums[i]) * outputWeights[i] + clip(opponentSums[i]) * outputWeights[hiddenSize + i];
+        }
+        return output * OthelloNetworkEvaluator.PIECES_PER_OUTPUT;
+    }
+
+    private void hiddenSums(Network network, int[] inputs, float[] sums) {
+        System.arraycopy(network.hiddenBiases, 0, sums, 0, hiddenSize);
+        for (int input : inputs) {
+            int row = input * hiddenSize;
+            for (int i = 0; i < hiddenSize; i++) {
+                sums[i] += network.hiddenWeights[row + i];
+            }
+        }
+    }
+
+    /**
+     * @return The mean logistic loss of the predictions of the network
+     */
+    private double loss(Network network, List<Example> examples) {
+        float[] ownSums = new float[hiddenSize];
+        float[] opponentSums = new float[hiddenSize];
+        double total = 0;
+        for (Example example : examples) {
+            double p = Math.min(1 - 1e-9, Math.max(1e-9, sigmoid(scale * evaluate(network, example, ownSums, opponentSums))));
+            total -= example.target * Math.log(p) + (1 - example.target) * Math.log(1 - p);
+        }
+        return examples.isEmpty() ? 0 : total / examples.size();
+    }
+
+    /**
+     * Turns samples into examples for both players. The target of the player to move is the outcome, mixed with the
+     * winning chance of the search value by {@link #lambda} when there is one.
+     */
+    private List<Example> examples(List<Sample> samples) {
+        List<Example> examples = new ArrayList<>(samples.size() * 2);
+        for (Sample sample : samples) {
+            BoardPosition position = sample.getPosition();
+            int toMove = position.getPlayerToMove();
+
+            int pieces = 0;
+            for (int square = 0; square < SQUARES; square++) {
+                if (position.getOwnerID(square % OthelloPatterns.SIZE, square / OthelloPatterns.SIZE) != BoardPosition.EMPTY) {
+                    pieces++;
+                }
+            }
+            int phase = OthelloPatternEvaluator.getPhase(pieces);
+
+            float target = sample.getOutcome();
+            if (!Float.isNaN(sample.getSearchValue())) {
+                target = (float) (lambda * sample.getOutcome() + (1 - lambda) * sigmoid(scale * sample.getSearchValue()));
+            }
+
+            int[] toMoveInputs = inputs(position, toMove);
+            int[] otherInputs = inputs(position, 1 - toMove);
+            examples.add(new Example(phase, toMoveInputs, otherInputs, target));
+            examples.add(new Example(phase, otherInputs, toMoveInputs, 1 - target));
+        }
+        return examples;
+    }
+
+    /**
+     * @param position a position
+     * @param id       the ID of a player
+     * @return The inputs of the network which are 1 when seen by the player
+     */
+    private static int[] inputs(BoardPosition position, int id) {
+        List<Integer> inputs = new ArrayList<>();
+        for (int square = 0; square < SQUARES; square++) {
+            int owner = position.getOwnerID(square % OthelloPatterns.SIZE, square / OthelloPatterns.SIZE);
+            if (owner != BoardPosition.EMPTY) {
+                inputs.add(owner == id ? square : SQUARES + square);
+            }
+        }
+        return inputs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static float clip(float sum) {
+        return Math.max(0, Math.min(1, sum));
+    }
+
+    private static float clamp(float value, float limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    private static double sigmoid(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        OthelloNetworkTrainer trainer = new OthelloNetworkTrainer();
+        int games = 0;
+        Path samplesFile = null;
+        List<Path> fromSamplesFiles = new ArrayList<>();
+        Path outFile = Paths.get("othello-network.bin");
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games":
+                        games = Integer.parseInt(args[++i]);
+                        break;
+                    case "--hidden":
+                        trainer.hiddenSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--epochs":
+                        trainer.epochs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--learning-rate":
+                        trainer.learningRate = Double.parseDouble(args[++i]);
+                        break;
+                    case "--scale":
+                        trainer.scale = Double.parseDouble(args[++i]);
+                        break;
+                    case "--lambda":
+                        trainer.lambda = Double.parseDouble(args[++i]);
+                        break;
+                    case "--seed":
+                        trainer.seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--weights":
+                        ConfigData.getInstance().setOthelloWeightsFile(Paths.get(args[++i]).toFile());
+                        break;
+                    case "--samples":
+                        samplesFile = Paths.get(args[++i]);
+                        break;
+                    case "--from-samples":
+                        fromSamplesFiles.add(Paths.get(args[++i]));
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+
+            if (trainer.hiddenSize < 1 || trainer.epochs < 0 || games < 0) {
+                throw new IllegalArgumentException("The hidden size must be positive, epochs and games can't be negative.");
+            }
+            if (trainer.lambda < 0 || trainer.lambda > 1) {
+                throw new IllegalArgumentException("Lambda must be between 0 and 1.");
+            }
+            if (games == 0 && fromSamplesFiles.isEmpty()) {
+                throw new IllegalArgumentException("Play games or read samples to train on.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: OthelloNetworkTrainer [--games <n>] [--from-samples <file>]... [--samples <file>] [--weights <file>]");
+            System.err.println("                             [--hidden <n>] [--epochs <n>] [--learning-rate <x>] [--scale <k>]");
+            System.err.println("                             [--lambda <0..1>] [--seed <n>] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+        ConfigData.getInstance().setCurrentGameType(GameType.OTHELLO);
+        ConfigData.getInstance().setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        ConfigData.getInstance().getCurrentGame().setOnline(false);
+
+        List<Sample> samples = new ArrayList<>();
+        for (Path file : fromSamplesFiles) {
+            List<Sample> read = OthelloTuner.readSamples(file);
+            Logger.info("Read " + read.size() + " position(s) from " + file + ".");
+            samples.addAll(read);
+        }
+        if (games > 0) {
+            Logger.info("Playing " + games + " self-play game(s).");
+            List<Sample> played = new OthelloTuner().playGames(games, (int) (trainer.seed * games));
+            if (samplesFile != null) {
+                OthelloTuner.appendSamples(played, samplesFile);
+            }
+            samples.addAll(played);
+        }
+
+        OthelloNetworkEvaluator network = trainer.train(samples);
+        try (OutputStream out = Files.newOutputStream(outFile)) {
+            network.write(out);
+        }
+        Logger.info("Wrote the network to " + outFile + ".");
+
+        Logger.flush();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,605 @@
+package project23.headless;
+
+import project23.framework.BoardState;
+import project23.framework.ConfigData;
+import project23.framework.Game;
+import project23.framework.GameManager;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPiece;
+import project23.framework.board.BoardPosition;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.MinimaxAIPlayer.SearchResult;
+import project23.framework.player.Player;
+import project23.othello.board.OthelloPatterns;
+import project23.othello.board.OthelloPerft;
+import project23.othello.player.OthelloMinimaxAIPlayer;
+import project23.othello.player.OthelloPatternEvaluator;
+import project23.util.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the pattern and feature weights of the {@link OthelloPatternEvaluator} on games the AI plays against itself,
+ * without a GUI.
+ * <p>
+ * A round of tuning:
+ * <ol>
+ *     <li>plays self-play games on all cores. The first moves of every game are random, so the games differ, after
+ *     that both players search to a fixed depth with the current weights.</li>
+ *     <li>labels every position after the random moves with the outcome of the game for the player to move, and
+ *     optionally with the value of a deeper search.</li>
+ *     <li>fits the weights to the labels Texel-style: the evaluation, scaled by a constant K, is turned into a winning
+ *     chance by the logistic function, and gradient descent minimizes the logistic loss. K is chosen first, so the
+ *     current weights fit the outcomes best. The weights with the lowest loss on the positions of the last games,
+ *     which are left out of the fit, are kept.</li>
+ *     <li>writes the weights to a file, which the AI players load with <code>--othello-weights</code>, or which can
+ *     be shipped as {@link OthelloPatternEvaluator#WEIGHTS_RESOURCE}.</li>
+ * </ol>
+ * Every next round plays with the weights of the previous round, and fits on the positions of all rounds.
+ */
+public class OthelloTuner {
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int depth = 2;
+    private int randomPlies = 8;
+    private int labelDepth = 0;
+    private double lambda = 1;
+    private int epochs = 20;
+    private double learningRate = 0.5;
+    private double validationFraction = 0.1;
+    private long seed = 1;
+
+    /**
+     * A position from a self-play game, with its labels.
+     */
+    public static class Sample {
+
+        private final BoardPosition position;
+        private final float outcome;
+        private final float searchValue;
+
+        /**
+         * @param position    the position
+         * @param outcome     the outcome of the game for the player to move: 1 for a win, 0.5 for a draw, 0 for a loss
+         * @param searchValue the value of a deeper search for the player to move in pieces, or {@link Float#NaN}
+         */
+        public Sample(BoardPosition position, float outcome, float searchValue) {
+            this.position = position;
+            this.outcome = outcome;
+            this.searchValue = searchValue;
+        }
+
+        /**
+         * @param line a line written by {@link #toString()}
+         * @return The sample
+         */
+        public static Sample parse(String line) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected a position, an outcome and a search value, got '" + line + "'.");
+            }
+
+            return new Sample(BoardPosition.parse(parts[0] + " " + parts[1], OthelloPatterns.SIZE, OthelloPatterns.SIZE),
+                    Float.parseFloat(parts[2]), Float.parseFloat(parts[3]));
+        }
+
+        /**
+         * @return The position
+         */
+        public BoardPosition getPosition() {
+            return position;
+        }
+
+        /**
+         * @return The outcome of the game for the player to move: 1 for a win, 0.5 for a draw, 0 for a loss
+         */
+        public float getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return The value of a deeper search for the player to move in pieces, or {@link Float#NaN}
+         */
+        public float getSearchValue() {
+            return searchValue;
+        }
+
+        @Override
+        public String toString() {
+            return position + " " + outcome + " " + searchValue;
+        }
+    }
+
+    /**
+     * The pattern indices and feature values of a position as seen by one of the players, and what the evaluation
+     * should predict.
+     */
+    private static class Features {
+
+        private final int phase;
+        private final int[] indices;
+        private final int[] values;
+        private final float target;
+
+        private Features(int phase, int[] indices, int[] values, float target) {
+            this.phase = phase;
+            this.indices = indices;
+            this.values = values;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Plays self-play games with the current default weights, on {@link #threads} threads.
+     *
+     * @param games     the amount of games
+     * @param firstGame the number of the first game, which seeds the random moves
+     * @return the positions of all games
+     * @throws InterruptedException when interrupted while waiting for the games
+     */
+    public List<Sample> playGames(int games, int firstGame) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Sample>>> futures = new ArrayList<>();
+            for (int game = firstGame; game < firstGame + games; game++) {
+                long gameSeed = seed * 1_000_003L + game;
+                futures.add(executor.submit(() -> playGame(new Random(gameSeed))));
+            }
+
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    samples.addAll(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A self-play game failed.", e.getCause());
+                }
+
+                if ((i + 1) % Math.max(1, games / 10) == 0) {
+                    Logger.info("Played " + (i + 1) + " of " + games + " game(s), " + samples.size() + " position(s).");
+                }
+            }
+            return samples;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a single self-play game on the calling thread.
+     *
+     * @param random chooses the random moves
+     * @return the positions of the game after the random moves, except those where the player to move has to pass
+     */
+    private List<Sample> playGame(Random random) {
+        Game game = ConfigData.getInstance().getCurrentGame();
+        GameManager gameManager = new GameManager(game.createBoardFactory(),
+                game.createMinimaxAIPlayerFactory(), game.createMinimaxAIPlayerFactory());
+        gameManager.initialize();
+
+        try {
+            Board start = gameManager.getBoard();
+            start.setDisableRequestMove(true);
+            start._startFromPosition(BoardPosition.parse(OthelloPerft.START_POSITION, OthelloPatterns.SIZE, OthelloPatterns.SIZE));
+
+            // Play on a clone, which doesn't notify the players of the moves
+            Board board = start.clone();
+
+            List<BoardPosition> positions = new ArrayList<>();
+            List<Float> searchValues = new ArrayList<>();
+            for (int ply = 0; board.getBoardState() == BoardState.PLAYING; ply++) {
+                Player player = board.getCurrentPlayer();
+                List<BoardPiece> moves = board.getValidMoves(player);
+
+                BoardPiece move = null;
+                if (!moves.isEmpty() && ply < randomPlies) {
+                    move = moves.get(random.nextInt(moves.size()));
+                } else if (!moves.isEmpty()) {
+                    MinimaxAIPlayer ai = (MinimaxAIPlayer) player;
+                    SearchResult result = ai.searchFixedDepth(board, depth);
+                    if (result.getBestMove() != null) {
+                        move = board.getBoardPiece(result.getBestMove().getX(), result.getBestMove().getY());
+                    }
+
+                    float searchValue = Float.NaN;
+                    if (labelDepth > 0) {
+                        SearchResult label = labelDepth == depth ? result : ai.searchFixedDepth(board, labelDepth);
+                        searchValue = label.getBestMoveValue() * OthelloMinimaxAIPlayer.PIECES_PER_POINT;
+                    }
+
+                    positions.add(BoardPosition.of(board));
+                    searchValues.add(searchValue);
+                }
+
+                board.makeMove(player, move);
+            }
+
+            Player winner = board.getWinner();
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < positions.size(); i++) {
+                BoardPosition position = positions.get(i);
+                float outcome = winner == null ? 0.5f : winner.getID() == position.getPlayerToMove() ? 1 : 0;
+                samples.add(new Sample(position, outcome, searchValues.get(i)));
+            }
+            return samples;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            gameManager.destroy();
+        }
+    }
+
+    /**
+     * Fits weights to the samples, starting from the given weights.
+     *
+     * @param start   the evaluator to start from, which is not modified
+     * @param samples the positions to fit to, in the order of the games they are from
+     * @return The evaluator with the weights which predicted the left out positions best
+     */
+    public OthelloPatternEvaluator fit(OthelloPatternEvaluator start, List<Sample> samples) {
+        Weights weights = new Weights(start.getWeights(), start.getFeatureWeights());
+
+        // Positions of the same game share their outcome, so leave out the positions of the last games rather than
+        // random positions, or the left out positions would be predicted too well.
+        int validationSize = (int) (samples.size() * validationFraction);
+        int trainingSize = samples.size() - validationSize;
+
+        double k = findScale(weights, features(samples, Double.NaN));
+        Logger.info(String.format("Fitting to %d position(s), leaving out %d, with K = %.4f.", trainingSize, validationSize, k));
+
+        List<Features> training = features(samples.subList(0, trainingSize), k);
+        List<Features> validation = features(samples.subList(trainingSize, samples.size()), k);
+        Random random = new Random(seed);
+
+        Weights best = weights.copy();
+        double bestLoss = loss(weights, validation.isEmpty() ? training : validation, k);
+        Logger.info(String.format("Before fitting: loss %.5f.", bestLoss));
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            Collections.shuffle(training, random);
+            for (Features features : training) {
+                double gradient = (sigmoid(k * evaluate(weights, features)) - features.target) * k;
+                float step = (float) (learningRate * gradient);
+
+                float[][] phaseWeights = weights.patterns[features.phase];
+                for (int instance = 0; instance < features.indices.length; instance++) {
+                    phaseWeights[OthelloPatterns.getInstanceType(instance)][features.indices[instance]] -= step;
+                }
+                float[] phaseFeatureWeights = weights.features[features.phase];
+                for (int feature = 0; feature < OthelloPatternEvaluator.FEATURES; feature++) {
+                    phaseFeatureWeights[feature] -= step * features.values[feature];
+                }
+            }
+
+            double trainingLoss = loss(weights, training, k);
+            double validationLoss = validation.isEmpty() ? trainingLoss : loss(weights, validation, k);
+            Logger.info(String.format("Epoch %d: training loss %.5f, validation loss %.5f.", epoch, trainingLoss, validationLoss));
+
+            if (validationLoss < bestLoss) {
+                bestLoss = validationLoss;
+                best = weights.copy();
+            }
+        }
+
+        Logger.info(String.format("Keeping the weights with a validation loss of %.5f.", bestLoss));
+        return new OthelloPatternEvaluator(best.patterns, best.features);
+    }
+
+    /**
+     * Turns samples into the features of both players. The target of the player to move is the outcome, mixed with
+     * the winning chance of the search value by {@link #lambda} when there is one.
+     *
+     * @param samples the samples
+     * @param k       the scale of the evaluation, or {@link Double#NaN} to only use the outcomes
+     * @return The features
+     */
+    private List<Features> features(List<Sample> samples, double k) {
+        List<Features> features = new ArrayList<>(samples.size() * 2);
+        for (Sample sample : samples) {
+            BoardPosition position = sample.position;
+
+            int pieces = 0;
+            for (int square = 0; square < OthelloPatterns.SIZE * OthelloPatterns.SIZE; square++) {
+                if (owner(position, square) != BoardPosition.EMPTY) {
+                    pieces++;
+                }
+            }
+            int phase = OthelloPatternEvaluator.getPhase(pieces);
+
+            float target = sample.outcome;
+            if (!Double.isNaN(k) && !Float.isNaN(sample.searchValue)) {
+                target = (float) (lambda * sample.outcome + (1 - lambda) * sigmoid(k * sample.searchValue));
+            }
+
+            int toMove = position.getPlayerToMove();
+            features.add(new Features(phase, indices(position, toMove), values(position, toMove), target));
+            features.add(new Features(phase, indices(position, 1 - toMove), values(position, 1 - toMove), 1 - target));
+        }
+        return features;
+    }
+
+    /**
+     * @param position a position
+     * @param id       the ID of a player
+     * @return The index of every pattern instance as seen by the player, like {@link project23.othello.board.OthelloBoard#getPatternIndices(int)}
+     */
+    private static int[] indices(BoardPosition position, int id) {
+        int[] indices = new int[OthelloPatterns.getInstanceCount()];
+        for (int instance = 0; instance < indices.length; instance++) {
+            int[] squares = OthelloPatterns.getInstanceSquares(instance);
+            int index = 0;
+            for (int k = squares.length - 1; k >= 0; k--) {
+                int owner = owner(position, squares[k]);
+                index = index * 3 + (owner == BoardPosition.EMPTY ? 0 : owner == id ? 1 : 2);
+            }
+            indices[instance] = index;
+        }
+        return indices;
+    }
+
+    /**
+     * @param position a position
+     * @param id       the ID of a player
+     * @return The value of every feature as seen by the player
+     */
+    private static int[] values(BoardPosition position, int id) {
+        long own = 0, opponent = 0;
+        for (int square = 0; square < OthelloPatterns.SIZE * OthelloPatterns.SIZE; square++) {
+            int owner = owner(position, square);
+            if (owner == id) {
+                own |= 1L << square;
+            } else if (owner != BoardPosition.EMPTY) {
+                opponent |= 1L << square;
+            }
+        }
+
+        int[] values = new int[OthelloPatternEvaluator.FEATURES];
+        for (int feature = 0; feature < values.length; feature++) {
+            values[feature] = OthelloPatternEvaluator.getFeature(feature, own, opponent);
+        }
+        return values;
+    }
+
+    private static int owner(BoardPosition position, int square) {
+        return position.getOwnerID(square % OthelloPatterns.SIZE, square / OthelloPatterns.SIZE);
+    }
+
+    /**
+     * @param weights  the weights
+     * @param features the features
+     * @return The K for which the weights predict the outcomes best
+     */
+    private static double findScale(Weights weights, List<Features> features) {
+        double bestK = 0.1;
+        double bestLoss = Double.POSITIVE_INFINITY;
+        for (double k = 0.005; k <= 1; k *= 1.1) {
+            double loss = loss(weights, features, k);
+            if (loss < bestLoss) {
+                bestLoss = loss;
+                bestK = k;
+            }
+        }
+        return bestK;
+    }
+
+    /**
+     * @return The mean logistic loss of the predictions of the weights
+     */
+    private static double loss(Weights weights, List<Features> features, double k) {
+        double total = 0;
+        for (Features f : features) {
+            double p = Math.min(1 - 1e-9, Math.max(1e-9, sigmoid(k * evaluate(weights, f))));
+            total -= f.target * Math.log(p) + (1 - f.target) * Math.log(1 - p);
+        }
+        return features.isEmpty() ? 0 : total / features.size();
+    }
+
+    private static float evaluate(Weights weights, Features features) {
+        float[][] phaseWeights = weights.patterns[features.phase];
+        float value = 0;
+        for (int instance = 0; instance < features.indices.length; instance++) {
+            value += phaseWeights[OthelloPatterns.getInstanceType(instance)][features.indices[instance]];
+        }
+        float[] phaseFeatureWeights = weights.features[features.phase];
+        for (int feature = 0; feature < OthelloPatternEvaluator.FEATURES; feature++) {
+            value += phaseFeatureWeights[feature] * features.values[feature];
+        }
+        return value;
+    }
+
+    private static double sigmoid(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    /**
+     * A copy of the weights of an evaluator, which the fit changes.
+     */
+    private static class Weights {
+
+        private final float[][][] patterns;
+        private final float[][] features;
+
+        private Weights(float[][][] patterns, float[][] features) {
+            this.patterns = new float[patterns.length][][];
+            for (int phase = 0; phase < patterns.length; phase++) {
+                this.patterns[phase] = new float[patterns[phase].length][];
+                for (int type = 0; type < patterns[phase].length; type++) {
+                    this.patterns[phase][type] = patterns[phase][type].clone();
+                }
+            }
+
+            this.features = new float[features.length][];
+            for (int phase = 0; phase < features.length; phase++) {
+                this.features[phase] = features[phase].clone();
+            }
+        }
+
+        private Weights copy() {
+            return new Weights(patterns, features);
+        }
+    }
+
+    /**
+     * @param samples the samples to append
+     * @param file    the file to append them to, one per line
+     * @throws IOException when the file couldn't be written
+     */
+    public static void appendSamples(List<Sample> samples, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            for (Sample sample : samples) {
+                out.println(sample);
+            }
+        }
+    }
+
+    /**
+     * @param file a file written by {@link #appendSamples(List, Path)}
+     * @return The samples in the file
+     * @throws IOException when the file couldn't be read
+     */
+    public static List<Sample> readSamples(Path file) throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    samples.add(Sample.parse(line));
+                }
+            }
+        }
+        return samples;
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        OthelloTuner tuner = new OthelloTuner();
+        int games = 200;
+        int rounds = 1;
+        Double lambda = null;
+        Path samplesFile = null;
+        Path fromSamplesFile = null;
+        Path outFile = Paths.get("othello-weights.bin.gz");
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games":
+                        games = Integer.parseInt(args[++i]);
+                        break;
+                    case "--rounds":
+                        rounds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        tuner.threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--depth":
+                        tuner.depth = Integer.parseInt(args[++i]);
+                        break;
+                    case "--random-plies":
+                        tuner.randomPlies = Integer.parseInt(args[++i]);
+                        break;
+                    case "--label-depth":
+                        tuner.labelDepth = Integer.parseInt(args[++i]);
+                        break;
+                    case "--lambda":
+                        lambda = Double.parseDouble(args[++i]);
+                        break;
+                    case "--epochs":
+                        tuner.epochs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--learning-rate":
+                        tuner.learningRate = Double.parseDouble(args[++i]);
+                        break;
+                    case "--seed":
+                        tuner.seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--weights":
+                        ConfigData.getInstance().setOthelloWeightsFile(Paths.get(args[++i]).toFile());
+                        break;
+                    case "--samples":
+                        samplesFile = Paths.get(args[++i]);
+                        break;
+                    case "--from-samples":
+                        fromSamplesFile = Paths.get(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+
+            if (tuner.threads < 1 || tuner.depth < 0 || tuner.randomPlies < 0 || tuner.labelDepth < 0) {
+                throw new IllegalArgumentException("Threads must be positive, depths and plies can't be negative.");
+            }
+            // Without a deeper search, there is nothing to mix the outcome with
+            tuner.lambda = lambda != null ? lambda : tuner.labelDepth > 0 ? 0.5 : 1;
+            if (tuner.lambda < 0 || tuner.lambda > 1) {
+                throw new IllegalArgumentException("Lambda must be between 0 and 1.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: OthelloTuner [--games <n>] [--rounds <n>] [--threads <n>] [--depth <n>] [--random-plies <n>]");
+            System.err.println("                    [--label-depth <n>] [--lambda <0..1>] [--epochs <n>] [--learning-rate <x>] [--seed <n>]");
+            System.err.println("                    [--weights <file>] [--samples <file>] [--from-samples <file>] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+        ConfigData.getInstance().setCurrentGameType(GameType.OTHELLO);
+        ConfigData.getInstance().setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        ConfigData.getInstance().getCurrentGame().setOnline(false);
+
+        List<Sample> samples = new ArrayList<>();
+        if (fromSamplesFile != null) {
+            samples.addAll(readSamples(fromSamplesFile));
+            Logger.info("Read " + samples.size() + " position(s) from " + fromSamplesFile + ".");
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            if (games > 0) {
+                Logger.info("Round " + round + ": playing " + games + " game(s) on " + tuner.threads + " thread(s).");
+                List<Sample> played = tuner.playGames(games, (round - 1) * games);
+                if (samplesFile != null) {
+                    appendSamples(played, samplesFile);
+                }
+                samples.addAll(played);
+            }
+
+            if (samples.isEmpty()) {
+                Logger.error("There are no positions to fit to.");
+                break;
+            }
+
+            OthelloPatternEvaluator evaluator = tuner.fit(OthelloPatternEvaluator.getDefault(), samples);
+            try (OutputStream out = Files.newOutputStream(outFile)) {
+                evaluator.write(out);
+            }
+            Logger.info("Round " + round + ": wrote the weights to " + outFile + ".");
+
+            // The next round plays with the new weights
+            OthelloPatternEvaluator.setDefault(evaluator);
+        }
+
+        Logger.flush();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,293 @@
+package project23.headless;
+
+import project23.framework.ConfigData;
+import project23.framework.Game;
+import project23.framework.GameManager;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPosition;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.ProbCut;
+import project23.headless.OthelloTuner.Sample;
+import project23.othello.board.OthelloBoard;
+import project23.othello.player.OthelloPatternEvaluator;
+import project23.util.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fits the {@link ProbCut} parameters of the Othello search, without a GUI. Every position is searched to every depth
+ * up to the maximum depth, without ProbCut, and for every phase, depth and shallow depth the value of the deep search
+ * is regressed on the value of the shallow one. The positions are played by the {@link OthelloTuner}, or read from a
+ * samples file it wrote.
+ * <p>
+ * The shallow depths are the depths minus the reductions, so a check costs about the same share of the deep search
+ * at every depth. Every phase gets the same threshold, the written file can be edited to tune them per phase. The AI
+ * players load the file with <code>--othello-probcut</code>, or it can replace the parameters shipped with the game,
+ * see {@link project23.othello.player.OthelloMinimaxAIPlayer#PROBCUT_RESOURCE}. The parameters fit the evaluation
+ * they were calibrated with, so they have to be calibrated again after the evaluation changes.
+ */
+public class ProbCutCalibrator {
+
+    private int positions = 500;
+    private int minDepth = 3;
+    private int maxDepth = 8;
+    private int[] reductions = {2, 4};
+    private float threshold = 1.5f;
+    private long seed = 1;
+
+    /**
+     * Phases with fewer positions than this get no check for the depth, since the fit can't be trusted.
+     */
+    private int minSamples = 30;
+
+    /**
+     * Searches the positions to every depth.
+     *
+     * @param positions the positions, with a player to move
+     * @return the phase of every position whose player to move has a valid move, followed by its values at depths 1
+     * to the maximum depth
+     */
+    private List<float[]> search(List<BoardPosition> positions) {
+        List<float[]> values = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            float[] positionValues = search(positions.get(i));
+            if (positionValues != null) {
+                values.add(positionValues);
+            }
+
+            if ((i + 1) % Math.max(1, positions.size() / 10) == 0) {
+                Logger.info("Searched " + (i + 1) + " of " + positions.size() + " position(s).");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param position a position
+     * @return the phase of the position followed by its values at depths 1 to the maximum depth, or <code>null</code>
+     * when the player to move has to pass
+     */
+    private float[] search(BoardPosition position) {
+        Game game = ConfigData.getInstance().getCurrentGame();
+        GameManager gameManager = new GameManager(game.createBoardFactory(),
+                game.createMinimaxAIPlayerFactory(), game.createMinimaxAIPlayerFactory());
+        gameManager.initialize();
+
+        try {
+            Board board = gameManager.getBoard();
+            board.setDisableRequestMove(true);
+            board._startFromPosition(position);
+
+            MinimaxAIPlayer player = (MinimaxAIPlayer) board.getCurrentPlayer();
+            if (board.getValidMoves(player).isEmpty()) {
+                return null;
+            }
+
+            // The values have to come from the search ProbCut would prune
+            player.setProbCut(null);
+
+            float[] positionValues = new float[maxDepth + 1];
+            positionValues[0] = OthelloPatternEvaluator.getPhase(((OthelloBoard) board).getPieceCount());
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                // The root is one ply deeper than the depth of its moves
+                positionValues[depth] = player.searchFixedDepth(board, depth - 1).getBestMoveValue();
+            }
+            return positionValues;
+        } finally {
+            gameManager.destroy();
+        }
+    }
+
+    /**
+     * Fits a check for every phase, depth and reduction with enough positions.
+     *
+     * @param values the phase and values of every position, see {@link #search(List)}
+     * @return the parameters
+     */
+    private ProbCut fit(List<float[]> values) {
+        List<ProbCut.Check> checks = new ArrayList<>();
+        for (int phase = 0; phase < OthelloPatternEvaluator.PHASES; phase++) {
+            for (int depth = minDepth; depth <= maxDepth; depth++) {
+                for (int reduction : reductions) {
+                    int shallowDepth = depth - reduction;
+                    if (shallowDepth < 1) {
+                        continue;
+                    }
+
+                    ProbCut.Check check = fit(values, phase, depth, shallowDepth);
+                    if (check != null) {
+                        checks.add(check);
+                    }
+                }
+            }
+        }
+
+        float[] thresholds = new float[OthelloPatternEvaluator.PHASES];
+        Arrays.fill(thresholds, threshold);
+        return new ProbCut(thresholds, checks);
+    }
+
+    /**
+     * Fits the regression of the values at a depth on those at a shallow depth, by least squares.
+     *
+     * @return the check, or <code>null</code> when there are too few positions or the values don't correlate
+     */
+    private ProbCut.Check fit(List<float[]> values, int phase, int depth, int shallowDepth) {
+        int n = 0;
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0, sumYY = 0;
+        for (float[] positionValues : values) {
+            if (positionValues[0] != phase) {
+                continue;
+            }
+            double x = positionValues[shallowDepth];
+            double y = positionValues[depth];
+            n++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            sumYY += y * y;
+        }
+
+        if (n < minSamples) {
+            return null;
+        }
+
+        double covariance = sumXY - sumX * sumY / n;
+        double varianceX = sumXX - sumX * sumX / n;
+        double varianceY = sumYY - sumY * sumY / n;
+        if (varianceX <= 0 || covariance <= 0) {
+            Logger.warning(String.format("Phase %d, depth %d from %d: the values don't correlate, no check.",
+                    phase, depth, shallowDepth));
+            return null;
+        }
+
+        double slope = covariance / varianceX;
+        double intercept = (sumY - slope * sumX) / n;
+        double sigma = Math.sqrt(Math.max(0, varianceY - slope * covariance) / (n - 2));
+        double correlation = covariance / Math.sqrt(varianceX * varianceY);
+
+        Logger.info(String.format("Phase %d, depth %d from %d: %d positions, slope %.3f, intercept %.3f, sigma %.3f, r %.3f.",
+                phase, depth, shallowDepth, n, slope, intercept, sigma, correlation));
+        return new ProbCut.Check(phase, depth, shallowDepth, (float) slope, (float) intercept, (float) sigma);
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        ProbCutCalibrator calibrator = new ProbCutCalibrator();
+        OthelloTuner tuner = new OthelloTuner();
+        int games = 0;
+        List<Path> samplesFiles = new ArrayList<>();
+        Path outFile = Paths.get("othello-probcut.txt");
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games":
+                        games = Integer.parseInt(args[++i]);
+                        break;
+                    case "--from-samples":
+                        samplesFiles.add(Paths.get(args[++i]));
+                        break;
+                    case "--positions":
+                        calibrator.positions = Integer.parseInt(args[++i]);
+                        break;
+                    case "--min-depth":
+                        calibrator.minDepth = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-depth":
+                        calibrator.maxDepth = Integer.parseInt(args[++i]);
+                        break;
+                    case "--reductions": {
+                        String[] parts = args[++i].split(",");
+                        calibrator.reductions = new int[parts.length];
+                        for (int j = 0; j < parts.length; j++) {
+                            calibrator.reductions[j] = Integer.parseInt(parts[j].trim());
+                        }
+                        break;
+                    }
+                    case "--threshold":
+                        calibrator.threshold = Float.parseFloat(args[++i]);
+                        break;
+                    case "--seed":
+                        calibrator.seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--weights":
+                        ConfigData.getInstance().setOthelloWeightsFile(Paths.get(args[++i]).toFile());
+                        break;
+                    case "--network":
+                        ConfigData.getInstance().setOthelloNetworkFile(Paths.get(args[++i]).toFile());
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+
+            if (games == 0 && samplesFiles.isEmpty()) {
+                throw new IllegalArgumentException("Missing the positions: play --games, or read them --from-samples.");
+            }
+            if (calibrator.positions < 1 || calibrator.minDepth < 2 || calibrator.maxDepth < calibrator.minDepth) {
+                throw new IllegalArgumentException("Needs at least 1 position, and depths of at least 2.");
+            }
+            for (int reduction : calibrator.reductions) {
+                if (reduction < 1) {
+                    throw new IllegalArgumentException("Reductions must be positive.");
+                }
+            }
+            if (!(calibrator.threshold >= 0)) {
+                throw new IllegalArgumentException("The threshold can't be negative.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: ProbCutCalibrator [--games <n>] [--from-samples <file>]... [--positions <n>]");
+            System.err.println("                         [--min-depth <n>] [--max-depth <n>] [--reductions <n,...>] [--threshold <x>]");
+            System.err.println("                         [--seed <n>] [--weights <file>] [--network <file>] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+        ConfigData.getInstance().setCurrentGameType(GameType.OTHELLO);
+        ConfigData.getInstance().setAIDifficulty(MinimaxAIPlayer.AIDifficulty.HARD);
+        ConfigData.getInstance().getCurrentGame().setOnline(false);
+
+        List<Sample> samples = new ArrayList<>();
+        for (Path samplesFile : samplesFiles) {
+            samples.addAll(OthelloTuner.readSamples(samplesFile));
+            Logger.info("Read " + samples.size() + " position(s) from " + samplesFile + ".");
+        }
+        if (games > 0) {
+            Logger.info("Playing " + games + " game(s) for positions.");
+            samples.addAll(tuner.playGames(games, 0));
+        }
+
+        List<BoardPosition> positions = new ArrayList<>();
+        for (Sample sample : samples) {
+            positions.add(sample.getPosition());
+        }
+        Collections.shuffle(positions, new Random(calibrator.seed));
+        positions = positions.subList(0, Math.min(calibrator.positions, positions.size()));
+
+        Logger.info("Searching " + positions.size() + " position(s) to depth " + calibrator.maxDepth + ".");
+        ProbCut probCut = calibrator.fit(calibrator.search(positions));
+
+        try (OutputStream out = Files.newOutputStream(outFile)) {
+            probCut.write(out);
+        }
+        Logger.info("Wrote " + probCut + " to " + outFile + ".");
+        Logger.flush();
+        System.exit(0);
+    }
+}
@@ -1,6 +1,5 @@
 package project23.othello;
 
-import javafx.scene.paint.Color;
 import project23.framework.ConfigData;
 import project23.framework.Game;
 import project23.framework.GameManager;
@@ -8,6 +7,7 @@ import project23.framework.GameType;
 import project23.framework.board.Board;
 import project23.framework.player.Player;
 import project23.othello.board.OthelloBoard;
+import project23.othello.player.OthelloMCTSAIPlayer;
 import project23.othello.player.OthelloMinimaxAIPlayer;
 
 import java.net.URL;
@@ -22,10 +22,10 @@ public class OthelloGame extends Game {
     private final List<URL> boardPieceIcons = Arrays.asList(getClass().getResource(
             "/images/boardPieces/othello_black.png"), getClass().getResource("/images/boardPieces/othello_white.png"));
     private final boolean showPiecesCount = true;
-    private final Color colors = Color.rgb(0, 153, 0);
+    private final String colors = "#009900";
 
     @Override
-    public BiFunction<Board, Integer, Player> createAIPlayerFactory() {
+    public BiFunction<Board, Integer, Player> createMinimaxAIPlayerFactory() {
         return (board, id) -> new OthelloMinimaxAIPlayer(
                 board,
                 id,
@@ -33,16 +33,25 @@ public class OthelloGame extends Game {
                 ConfigData.getInstance().getAIDifficulty());
     }
 
+    @Override
+    public BiFunction<Board, Integer, Player> createMCTSAIPlayerFactory() {
+        return (board, id) -> new OthelloMCTSAIPlayer(
+                board,
+                id,
+                Game.AI_NAME,
+                ConfigData.getInstance().getAIDifficulty());
+    }
+
     @Override
     public Function<GameManager, Board> createBoardFactory() {
         return OthelloBoard::new;
     }
 
     /**
-     * @return Color
+     * @return web color
      */
     @Override
-    public Color getBoardBackgroundColor() {
+    public String getBoardBackgroundColor() {
         return colors;
     }
 
@@ -0,0 +1,38 @@
+package project23.othello.board;
+
+/**
+ * State derived from the pieces of an {@link OthelloBoard}, which the board keeps up to date while moves are executed,
+ * like the first layer of a neural network. An evaluator attaches one to a board with
+ * {@link OthelloBoard#setAccumulator(OthelloAccumulator)}, and from then on every clone of the board gets a copy, so
+ * the boards of a search inherit it from the root instead of calculating it again at every node.
+ */
+public abstract class OthelloAccumulator implements Cloneable {
+
+    /**
+     * Calculates the state from scratch.
+     *
+     * @param board the board the accumulator is attached to
+     */
+    public abstract void refresh(OthelloBoard board);
+
+    /**
+     * Updates the state after a square changed owner.
+     *
+     * @param square        the number of the square, <code>x + y * 8</code>
+     * @param previousOwner the ID of the previous owner, or {@link project23.framework.board.BoardPosition#EMPTY}
+     * @param owner         the ID of the new owner
+     */
+    public abstract void changeOwner(int square, int previousOwner, int owner);
+
+    /**
+     * @return A copy of the state, which is updated independently of this one
+     */
+    @Override
+    public OthelloAccumulator clone() {
+        try {
+            return (OthelloAccumulator) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
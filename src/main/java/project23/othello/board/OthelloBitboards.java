@@ -0,0 +1,195 @@
+package project23.othello.board;
+
+/**
+ * Features of an Othello position computed with bit operations on bitboards, which work on all squares at once instead
+ * of looping over the pieces. A bitboard is a <code>long</code> with a bit for every square, bit
+ * <code>x + y * 8</code>, see {@link OthelloBoard#getBitboard(int)}.
+ */
+public final class OthelloBitboards {
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = RANK_1 << 56;
+    private static final long BORDER = FILE_A | FILE_H | RANK_1 | RANK_8;
+
+    /**
+     * The shift of a bitboard one square in every direction, and the squares which can't be reached by it without
+     * wrapping around to the other side of the board.
+     */
+    private static final int[] DIRECTION_SHIFTS = {1, -1, 8, -8, 9, 7, -7, -9};
+    private static final long[] DIRECTION_MASKS = {~FILE_A, ~FILE_H, -1L, -1L, ~FILE_A, ~FILE_H, ~FILE_A, ~FILE_H};
+
+    /**
+     * The squares of every row, column, diagonal and anti-diagonal, to find the lines without empty squares.
+     */
+    private static final long[] ROWS = new long[8];
+    private static final long[] COLUMNS = new long[8];
+    private static final long[] DIAGONALS = new long[15];
+    private static final long[] ANTI_DIAGONALS = new long[15];
+
+    static {
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                long bit = 1L << (x + y * 8);
+                ROWS[y] |= bit;
+                COLUMNS[x] |= bit;
+                DIAGONALS[x - y + 7] |= bit;
+                ANTI_DIAGONALS[x + y] |= bit;
+            }
+        }
+    }
+
+    private OthelloBitboards() {
+    }
+
+    private static long east(long bits) {
+        return (bits << 1) & ~FILE_A;
+    }
+
+    private static long west(long bits) {
+        return (bits >>> 1) & ~FILE_H;
+    }
+
+    private static long north(long bits) {
+        return bits >>> 8;
+    }
+
+    private static long south(long bits) {
+        return bits << 8;
+    }
+
+    /**
+     * @param bits      a bitboard
+     * @param direction the index of the direction in {@link #DIRECTION_SHIFTS}
+     * @return The squares one step further in the direction
+     */
+    private static long shift(long bits, int direction) {
+        int shift = DIRECTION_SHIFTS[direction];
+        return (shift > 0 ? bits << shift : bits >>> -shift) & DIRECTION_MASKS[direction];
+    }
+
+    /**
+     * @param own      the pieces of the player to move
+     * @param opponent the pieces of the opponent
+     * @return The valid moves of the player: the empty squares from which a line of pieces of the opponent ends in a
+     * piece of the player
+     */
+    public static long moves(long own, long opponent) {
+        long empty = ~(own | opponent);
+
+        long moves = 0;
+        for (int direction = 0; direction < DIRECTION_SHIFTS.length; direction++) {
+            // A line of opponent pieces is at most 6 long
+            long line = shift(own, direction) & opponent;
+            for (int i = 0; i < 5; i++) {
+                line |= shift(line, direction) & opponent;
+            }
+            moves |= shift(line, direction) & empty;
+        }
+        return moves;
+    }
+
+    /**
+     * @param own      the pieces of the player to move
+     * @param opponent the pieces of the opponent
+     * @param square   the square of a valid move of the player
+     * @return The pieces of the opponent the move flips
+     */
+    public static long flips(long own, long opponent, int square) {
+        long flips = 0;
+        for (int direction = 0; direction < DIRECTION_SHIFTS.length; direction++) {
+            long line = 0;
+            long next = shift(1L << square, direction);
+            while ((next & opponent) != 0) {
+                line |= next;
+                next = shift(next, direction);
+            }
+            if ((next & own) != 0) {
+                flips |= line;
+            }
+        }
+        return flips;
+    }
+
+    /**
+     * @param bits a bitboard
+     * @return The squares next to any of the squares, including diagonally
+     */
+    public static long neighbours(long bits) {
+        long horizontal = bits | east(bits) | west(bits);
+        return (horizontal | north(horizontal) | south(horizontal)) & ~bits;
+    }
+
+    /**
+     * @param own      the pieces of a player
+     * @param opponent the pieces of the opponent
+     * @return The amount of pieces of the player which are next to an empty square, and can probably be flipped soon
+     */
+    public static int frontier(long own, long opponent) {
+        long empty = ~(own | opponent);
+        return Long.bitCount(own & neighbours(empty));
+    }
+
+    /**
+     * @param own      the pieces of a player
+     * @param opponent the pieces of the opponent
+     * @return The amount of empty squares next to a piece of the opponent, which the player may be able to move to
+     * later on
+     */
+    public static int potentialMobility(long own, long opponent) {
+        long empty = ~(own | opponent);
+        return Long.bitCount(empty & neighbours(opponent));
+    }
+
+    /**
+     * Finds the pieces which can never be flipped again. A piece is stable when, along each of the four lines through
+     * it, the line is full, or the piece has the edge or a stable piece of the same player next to it. This starts at
+     * the corners and grows along the edges and full lines, so it finds anchored corners and full edges, but not
+     * every stable piece.
+     *
+     * @param own      the pieces of a player
+     * @param opponent the pieces of the opponent
+     * @return The stable pieces of the player
+     */
+    public static long stable(long own, long opponent) {
+        long filled = own | opponent;
+        long fullRows = fullLines(filled, ROWS);
+        long fullColumns = fullLines(filled, COLUMNS);
+        long fullDiagonals = fullLines(filled, DIAGONALS);
+        long fullAntiDiagonals = fullLines(filled, ANTI_DIAGONALS);
+
+        long horizontal = fullRows | FILE_A | FILE_H;
+        long vertical = fullColumns | RANK_1 | RANK_8;
+        long diagonal = fullDiagonals | BORDER;
+        long antiDiagonal = fullAntiDiagonals | BORDER;
+
+        long stable = 0;
+        while (true) {
+            long grown = stable | own
+                    & (horizontal | east(stable) | west(stable))
+                    & (vertical | north(stable) | south(stable))
+                    & (diagonal | east(south(stable)) | west(north(stable)))
+                    & (antiDiagonal | east(north(stable)) | west(south(stable)));
+            if (grown == stable) {
+                return stable;
+            }
+            stable = grown;
+        }
+    }
+
+    /**
+     * @param filled the squares which aren't empty
+     * @param lines  the squares of every line in one direction
+     * @return The squares of the lines without empty squares
+     */
+    private static long fullLines(long filled, long[] lines) {
+        long full = 0;
+        for (long line : lines) {
+            if ((filled & line) == line) {
+                full |= line;
+            }
+        }
+        return full;
+    }
+}
@@ -4,6 +4,8 @@ import project23.framework.GameManager;
 import project23.framework.GameType;
 import project23.framework.board.Board;
 import project23.framework.board.BoardPiece;
+import project23.framework.board.BoardPosition;
+import project23.framework.board.BoardSymmetry;
 import project23.framework.player.Player;
 
 import java.util.ArrayList;
@@ -15,6 +17,22 @@ import java.util.List;
  */
 public class OthelloBoard extends Board {
 
+    /**
+     * The index of every {@link OthelloPatterns} instance, once as seen by player 0 and once as seen by player 1. Kept
+     * up to date by every executed move, like the bitboards and the piece count, so evaluating a position doesn't have
+     * to look at all squares.
+     */
+    private int[][] patternIndices;
+    private long[] bitboards;
+    private int pieceCount;
+    // The key of the pieces, without the player to move, see getKey()
+    private long pieceKey;
+
+    /**
+     * The state an evaluator attached to this board, or <code>null</code>.
+     */
+    private OthelloAccumulator accumulator;
+
     /**
      * constructor. calls the constructor of the superclass.
      *
@@ -22,6 +40,7 @@ public class OthelloBoard extends Board {
      */
     public OthelloBoard(GameManager gameManager) {
         super(gameManager, 8, 8);
+        calculateIncrementalState();
     }
 
     /**
@@ -144,7 +163,7 @@ public class OthelloBoard extends Board {
                 changeMoveLine(piece, x, y, asWho);
             }
         }
-        piece.setOwner(asWho);
+        changeOwner(piece, asWho);
     }
 
     /**
@@ -187,9 +206,151 @@ public class OthelloBoard extends Board {
         }
         if (brokeOut) {
             for (BoardPiece boardPiece : templist) {
-                boardPiece.setOwner(asWho);
+                changeOwner(boardPiece, asWho);
+            }
+        }
+    }
+
+    /**
+     * Changes the owner of a piece, and updates the bitboards, the pattern indices of all patterns containing it, the
+     * key and the accumulator.
+     *
+     * @param piece the piece
+     * @param owner the new owner
+     */
+    private void changeOwner(BoardPiece piece, Player owner) {
+        int square = piece.getX() + piece.getY() * width;
+        int[] instances = OthelloPatterns.getSquareInstances(square);
+        int[] powers = OthelloPatterns.getSquarePowers(square);
+        for (int id = 0; id < 2; id++) {
+            int change = patternState(owner, id) - patternState(piece.getOwner(), id);
+            int[] indices = patternIndices[id];
+            for (int i = 0; i < instances.length; i++) {
+                indices[instances[i]] += change * powers[i];
+            }
+        }
+
+        long bit = 1L << square;
+        int previousOwner = BoardPosition.EMPTY;
+        if (piece.hasOwner()) {
+            previousOwner = piece.getOwner().getID();
+            bitboards[previousOwner] &= ~bit;
+            pieceKey ^= BoardSymmetry.squareKey(previousOwner, square);
+        } else {
+            pieceCount++;
+        }
+        bitboards[owner.getID()] |= bit;
+        pieceKey ^= BoardSymmetry.squareKey(owner.getID(), square);
+
+        if (accumulator != null) {
+            accumulator.changeOwner(square, previousOwner, owner.getID());
+        }
+
+        piece.setOwner(owner);
+    }
+
+    /**
+     * @param owner the owner of a square, or <code>null</code>
+     * @param id    the ID of the player the pattern index is for
+     * @return The state of the square in a pattern index, see {@link OthelloPatterns}
+     */
+    private static int patternState(Player owner, int id) {
+        if (owner == null) {
+            return 0;
+        }
+        return owner.getID() == id ? 1 : 2;
+    }
+
+    /**
+     * @param id the ID of a player
+     * @return The index of every {@link OthelloPatterns} instance, as seen by the player. Don't modify the returned
+     * array.
+     */
+    public int[] getPatternIndices(int id) {
+        return patternIndices[id];
+    }
+
+    /**
+     * @param id the ID of a player
+     * @return The pieces of the player as a bitboard, with bit <code>x + y * 8</code> set for every piece, see
+     * {@link OthelloBitboards}
+     */
+    public long getBitboard(int id) {
+        return bitboards[id];
+    }
+
+    /**
+     * @return The key of the position, kept up to date by every executed move
+     */
+    @Override
+    public long getKey() {
+        Player current = getCurrentPlayer();
+        return pieceKey ^ (current == null ? 0 : BoardSymmetry.playerKey(current.getID()));
+    }
+
+    /**
+     * @return The amount of pieces on the board
+     */
+    public int getPieceCount() {
+        return pieceCount;
+    }
+
+    /**
+     * @return The state an evaluator attached to this board, or <code>null</code>
+     */
+    public OthelloAccumulator getAccumulator() {
+        return accumulator;
+    }
+
+    /**
+     * Attaches state which is kept up to date from now on, and copied to every clone of this board.
+     *
+     * @param accumulator the state, which is calculated from scratch first, or <code>null</code> to detach it
+     */
+    public void setAccumulator(OthelloAccumulator accumulator) {
+        if (accumulator != null) {
+            accumulator.refresh(this);
+        }
+        this.accumulator = accumulator;
+    }
+
+    /**
+     * Calculates the pattern indices, the bitboards, the piece count, the key and the accumulator from scratch, after the
+     * pieces were changed without {@link #changeOwner(BoardPiece, Player)}.
+     */
+    private void calculateIncrementalState() {
+        int[][] indices = new int[2][OthelloPatterns.getInstanceCount()];
+        for (int id = 0; id < 2; id++) {
+            for (int instance = 0; instance < indices[id].length; instance++) {
+                int[] squares = OthelloPatterns.getInstanceSquares(instance);
+                int index = 0;
+                for (int k = squares.length - 1; k >= 0; k--) {
+                    index = index * 3 + patternState(pieces[squares[k]].getOwner(), id);
+                }
+                indices[id][instance] = index;
             }
         }
+
+        int count = 0;
+        long[] bits = new long[2];
+        long key = 0;
+        for (int square = 0; square < pieces.length; square++) {
+            if (pieces[square].hasOwner()) {
+                int id = pieces[square].getOwner().getID();
+                count++;
+                bits[id] |= 1L << square;
+                key ^= BoardSymmetry.squareKey(id, square);
+            }
+        }
+
+        pieceCount = count;
+        bitboards = bits;
+        pieceKey = key;
+        patternIndices = indices;
+
+        if (accumulator != null) {
+            accumulator.refresh(this);
+        }
     }
 
     /**
@@ -249,6 +410,35 @@ public class OthelloBoard extends Board {
         getBoardPiece(4, 4).setOwner(gameManager.getOtherPlayer(startPlayer));
         getBoardPiece(3, 4).setOwner(startPlayer);
         getBoardPiece(4, 3).setOwner(startPlayer);
+        calculateIncrementalState();
+    }
+
+    @Override
+    protected void preparePosition() {
+        calculateIncrementalState();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        calculateIncrementalState();
+    }
+
+    /**
+     * makes a clone of this board, including the pattern indices, the bitboards and the accumulator.
+     *
+     * @return Board clone of the board.
+     * @throws CloneNotSupportedException
+     */
+    @Override
+    public Board clone() throws CloneNotSupportedException {
+        OthelloBoard cloned = (OthelloBoard) super.clone();
+        cloned.patternIndices = new int[][]{patternIndices[0].clone(), patternIndices[1].clone()};
+        cloned.bitboards = bitboards.clone();
+        if (accumulator != null) {
+            cloned.accumulator = accumulator.clone();
+        }
+        return cloned;
     }
 
     /**
@@ -0,0 +1,207 @@
+package project23.othello.board;
+
+import project23.framework.board.BoardSymmetry;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The patterns of squares a pattern-based Othello evaluation looks at, like the edges, the corners and the diagonals.
+ * Every pattern type is defined once in the top left corner, and placed on the board once for every rotation and
+ * reflection which covers other squares. These placements are the pattern instances.
+ * <p>
+ * The squares of an instance are indexed in base 3: the k-th square adds <code>state * 3^k</code> to the index, where
+ * the state is 0 for an empty square, 1 for a piece of the player the index is for and 2 for a piece of the opponent.
+ * All instances of a type share their weight table, so an index means the same thing in every corner. The squares
+ * are numbered <code>x + y * 8</code>.
+ */
+public final class OthelloPatterns {
+
+    public static final int SIZE = 8;
+
+    /**
+     * The names of the pattern types.
+     */
+    private static final String[] TYPE_NAMES = {
+            "edge+2x", "corner-3x3", "corner-2x5",
+            "diagonal-8", "diagonal-7", "diagonal-6", "diagonal-5", "diagonal-4",
+            "line-2", "line-3", "line-4"
+    };
+
+    /**
+     * The squares of every pattern type in the top left corner, as {x, y} pairs.
+     */
+    private static final int[][][] TYPE_SHAPES = {
+            {{0, 0}, {1, 0}, {2, 0}, {3, 0}, {4, 0}, {5, 0}, {6, 0}, {7, 0}, {1, 1}, {6, 1}},
+            {{0, 0}, {1, 0}, {2, 0}, {0, 1}, {1, 1}, {2, 1}, {0, 2}, {1, 2}, {2, 2}},
+            {{0, 0}, {1, 0}, {2, 0}, {3, 0}, {4, 0}, {0, 1}, {1, 1}, {2, 1}, {3, 1}, {4, 1}},
+            diagonal(0, 8), diagonal(1, 7), diagonal(2, 6), diagonal(3, 5), diagonal(4, 4),
+            line(1), line(2), line(3)
+    };
+
+    private static final int[] typeLengths = new int[TYPE_SHAPES.length];
+    private static final int[] typeInstanceCounts = new int[TYPE_SHAPES.length];
+
+    private static final int[] instanceTypes;
+    private static final int[][] instanceSquares;
+
+    /**
+     * For every square, the instances which contain it, and the power of 3 of the square in each of them.
+     */
+    private static final int[][] squareInstances = new int[SIZE * SIZE][];
+    private static final int[][] squarePowers = new int[SIZE * SIZE][];
+
+    static {
+        List<Integer> types = new ArrayList<>();
+        List<int[]> squares = new ArrayList<>();
+
+        for (int type = 0; type < TYPE_SHAPES.length; type++) {
+            typeLengths[type] = TYPE_SHAPES[type].length;
+
+            Set<Set<Integer>> placed = new HashSet<>();
+            for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+                int[] instance = new int[TYPE_SHAPES[type].length];
+                Set<Integer> covered = new HashSet<>();
+                for (int k = 0; k < instance.length; k++) {
+                    instance[k] = BoardSymmetry.transform(TYPE_SHAPES[type][k][0], TYPE_SHAPES[type][k][1], SIZE, symmetry);
+                    covered.add(instance[k]);
+                }
+
+                // Mirroring along the pattern itself covers the same squares in another order, skip it.
+                if (placed.add(covered)) {
+                    types.add(type);
+                    squares.add(instance);
+                    typeInstanceCounts[type]++;
+                }
+            }
+        }
+
+        instanceTypes = types.stream().mapToInt(Integer::intValue).toArray();
+        instanceSquares = squares.toArray(new int[0][]);
+
+        List<List<int[]>> perSquare = new ArrayList<>();
+        for (int square = 0; square < SIZE * SIZE; square++) {
+            perSquare.add(new ArrayList<>());
+        }
+        for (int instance = 0; instance < instanceSquares.length; instance++) {
+            int power = 1;
+            for (int square : instanceSquares[instance]) {
+                perSquare.get(square).add(new int[]{instance, power});
+                power *= 3;
+            }
+        }
+        for (int square = 0; square < SIZE * SIZE; square++) {
+            List<int[]> entries = perSquare.get(square);
+            squareInstances[square] = new int[entries.size()];
+            squarePowers[square] = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                squareInstances[square][i] = entries.get(i)[0];
+                squarePowers[square][i] = entries.get(i)[1];
+            }
+        }
+    }
+
+    private OthelloPatterns() {
+    }
+
+    private static int[][] diagonal(int offset, int length) {
+        int[][] shape = new int[length][];
+        for (int i = 0; i < length; i++) {
+            shape[i] = new int[]{i + offset, i};
+        }
+        return shape;
+    }
+
+    private static int[][] line(int row) {
+        int[][] shape = new int[SIZE][];
+        for (int x = 0; x < SIZE; x++) {
+            shape[x] = new int[]{x, row};
+        }
+        return shape;
+    }
+
+    /**
+     * @return The amount of pattern types
+     */
+    public static int getTypeCount() {
+        return TYPE_SHAPES.length;
+    }
+
+    /**
+     * @param type a pattern type
+     * @return The name of the pattern type
+     */
+    public static String getTypeName(int type) {
+        return TYPE_NAMES[type];
+    }
+
+    /**
+     * @param type a pattern type
+     * @return The amount of squares in the pattern type
+     */
+    public static int getTypeLength(int type) {
+        return typeLengths[type];
+    }
+
+    /**
+     * @param type a pattern type
+     * @return The amount of different indices of the pattern type, <code>3^length</code>
+     */
+    public static int getTypeIndexCount(int type) {
+        int count = 1;
+        for (int i = 0; i < typeLengths[type]; i++) {
+            count *= 3;
+        }
+        return count;
+    }
+
+    /**
+     * @param type a pattern type
+     * @return The amount of times the pattern type is placed on the board
+     */
+    public static int getTypeInstanceCount(int type) {
+        return typeInstanceCounts[type];
+    }
+
+    /**
+     * @return The amount of pattern instances on the board
+     */
+    public static int getInstanceCount() {
+        return instanceTypes.length;
+    }
+
+    /**
+     * @param instance a pattern instance
+     * @return The type of the instance
+     */
+    public static int getInstanceType(int instance) {
+        return instanceTypes[instance];
+    }
+
+    /**
+     * @param instance a pattern instance
+     * @return The squares of the instance, in the order of their powers of 3. Don't modify the returned array.
+     */
+    public static int[] getInstanceSquares(int instance) {
+        return instanceSquares[instance];
+    }
+
+    /**
+     * @param square a square
+     * @return The pattern instances which contain the square. Don't modify the returned array.
+     */
+    public static int[] getSquareInstances(int square) {
+        return squareInstances[square];
+    }
+
+    /**
+     * @param square a square
+     * @return The power of 3 of the square in each of the instances of {@link #getSquareInstances(int)}. Don't
+     * modify the returned array.
+     */
+    public static int[] getSquarePowers(int square) {
+        return squarePowers[square];
+    }
+}
@@ -0,0 +1,286 @@
+package project23.othello.board;
+
+import project23.framework.ConfigData;
+import project23.framework.GameManager;
+import project23.framework.GameType;
+import project23.framework.board.Board;
+import project23.framework.board.BoardPiece;
+import project23.framework.board.BoardPosition;
+import project23.framework.player.LocalPlayer;
+import project23.framework.player.Player;
+import project23.framework.player.SearchExecutor;
+import project23.util.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Counts the leaves of the Othello game tree to a fixed depth ("perft"), using the move generation of
+ * {@link OthelloBoard}. The counts of the start position are well known, so this checks that
+ * {@link OthelloBoard#getValidMoves(Player)} and {@link OthelloBoard#_executeMove(Player, BoardPiece)} are correct,
+ * and how fast they are.
+ * <p>
+ * A pass counts as a move: when the player to move has no valid moves but the opponent does, the tree continues with
+ * the opponent to move, one level deeper. A position where neither player can move ends the game, and counts as a
+ * single leaf.
+ */
+public class OthelloPerft {
+
+    /**
+     * The Othello start position, with player 0 to move.
+     */
+    public static final String START_POSITION = "---------------------------OX------XO--------------------------- X";
+
+    /**
+     * The amount of leaves of the start position, indexed by depth.
+     */
+    private static final long[] START_POSITION_COUNTS = {
+            1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L, 212258800L
+    };
+
+    private final BoardPosition position;
+    private final GameManager gameManager;
+    private final Board board;
+
+    /**
+     * @param position the position to count from
+     */
+    public OthelloPerft(BoardPosition position) {
+        this.position = position;
+
+        ConfigData.getInstance().setCurrentGameType(GameType.OTHELLO);
+        gameManager = new GameManager(OthelloBoard::new, LocalPlayer::new, LocalPlayer::new);
+        gameManager.initialize();
+
+        board = gameManager.getBoard();
+        board.setDisableRequestMove(true);
+        board._startFromPosition(position);
+    }
+
+    /**
+     * @param depth the depth
+     * @return The known amount of leaves at the given depth, or -1 when it isn't known
+     */
+    public long getReferenceCount(int depth) {
+        if (!position.equals(BoardPosition.parse(START_POSITION, 8, 8)) || depth >= START_POSITION_COUNTS.length) {
+            return -1;
+        }
+
+        return START_POSITION_COUNTS[depth];
+    }
+
+    /**
+     * Counts the leaves on the calling thread.
+     *
+     * @param depth the depth
+     * @return the amount of leaves
+     */
+    public long count(int depth) {
+        return perft(board, board.getCurrentPlayer(), depth, false);
+    }
+
+    /**
+     * Counts the leaves, with the subtree of every move of the player to move on its own worker thread.
+     *
+     * @param depth the depth
+     * @return the amount of leaves
+     * @throws InterruptedException when interrupted while waiting for the workers
+     * @throws IllegalStateException when counting a subtree failed, with the failure as cause
+     */
+    public long countParallel(int depth) throws InterruptedException {
+        Map<BoardPiece, Board> subtrees = children(board, board.getCurrentPlayer());
+        if (depth <= 1 || subtrees.size() <= 1) {
+            return count(depth);
+        }
+
+        Player next = gameManager.getOtherPlayer(board.getCurrentPlayer());
+        AtomicLong total = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(subtrees.size());
+        for (Board child : subtrees.values()) {
+            Runnable task = () -> {
+                try {
+                    total.addAndGet(perft(child, next, depth - 1, false));
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    done.countDown();
+                }
+            };
+            if (!SearchExecutor.getInstance().submit(task)) {
+                // We're not on an event loop, so just count it ourselves.
+                task.run();
+            }
+        }
+
+        done.await();
+        if (failure.get() != null) {
+            throw new IllegalStateException("Counting a subtree failed!", failure.get());
+        }
+        return total.get();
+    }
+
+    /**
+     * Counts the leaves below every move of the player to move separately, which helps to find the move where
+     * the counts start to differ from another implementation.
+     *
+     * @param depth the depth, at least 1
+     * @return the amount of leaves per move, in the order of the valid moves
+     */
+    public Map<BoardPiece, Long> divide(int depth) {
+        Player next = gameManager.getOtherPlayer(board.getCurrentPlayer());
+
+        Map<BoardPiece, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<BoardPiece, Board> child : children(board, board.getCurrentPlayer()).entrySet()) {
+            counts.put(child.getKey(), perft(child.getValue(), next, depth - 1, false));
+        }
+        return counts;
+    }
+
+    /**
+     * Destroys the game manager the board belongs to.
+     */
+    public void destroy() {
+        gameManager.destroy();
+    }
+
+    private long perft(Board board, Player toMove, int depth, boolean passed) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        List<BoardPiece> moves = board.getValidMoves(toMove);
+        Player next = gameManager.getOtherPlayer(toMove);
+
+        if (moves.isEmpty()) {
+            if (passed) {
+                // Neither player can move, the game is over
+                return 1;
+            }
+
+            // Pass. At the last level, the pass itself is the only leaf.
+            return depth == 1 ? 1 : perft(board, next, depth - 1, true);
+        }
+
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long leaves = 0;
+        for (BoardPiece move : moves) {
+            leaves += perft(play(board, toMove, move), next, depth - 1, false);
+        }
+        return leaves;
+    }
+
+    private Map<BoardPiece, Board> children(Board board, Player toMove) {
+        Map<BoardPiece, Board> children = new LinkedHashMap<>();
+        for (BoardPiece move : board.getValidMoves(toMove)) {
+            children.put(move, play(board, toMove, move));
+        }
+        return children;
+    }
+
+    private static Board play(Board board, Player toMove, BoardPiece move) {
+        Board child;
+        try {
+            child = board.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+
+        child._executeMove(toMove, child.getBoardPiece(move.getX(), move.getY()));
+        return child;
+    }
+
+    /**
+     * @param reference the expected amount of leaves, or -1 when unknown
+     * @param leaves    the counted amount of leaves
+     * @return Whether the count is right, for the output
+     */
+    private static String formatCheck(long reference, long leaves) {
+        if (reference < 0) {
+            return "";
+        }
+        return reference == leaves ? "OK" : String.format("MISMATCH, expected %,d", reference);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int depth = 8;
+        String positionText = START_POSITION;
+        boolean parallel = false;
+        boolean divide = false;
+        long expected = -1;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--depth":
+                        depth = Integer.parseInt(args[++i]);
+                        break;
+                    case "--position":
+                        positionText = args[++i];
+                        break;
+                    case "--expect":
+                        expected = Long.parseLong(args[++i]);
+                        break;
+                    case "--parallel":
+                        parallel = true;
+                        break;
+                    case "--divide":
+                        divide = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: OthelloPerft [--depth <n>] [--position \"<position>\"] [--expect <leaves>] [--parallel] [--divide]");
+            System.err.println("  A position is written like " + START_POSITION);
+            System.exit(2);
+            return;
+        }
+
+        Logger.setLevel(Logger.Level.INFO);
+
+        OthelloPerft perft = new OthelloPerft(BoardPosition.parse(positionText, 8, 8));
+        Logger.info("Perft of " + positionText + (parallel ? ", on " + ConfigData.getInstance().getSearchParallelism() + " thread(s)" : "") + ":");
+
+        boolean allCorrect = true;
+        if (divide) {
+            long total = 0;
+            for (Map.Entry<BoardPiece, Long> entry : perft.divide(depth).entrySet()) {
+                BoardPiece move = entry.getKey();
+                Logger.info(String.format("  %s  %,d", move.getCoordinate(), entry.getValue()));
+                total += entry.getValue();
+            }
+
+            long reference = expected >= 0 ? expected : perft.getReferenceCount(depth);
+            allCorrect = reference < 0 || reference == total;
+            Logger.info(String.format("  total  %,d  %s", total, formatCheck(reference, total)));
+        } else {
+            for (int d = 1; d <= depth; d++) {
+                long start = System.nanoTime();
+                long leaves = parallel ? perft.countParallel(d) : perft.count(d);
+                long nanos = System.nanoTime() - start;
+
+                long reference = d == depth && expected >= 0 ? expected : perft.getReferenceCount(d);
+                if (reference >= 0 && reference != leaves) {
+                    allCorrect = false;
+                }
+
+                Logger.info(String.format("  depth %2d  %,15d leaves  %,9.1fms  %,13.0f leaves/s  %s",
+                        d, leaves, nanos / 1e6, leaves / (nanos / 1e9), formatCheck(reference, leaves)));
+            }
+        }
+
+        perft.destroy();
+        Logger.flush();
+        System.exit(allCorrect ? 0 : 1);
+    }
+}
@@ -0,0 +1,81 @@
+package project23.othello.board;
+
+import project23.framework.player.Player;
+import project23.framework.player.PlayoutPosition;
+
+/**
+ * An Othello position for the MCTS playouts: just the bitboards of both players and the player to move, so copying
+ * it is nearly free and the moves are found with {@link OthelloBitboards}.
+ */
+public class OthelloPlayoutPosition implements PlayoutPosition {
+
+    private final long[] bitboards;
+    private int toMove;
+
+    private OthelloPlayoutPosition(long[] bitboards, int toMove) {
+        this.bitboards = bitboards;
+        this.toMove = toMove;
+    }
+
+    /**
+     * @param board  the board
+     * @param toMove the player to move
+     * @return The position of the board
+     */
+    public static OthelloPlayoutPosition of(OthelloBoard board, Player toMove) {
+        return new OthelloPlayoutPosition(new long[]{board.getBitboard(0), board.getBitboard(1)}, toMove.getID());
+    }
+
+    @Override
+    public PlayoutPosition copy() {
+        return new OthelloPlayoutPosition(bitboards.clone(), toMove);
+    }
+
+    @Override
+    public int getPlayerToMove() {
+        return toMove;
+    }
+
+    @Override
+    public int getValidMoves(int[] moves) {
+        long valid = OthelloBitboards.moves(bitboards[toMove], bitboards[1 - toMove]);
+
+        int count = 0;
+        while (valid != 0) {
+            moves[count++] = Long.numberOfTrailingZeros(valid);
+            valid &= valid - 1;
+        }
+        return count;
+    }
+
+    @Override
+    public void play(int move) {
+        if (move != PASS) {
+            long flips = OthelloBitboards.flips(bitboards[toMove], bitboards[1 - toMove], move);
+            bitboards[toMove] |= flips | 1L << move;
+            bitboards[1 - toMove] &= ~flips;
+        }
+
+        toMove = 1 - toMove;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return OthelloBitboards.moves(bitboards[0], bitboards[1]) == 0 &&
+                OthelloBitboards.moves(bitboards[1], bitboards[0]) == 0;
+    }
+
+    @Override
+    public int getWinner() {
+        int difference = Long.bitCount(bitboards[0]) - Long.bitCount(bitboards[1]);
+        return difference > 0 ? 0 : difference < 0 ? 1 : DRAW;
+    }
+
+    /**
+     * @param id the ID of a player
+     * @return The pieces of the player, see {@link OthelloBoard#getBitboard(int)}
+     */
+    public long getBitboard(int id) {
+        return bitboards[id];
+    }
+}
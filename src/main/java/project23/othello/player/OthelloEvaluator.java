@@ -0,0 +1,75 @@
+package project23.othello.player;
+
+import project23.framework.ConfigData;
+import project23.othello.board.OthelloBoard;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates Othello positions for the {@link OthelloMinimaxAIPlayer}, in pieces: a value estimates by how many pieces
+ * a player will be ahead at the end of the game. The AI players use the {@link OthelloNetworkEvaluator} when
+ * {@link ConfigData#getOthelloNetworkFile()} is set, and the {@link OthelloPatternEvaluator} otherwise.
+ */
+public abstract class OthelloEvaluator {
+
+    /**
+     * One in this many evaluations is timed, so timing doesn't slow down every evaluation. They are picked at
+     * random, so the search workers sharing an evaluator don't share a counter.
+     */
+    private static final int TIMING_INTERVAL = 256;
+
+    private final LongAdder timedEvaluations = new LongAdder();
+    private final LongAdder timedNanos = new LongAdder();
+
+    /**
+     * @return The network evaluator when a network file is configured and can be loaded, or else the pattern
+     * evaluator
+     */
+    public static OthelloEvaluator getDefault() {
+        OthelloEvaluator network = OthelloNetworkEvaluator.getDefault();
+        return network != null ? network : OthelloPatternEvaluator.getDefault();
+    }
+
+    /**
+     * Called before a search starts at the board, so the evaluator can attach state to it which all boards of the
+     * search inherit, see {@link OthelloBoard#setAccumulator(project23.othello.board.OthelloAccumulator)}.
+     *
+     * @param root the board the search starts at
+     */
+    public void prepare(OthelloBoard root) {
+    }
+
+    /**
+     * @param board the board
+     * @param id    the ID of the player to evaluate the board for
+     * @return By how many pieces the player is expected to be ahead at the end of the game
+     */
+    public final float evaluate(OthelloBoard board, int id) {
+        if (ThreadLocalRandom.current().nextInt(TIMING_INTERVAL) != 0) {
+            return evaluateUntimed(board, id);
+        }
+
+        long start = System.nanoTime();
+        float value = evaluateUntimed(board, id);
+        timedNanos.add(System.nanoTime() - start);
+        timedEvaluations.increment();
+        return value;
+    }
+
+    /**
+     * @param board the board
+     * @param id    the ID of the player to evaluate the board for
+     * @return By how many pieces the player is expected to be ahead at the end of the game
+     */
+    protected abstract float evaluateUntimed(OthelloBoard board, int id);
+
+    /**
+     * @return The average time an evaluation took in nanoseconds, measured on one in {@value #TIMING_INTERVAL}
+     * evaluations, or {@link Double#NaN} when none was timed yet
+     */
+    public double getNanosPerEvaluation() {
+        long evaluations = timedEvaluations.sum();
+        return evaluations == 0 ? Double.NaN : (double) timedNanos.sum() / evaluations;
+    }
+}
@@ -0,0 +1,54 @@
+package project23.othello.player;
+
+import project23.framework.board.Board;
+import project23.framework.player.MCTSAIPlayer;
+import project23.framework.player.MinimaxAIPlayer;
+import project23.framework.player.Player;
+import project23.framework.player.PlayoutPosition;
+import project23.othello.board.OthelloBoard;
+import project23.othello.board.OthelloPlayoutPosition;
+
+import java.util.Random;
+
+public class OthelloMCTSAIPlayer extends MCTSAIPlayer {
+
+    private static final long CORNERS = 0x8100000000000081L;
+    // The squares diagonally next to a corner
+    private static final long X_SQUARES = 0x0042000000004200L;
+
+    public OthelloMCTSAIPlayer(Board board, int id, String name, MinimaxAIPlayer.AIDifficulty difficulty) {
+        super(board, id, name, difficulty);
+    }
+
+    public OthelloMCTSAIPlayer(Board board, int id, MinimaxAIPlayer.AIDifficulty difficulty) {
+        super(board, id, difficulty);
+    }
+
+    /**
+     * Plays on the bitboards of the board only, see {@link OthelloPlayoutPosition}.
+     */
+    @Override
+    protected PlayoutPosition createPlayoutPosition(Board board, Player toMove) {
+        return OthelloPlayoutPosition.of((OthelloBoard) board, toMove);
+    }
+
+    /**
+     * Lightly biased playouts: a corner is always taken, and a square diagonally next to a corner (which often gives
+     * the corner away) is picked half as often as the other moves.
+     */
+    @Override
+    protected int choosePlayoutMove(PlayoutPosition position, int[] moves, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            if ((CORNERS & 1L << moves[i]) != 0) {
+                return moves[i];
+            }
+        }
+
+        int move = moves[random.nextInt(count)];
+        if ((X_SQUARES & 1L << move) != 0) {
+            // Pick again once, so the square is played half as often
+            move = moves[random.nextInt(count)];
+        }
+        return move;
+    }
+}
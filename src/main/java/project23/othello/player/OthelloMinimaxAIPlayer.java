@@ -1,62 +1,125 @@
 package project23.othello.player;
 
+import project23.framework.ConfigData;
 import project23.framework.board.Board;
 import project23.framework.player.MinimaxAIPlayer;
-import project23.framework.player.Player;
+import project23.framework.player.ProbCut;
+import project23.othello.board.OthelloBoard;
+import project23.util.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 public class OthelloMinimaxAIPlayer extends MinimaxAIPlayer {
 
     /**
-     * Weights for every project23.othello piece.
-     * https://github.com/Jules-Lion/kurwa/blob/master/Dokumentation/An%20Analysis%20of%20Heuristics%20in%20Othello.pdf
-     * The weight matrix is extract from the paper called "An Analysis of Heuristic in Othello"
+     * The evaluation is in pieces, but the search expects values around -2 (losing) to 2 (winning), so this many
+     * pieces make a point.
+     */
+    public static final float PIECES_PER_POINT = 32;
+
+    /**
+     * Positions with more pieces than this are hardly ever symmetric, so the search stops looking for symmetries.
+     */
+    private static final int SYMMETRY_PIECE_LIMIT = 8;
+
+    /**
+     * The ProbCut parameters shipped with the game, calibrated for the default evaluation by the
+     * {@link project23.headless.ProbCutCalibrator}.
      */
-    private static final float[][] PIECE_WEIGHTS = {
-            {4, -3, 2, 2, 2, 2, -3, 4},
-            {-3, -4, -1, -1, -1, -1, -4, -3},
-            {2, -1, 1, 0, 0, 1, -1, 2},
-            {2, -1, 0, 1, 1, 0, -1, 2},
-            {2, -1, 0, 1, 1, 0, -1, 2},
-            {2, -1, 1, 0, 0, 1, -1, 2},
-            {-3, -4, -1, -1, -1, -1, -4, -3},
-            {4, -3, 2, 2, 2, 2, -3, 4}
-    };
+    public static final String PROBCUT_RESOURCE = "/othello/probcut.txt";
+
+    private static ProbCut defaultProbCut;
+    private static boolean defaultProbCutLoaded;
+
+    private final OthelloEvaluator evaluator;
 
     public OthelloMinimaxAIPlayer(Board board, int id, String name, AIDifficulty difficulty) {
+        this(board, id, name, difficulty, OthelloEvaluator.getDefault());
+    }
+
+    /**
+     * @param evaluator evaluates the positions of the searches, instead of {@link OthelloEvaluator#getDefault()}
+     */
+    public OthelloMinimaxAIPlayer(Board board, int id, String name, AIDifficulty difficulty, OthelloEvaluator evaluator) {
         super(board, id, name, difficulty);
+        this.evaluator = evaluator;
+        setProbCut(getDefaultProbCut());
     }
 
     public OthelloMinimaxAIPlayer(Board board, int id, AIDifficulty difficulty) {
         super(board, id, difficulty);
+        this.evaluator = OthelloEvaluator.getDefault();
+        setProbCut(getDefaultProbCut());
     }
 
-    @Override
-    protected float evaluateBoard(Board board, int treeDepth) {
-        int selfPieces = 0, otherPieces = 0;
-        for (int x = 0; x < 8; x++) {
-            for (int y = 0; y < 8; y++) {
-                Player owner = board.getBoardPiece(x, y).getOwner();
-                if (owner == this) {
-                    selfPieces += PIECE_WEIGHTS[x][y];
-                } else if (owner != null) {
-                    otherPieces += PIECE_WEIGHTS[x][y];
-                }
+    /**
+     * @return The ProbCut parameters from the configured file or else the ones shipped with the game, loaded when
+     * they're first needed, or <code>null</code> when ProbCut is disabled or no parameters could be loaded
+     */
+    public static synchronized ProbCut getDefaultProbCut() {
+        if (!ConfigData.getInstance().isProbCutEnabled()) {
+            return null;
+        }
+        if (!defaultProbCutLoaded) {
+            defaultProbCut = loadProbCut();
+            defaultProbCutLoaded = true;
+        }
+        return defaultProbCut;
+    }
+
+    private static ProbCut loadProbCut() {
+        File file = ConfigData.getInstance().getOthelloProbCutFile();
+        if (file != null) {
+            try (InputStream in = new FileInputStream(file)) {
+                ProbCut probCut = ProbCut.read(in);
+                Logger.info("Loaded the Othello ProbCut parameters from " + file + ".");
+                return probCut;
+            } catch (IOException e) {
+                Logger.error("Couldn't load the Othello ProbCut parameters from " + file + ": " + e.getMessage());
             }
         }
 
-        float value = 0;
-        if (selfPieces + otherPieces != 0) {
-            value = (float) (selfPieces - otherPieces) / (selfPieces + otherPieces);
+        try (InputStream in = OthelloMinimaxAIPlayer.class.getResourceAsStream(PROBCUT_RESOURCE)) {
+            if (in != null) {
+                return ProbCut.read(in);
+            }
+        } catch (IOException e) {
+            Logger.error("Couldn't load the shipped Othello ProbCut parameters: " + e.getMessage());
         }
 
-        selfPieces += board.getValidMoves(this).size();
-        otherPieces += board.getValidMoves(board.getGameManager().getOtherPlayer(this)).size();
+        Logger.info("Searching Othello positions without ProbCut.");
+        return null;
+    }
 
-        if (selfPieces + otherPieces != 0) {
-            value += (float) (selfPieces - otherPieces) / (selfPieces + otherPieces);
-        }
+    @Override
+    protected void prepareSearch(Board root) {
+        evaluator.prepare((OthelloBoard) root);
+    }
 
-        return value;
+    /**
+     * The phases of the evaluation, see {@link OthelloPatternEvaluator#getPhase(int)}.
+     */
+    @Override
+    protected int getPhase(Board board) {
+        return OthelloPatternEvaluator.getPhase(((OthelloBoard) board).getPieceCount());
+    }
+
+    @Override
+    protected boolean isSymmetryWorthChecking(Board board) {
+        return ((OthelloBoard) board).getPieceCount() <= SYMMETRY_PIECE_LIMIT;
+    }
+
+    @Override
+    protected float evaluateBoard(Board board, int treeDepth) {
+        return evaluator.evaluate((OthelloBoard) board, getID()) / PIECES_PER_POINT;
+    }
+
+    @Override
+    public double getEvaluationNanos() {
+        return evaluator.getNanosPerEvaluation();
     }
 
     @Override
@@ -0,0 +1,375 @@
+package project23.othello.player;
+
+import project23.framework.ConfigData;
+import project23.framework.board.BoardPosition;
+import project23.othello.board.OthelloAccumulator;
+import project23.othello.board.OthelloBoard;
+import project23.othello.board.OthelloPatterns;
+import project23.util.Logger;
+
+import java.io.*;
+
+/**
+ * Evaluates Othello positions with a small quantized neural network, in the style of NNUE. The network has an input
+ * for every square and whose piece is on it, a hidden layer and an output per phase of the game:
+ * <ol>
+ *     <li>the hidden layer is calculated once for each player, with that player's pieces on the first 64 inputs and
+ *     the opponent's on the last 64. These sums are kept in an {@link OthelloAccumulator} which the board updates
+ *     while moves are executed, so a move only adds and subtracts a few rows of weights.</li>
+ *     <li>the sums are clipped to <code>[0, 1]</code>, and the output of the phase
+ *     ({@link OthelloPatternEvaluator#getPhase(int)}) adds them up with a weight each, those of the player to
+ *     evaluate for first.</li>
+ * </ol>
+ * All of it is integer arithmetic: the hidden weights and sums are <code>short</code>s scaled by {@value #QA}, the
+ * output weights are <code>byte</code>s scaled by {@value #QB}, and the output is an <code>int</code>. The value is in
+ * pieces, like the value of the {@link OthelloPatternEvaluator}.
+ * <p>
+ * Networks are trained by the {@link project23.headless.OthelloNetworkTrainer}, which writes them to a network file,
+ * see {@link #write(OutputStream)}. The AI players load it from {@link ConfigData#getOthelloNetworkFile()}.
+ */
+public class OthelloNetworkEvaluator extends OthelloEvaluator {
+
+    private static final int SQUARES = OthelloPatterns.SIZE * OthelloPatterns.SIZE;
+    public static final int INPUTS = 2 * SQUARES;
+
+    /**
+     * The scale of the hidden weights and sums, and so the value of a hidden sum which is clipped to 1.
+     */
+    public static final int QA = 127;
+
+    /**
+     * The scale of the output weights.
+     */
+    public static final int QB = 64;
+
+    /**
+     * The largest hidden weight or bias. With at most 64 pieces on the board, the hidden sums stay far enough from
+     * the limits of a <code>short</code>.
+     */
+    public static final float MAX_HIDDEN_WEIGHT = 2;
+
+    /**
+     * The largest output weight, so it fits in a <code>byte</code>.
+     */
+    public static final float MAX_OUTPUT_WEIGHT = (float) Byte.MAX_VALUE / QB;
+
+    /**
+     * The output of the network times this many pieces is the evaluation.
+     */
+    public static final float PIECES_PER_OUTPUT = 32;
+
+    /**
+     * The amount of outputs, one per phase of the game.
+     */
+    public static final int OUTPUTS = OthelloPatternEvaluator.PHASES;
+
+    /**
+     * The first bytes of a network file: "ONN" and the version of the format.
+     */
+    private static final int NETWORK_MAGIC = 0x4F4E4E01;
+
+    private static OthelloNetworkEvaluator defaultEvaluator;
+    private static boolean defaultLoaded;
+
+    private final int hiddenSize;
+    private final short[] hiddenBiases;
+    private final short[] hiddenWeights;
+    private final int[] outputBiases;
+    private final byte[][] outputWeights;
+
+    /**
+     * @param hiddenBiases  the bias of every hidden neuron, scaled by {@link #QA}
+     * @param hiddenWeights the weights from every input to every hidden neuron, by input and then neuron, scaled by
+     *                      {@link #QA}
+     * @param outputBiases  the bias of every output, scaled by {@link #QA} and {@link #QB}
+     * @param outputWeights the weights of every output, from the hidden neurons of the player to evaluate for and
+     *                      then those of the opponent, scaled by {@link #QB}
+     */
+    public OthelloNetworkEvaluator(short[] hiddenBiases, short[] hiddenWeights, int[] outputBiases, byte[][] outputWeights) {
+        int hiddenSize = hiddenBiases.length;
+        if (hiddenSize == 0 || hiddenWeights.length != INPUTS * hiddenSize) {
+            throw new IllegalArgumentException("Expected " + INPUTS + " * " + hiddenSize + " hidden weights, got " + hiddenWeights.length + ".");
+        }
+        if (outputBiases.length != OUTPUTS || outputWeights.length != OUTPUTS) {
+            throw new IllegalArgumentException("Expected " + OUTPUTS + " outputs, got " + outputBiases.length + " and " + outputWeights.length + ".");
+        }
+        for (byte[] weights : outputWeights) {
+            if (weights.length != 2 * hiddenSize) {
+                throw new IllegalArgumentException("Expected " + 2 * hiddenSize + " output weights, got " + weights.length + ".");
+            }
+        }
+
+        int limit = Math.round(MAX_HIDDEN_WEIGHT * QA);
+        for (short[] weights : new short[][]{hiddenBiases, hiddenWeights}) {
+            for (short weight : weights) {
+                if (Math.abs(weight) > limit) {
+                    throw new IllegalArgumentException("Hidden weight " + weight + " is larger than " + limit + ".");
+                }
+            }
+        }
+
+        this.hiddenSize = hiddenSize;
+        this.hiddenBiases = hiddenBiases;
+        this.hiddenWeights = hiddenWeights;
+        this.outputBiases = outputBiases;
+        this.outputWeights = outputWeights;
+    }
+
+    /**
+     * Quantizes a network trained with floating point weights. The float network clips its hidden sums to
+     * <code>[0, 1]</code> and its output times {@link #PIECES_PER_OUTPUT} is the evaluation.
+     *
+     * @param hiddenBiases  the bias of every hidden neuron
+     * @param hiddenWeights the weights from every input to every hidden neuron, by input and then neuron
+     * @param outputBiases  the bias of every output
+     * @param outputWeights the weights of every output, from the hidden neurons of the player to evaluate for and
+     *                      then those of the opponent
+     * @return The network, with the weights rounded and limited to {@link #MAX_HIDDEN_WEIGHT} and
+     * {@link #MAX_OUTPUT_WEIGHT}
+     */
+    public static OthelloNetworkEvaluator quantize(float[] hiddenBiases, float[] hiddenWeights, float[] outputBiases,
+                                                   float[][] outputWeights) {
+        short[] quantizedHiddenBiases = new short[hiddenBiases.length];
+        for (int i = 0; i < hiddenBiases.length; i++) {
+            quantizedHiddenBiases[i] = (short) Math.round(clamp(hiddenBiases[i], MAX_HIDDEN_WEIGHT) * QA);
+        }
+        short[] quantizedHiddenWeights = new short[hiddenWeights.length];
+        for (int i = 0; i < hiddenWeights.length; i++) {
+            quantizedHiddenWeights[i] = (short) Math.round(clamp(hiddenWeights[i], MAX_HIDDEN_WEIGHT) * QA);
+        }
+
+        int[] quantizedOutputBiases = new int[outputBiases.length];
+        byte[][] quantizedOutputWeights = new byte[outputWeights.length][];
+        for (int output = 0; output < outputWeights.length; output++) {
+            quantizedOutputBiases[output] = Math.round(outputBiases[output] * QA * QB);
+            quantizedOutputWeights[output] = new byte[outputWeights[output].length];
+            for (int i = 0; i < outputWeights[output].length; i++) {
+                quantizedOutputWeights[output][i] = (byte) Math.round(clamp(outputWeights[output][i], MAX_OUTPUT_WEIGHT) * QB);
+            }
+        }
+
+        return new OthelloNetworkEvaluator(quantizedHiddenBiases, quantizedHiddenWeights, quantizedOutputBiases,
+                quantizedOutputWeights);
+    }
+
+    private static float clamp(float value, float limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    /**
+     * @return The evaluator from the configured network file, loaded when it's first needed, or <code>null</code>
+     * when no network file is configured or it couldn't be loaded
+     */
+    public static synchronized OthelloNetworkEvaluator getDefault() {
+        if (!defaultLoaded) {
+            defaultEvaluator = load();
+            defaultLoaded = true;
+        }
+        return defaultEvaluator;
+    }
+
+    /**
+     * @param evaluator the evaluator AI players created after calling this use, or <code>null</code> to use the
+     *                  {@link OthelloPatternEvaluator}
+     */
+    public static synchronized void setDefault(OthelloNetworkEvaluator evaluator) {
+        defaultEvaluator = evaluator;
+        defaultLoaded = true;
+    }
+
+    private static OthelloNetworkEvaluator load() {
+        File file = ConfigData.getInstance().getOthelloNetworkFile();
+        if (file == null) {
+            return null;
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            OthelloNetworkEvaluator evaluator = read(in);
+            Logger.info("Loaded the Othello evaluation network from " + file + ", with " + evaluator.hiddenSize
+                    + " hidden neurons.");
+            return evaluator;
+        } catch (IOException e) {
+            Logger.error("Couldn't load the Othello evaluation network from " + file + ", evaluating with the weights instead: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a network written by {@link #write(OutputStream)}.
+     *
+     * @param in the stream to read from, which is not closed
+     * @return The evaluator with the network
+     * @throws IOException when the network couldn't be read, or doesn't fit the inputs and outputs
+     */
+    public static OthelloNetworkEvaluator read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != NETWORK_MAGIC) {
+            throw new IOException("Not an Othello network file.");
+        }
+
+        int inputs = data.readInt();
+        int hiddenSize = data.readInt();
+        int outputs = data.readInt();
+        if (inputs != INPUTS || outputs != OUTPUTS || hiddenSize <= 0) {
+            throw new IOException("The network has " + inputs + " inputs, " + hiddenSize + " hidden neurons and "
+                    + outputs + " outputs, expected " + INPUTS + ", a positive amount and " + OUTPUTS + ".");
+        }
+
+        short[] hiddenBiases = new short[hiddenSize];
+        for (int i = 0; i < hiddenSize; i++) {
+            hiddenBiases[i] = data.readShort();
+        }
+        short[] hiddenWeights = new short[INPUTS * hiddenSize];
+        for (int i = 0; i < hiddenWeights.length; i++) {
+            hiddenWeights[i] = data.readShort();
+        }
+
+        int[] outputBiases = new int[outputs];
+        byte[][] outputWeights = new byte[outputs][2 * hiddenSize];
+        for (int output = 0; output < outputs; output++) {
+            outputBiases[output] = data.readInt();
+            data.readFully(outputWeights[output]);
+        }
+
+        try {
+            return new OthelloNetworkEvaluator(hiddenBiases, hiddenWeights, outputBiases, outputWeights);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the network as a header with the amount of inputs, hidden neurons and outputs, followed by the hidden
+     * biases, the hidden weights, and the bias and weights of every output.
+     *
+     * @param out the stream to write to, which is not closed
+     * @throws IOException when the network couldn't be written
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(NETWORK_MAGIC);
+        data.writeInt(INPUTS);
+        data.writeInt(hiddenSize);
+        data.writeInt(OUTPUTS);
+        for (short bias : hiddenBiases) {
+            data.writeShort(bias);
+        }
+        for (short weight : hiddenWeights) {
+            data.writeShort(weight);
+        }
+        for (int output = 0; output < OUTPUTS; output++) {
+            data.writeInt(outputBiases[output]);
+            data.write(outputWeights[output]);
+        }
+        data.flush();
+    }
+
+    /**
+     * @param square      the number of a square
+     * @param owner       the ID of the owner of the square
+     * @param perspective the ID of the player the hidden sums are for
+     * @return The input which is 1 when the owner has a piece on the square
+     */
+    private static int input(int square, int owner, int perspective) {
+        return owner == perspective ? square : SQUARES + square;
+    }
+
+    /**
+     * Attaches an accumulator to the root, unless it already has one of this network.
+     */
+    @Override
+    public void prepare(OthelloBoard root) {
+        if (!isOwnAccumulator(root.getAccumulator())) {
+            root.setAccumulator(new Accumulator());
+        }
+    }
+
+    private boolean isOwnAccumulator(OthelloAccumulator accumulator) {
+        return accumulator instanceof Accumulator && ((Accumulator) accumulator).getEvaluator() == this;
+    }
+
+    @Override
+    protected float evaluateUntimed(OthelloBoard board, int id) {
+        OthelloAccumulator accumulator = board.getAccumulator();
+        if (!isOwnAccumulator(accumulator)) {
+            // Not searched from a prepared root, so calculate the hidden sums from scratch
+            accumulator = new Accumulator();
+            accumulator.refresh(board);
+        }
+        short[][] sums = ((Accumulator) accumulator).sums;
+        short[] own = sums[id];
+        short[] opponent = sums[1 - id];
+
+        int phase = OthelloPatternEvaluator.getPhase(board.getPieceCount());
+        byte[] weights = outputWeights[phase];
+        int output = outputBiases[phase];
+        for (int i = 0; i < hiddenSize; i++) {
+            output += clip(own[i]) * weights[i] + clip(opponent[i]) * weights[hiddenSize + i];
+        }
+        return output * (PIECES_PER_OUTPUT / (QA * QB));
+    }
+
+    private static int clip(short sum) {
+        return Math.max(0, Math.min(QA, sum));
+    }
+
+    /**
+     * @return The amount of hidden neurons
+     */
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    /**
+     * The hidden sums of both players, by player ID.
+     */
+    private class Accumulator extends OthelloAccumulator {
+
+        private short[][] sums = new short[2][hiddenSize];
+
+        private OthelloNetworkEvaluator getEvaluator() {
+            return OthelloNetworkEvaluator.this;
+        }
+
+        @Override
+        public void refresh(OthelloBoard board) {
+            for (int perspective = 0; perspective < 2; perspective++) {
+                short[] perspectiveSums = sums[perspective];
+                System.arraycopy(hiddenBiases, 0, perspectiveSums, 0, hiddenSize);
+                for (int owner = 0; owner < 2; owner++) {
+                    for (long bits = board.getBitboard(owner); bits != 0; bits &= bits - 1) {
+                        int row = input(Long.numberOfTrailingZeros(bits), owner, perspective) * hiddenSize;
+                        for (int i = 0; i < hiddenSize; i++) {
+                            perspectiveSums[i] += hiddenWeights[row + i];
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void changeOwner(int square, int previousOwner, int owner) {
+            for (int perspective = 0; perspective < 2; perspective++) {
+                short[] perspectiveSums = sums[perspective];
+                int added = input(square, owner, perspective) * hiddenSize;
+                if (previousOwner == BoardPosition.EMPTY) {
+                    for (int i = 0; i < hiddenSize; i++) {
+                        perspectiveSums[i] += hiddenWeights[added + i];
+                    }
+                } else {
+                    int removed = input(square, previousOwner, perspective) * hiddenSize;
+                    for (int i = 0; i < hiddenSize; i++) {
+                        perspectiveSums[i] += hiddenWeights[added + i] - hiddenWeights[removed + i];
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Accumulator clone() {
+            Accumulator cloned = (Accumulator) super.clone();
+            cloned.sums = new short[][]{sums[0].clone(), sums[1].clone()};
+            return cloned;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package project23.othello.player;
+
+import project23.framework.ConfigData;
+import project23.othello.board.OthelloBitboards;
+import project23.othello.board.OthelloBoard;
+import project23.othello.board.OthelloPatterns;
+import project23.util.Logger;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Evaluates Othello positions with a weight for every configuration of every {@link OthelloPatterns} type, in every
+ * phase of the game. The value of a position is the sum of the weights of the indices of all pattern instances, which
+ * the {@link OthelloBoard} keeps up to date while moves are executed, so an evaluation only does a table lookup per
+ * instance. On top of that come a few features the patterns can't see, each with a weight per phase: the difference
+ * in stable pieces, frontier pieces and potential mobility, see {@link OthelloBitboards}.
+ * <p>
+ * The value is in pieces: it estimates by how many pieces the player will be ahead at the end of the game.
+ * <p>
+ * The weights are tuned by the {@link project23.headless.OthelloTuner}, which writes them to a weights file, see
+ * {@link #write(OutputStream)}. The AI players load them from {@link ConfigData#getOthelloWeightsFile()}, or else
+ * from the {@link #WEIGHTS_RESOURCE} shipped with the game. Without either, the weights are made from a piece-square
+ * table, see {@link #createInitialWeights()}.
+ */
+public class OthelloPatternEvaluator extends OthelloEvaluator {
+
+    /**
+     * The amount of phases, each covering an equal part of the possible piece counts.
+     */
+    public static final int PHASES = 4;
+
+    /**
+     * Weights for every project23.othello piece, which the initial weights are made from.
+     * https://github.com/Jules-Lion/kurwa/blob/master/Dokumentation/An%20Analysis%20of%20Heuristics%20in%20Othello.pdf
+     * The weight matrix is extract from the paper called "An Analysis of Heuristic in Othello"
+     */
+    private static final float[][] PIECE_WEIGHTS = {
+            {4, -3, 2, 2, 2, 2, -3, 4},
+            {-3, -4, -1, -1, -1, -1, -4, -3},
+            {2, -1, 1, 0, 0, 1, -1, 2},
+            {2, -1, 0, 1, 1, 0, -1, 2},
+            {2, -1, 0, 1, 1, 0, -1, 2},
+            {2, -1, 1, 0, 0, 1, -1, 2},
+            {-3, -4, -1, -1, -1, -1, -4, -3},
+            {4, -3, 2, 2, 2, 2, -3, 4}
+    };
+
+    /**
+     * How many pieces a single point of {@link #PIECE_WEIGHTS} is worth in the initial weights.
+     */
+    private static final float PIECE_WEIGHT_SCALE = 2;
+
+    private static final int CORNER_3X3 = 1;
+
+    public static final int FEATURE_STABLE = 0;
+    public static final int FEATURE_FRONTIER = 1;
+    public static final int FEATURE_POTENTIAL_MOBILITY = 2;
+    public static final int FEATURES = 3;
+
+    /**
+     * The weights file shipped with the game.
+     */
+    public static final String WEIGHTS_RESOURCE = "/othello/weights.bin.gz";
+
+    /**
+     * The first bytes of a weights file: "OPW" and the version of the format. Version 1 files have no feature weights.
+     */
+    private static final int WEIGHTS_MAGIC_V1 = 0x4F505701;
+    private static final int WEIGHTS_MAGIC = 0x4F505702;
+
+    private static OthelloPatternEvaluator defaultEvaluator;
+
+    /**
+     * The weights, by phase, pattern type and index.
+     */
+    private final float[][][] weights;
+
+    /**
+     * The weights of the features, by phase and feature.
+     */
+    private final float[][] featureWeights;
+
+    /**
+     * @param weights        the weights, by phase, pattern type and index
+     * @param featureWeights the weights of the features, by phase and feature
+     */
+    public OthelloPatternEvaluator(float[][][] weights, float[][] featureWeights) {
+        if (weights.length != PHASES || featureWeights.length != PHASES) {
+            throw new IllegalArgumentException("Expected weights for " + PHASES + " phases, got " + weights.length + " and " + featureWeights.length + ".");
+        }
+        for (float[] phaseFeatureWeights : featureWeights) {
+            if (phaseFeatureWeights.length != FEATURES) {
+                throw new IllegalArgumentException("Expected " + FEATURES + " feature weights, got " + phaseFeatureWeights.length + ".");
+            }
+        }
+        for (float[][] phaseWeights : weights) {
+            if (phaseWeights.length != OthelloPatterns.getTypeCount()) {
+                throw new IllegalArgumentException("Expected weights for " + OthelloPatterns.getTypeCount() + " pattern types, got " + phaseWeights.length + ".");
+            }
+            for (int type = 0; type < phaseWeights.length; type++) {
+                if (phaseWeights[type].length != OthelloPatterns.getTypeIndexCount(type)) {
+                    throw new IllegalArgumentException("Expected " + OthelloPatterns.getTypeIndexCount(type) + " weights for pattern " + OthelloPatterns.getTypeName(type) + ", got " + phaseWeights[type].length + ".");
+                }
+            }
+        }
+
+        this.weights = weights;
+        this.featureWeights = featureWeights;
+    }
+
+    /**
+     * @return The evaluator the AI players use, loaded when it's first needed
+     */
+    public static synchronized OthelloPatternEvaluator getDefault() {
+        if (defaultEvaluator == null) {
+            defaultEvaluator = load();
+        }
+        return defaultEvaluator;
+    }
+
+    /**
+     * @param evaluator the evaluator AI players created after calling this use
+     */
+    public static synchronized void setDefault(OthelloPatternEvaluator evaluator) {
+        defaultEvaluator = evaluator;
+    }
+
+    /**
+     * @return The evaluator from the configured weights file, the shipped weights or the initial weights, whichever
+     * is found first
+     */
+    private static OthelloPatternEvaluator load() {
+        File file = ConfigData.getInstance().getOthelloWeightsFile();
+        if (file != null) {
+            try (InputStream in = new FileInputStream(file)) {
+                OthelloPatternEvaluator evaluator = read(in);
+                Logger.info("Loaded the Othello evaluation weights from " + file + ".");
+                return evaluator;
+            } catch (IOException e) {
+                Logger.error("Couldn't load the Othello evaluation weights from " + file + ": " + e.getMessage());
+            }
+        }
+
+        try (InputStream in = OthelloPatternEvaluator.class.getResourceAsStream(WEIGHTS_RESOURCE)) {
+            if (in != null) {
+                return read(in);
+            }
+        } catch (IOException e) {
+            Logger.error("Couldn't load the shipped Othello evaluation weights: " + e.getMessage());
+        }
+
+        Logger.info("Using the untuned Othello evaluation weights.");
+        return new OthelloPatternEvaluator(createInitialWeights(), createInitialFeatureWeights());
+    }
+
+    /**
+     * Reads weights written by {@link #write(OutputStream)}.
+     *
+     * @param in the stream to read from, which is not closed
+     * @return The evaluator with the weights
+     * @throws IOException when the weights couldn't be read, or are for other patterns or phases
+     */
+    public static OthelloPatternEvaluator read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+        int magic = data.readInt();
+        if (magic != WEIGHTS_MAGIC && magic != WEIGHTS_MAGIC_V1) {
+            throw new IOException("Not an Othello weights file.");
+        }
+
+        int phases = data.readInt();
+        int types = data.readInt();
+        if (phases != PHASES || types != OthelloPatterns.getTypeCount()) {
+            throw new IOException("The weights are for " + phases + " phases and " + types + " patterns, expected "
+                    + PHASES + " and " + OthelloPatterns.getTypeCount() + ".");
+        }
+        for (int type = 0; type < types; type++) {
+            int length = data.readInt();
+            if (length != OthelloPatterns.getTypeLength(type)) {
+                throw new IOException("The weights of pattern " + OthelloPatterns.getTypeName(type) + " are for "
+                        + length + " squares, expected " + OthelloPatterns.getTypeLength(type) + ".");
+            }
+        }
+
+        float[][][] weights = new float[phases][types][];
+        for (int phase = 0; phase < phases; phase++) {
+            for (int type = 0; type < types; type++) {
+                weights[phase][type] = new float[OthelloPatterns.getTypeIndexCount(type)];
+                for (int index = 0; index < weights[phase][type].length; index++) {
+                    weights[phase][type][index] = data.readFloat();
+                }
+            }
+        }
+
+        float[][] featureWeights = new float[phases][FEATURES];
+        if (magic != WEIGHTS_MAGIC_V1) {
+            int features = data.readInt();
+            if (features != FEATURES) {
+                throw new IOException("The weights are for " + features + " features, expected " + FEATURES + ".");
+            }
+            for (int phase = 0; phase < phases; phase++) {
+                for (int feature = 0; feature < FEATURES; feature++) {
+                    featureWeights[phase][feature] = data.readFloat();
+                }
+            }
+        }
+
+        return new OthelloPatternEvaluator(weights, featureWeights);
+    }
+
+    /**
+     * Writes the weights as a gzipped header, followed by every weight by phase, pattern type and index, and every
+     * feature weight by phase and feature.
+     *
+     * @param out the stream to write to, which is not closed
+     * @throws IOException when the weights couldn't be written
+     */
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(new FilterOutputStream(out) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip));
+        data.writeInt(WEIGHTS_MAGIC);
+        data.writeInt(PHASES);
+        data.writeInt(OthelloPatterns.getTypeCount());
+        for (int type = 0; type < OthelloPatterns.getTypeCount(); type++) {
+            data.writeInt(OthelloPatterns.getTypeLength(type));
+        }
+        for (float[][] phaseWeights : weights) {
+            for (float[] typeWeights : phaseWeights) {
+                for (float weight : typeWeights) {
+                    data.writeFloat(weight);
+                }
+            }
+        }
+        data.writeInt(FEATURES);
+        for (float[] phaseFeatureWeights : featureWeights) {
+            for (float weight : phaseFeatureWeights) {
+                data.writeFloat(weight);
+            }
+        }
+
+        // Finishes the gzip stream without closing the given stream
+        data.close();
+    }
+
+    /**
+     * @param pieceCount the amount of pieces on the board
+     * @return The phase of the game
+     */
+    public static int getPhase(int pieceCount) {
+        return Math.min(PHASES - 1, Math.max(0, (pieceCount - 4) * PHASES / 61));
+    }
+
+    @Override
+    protected float evaluateUntimed(OthelloBoard board, int id) {
+        int phase = getPhase(board.getPieceCount());
+        float[][] phaseWeights = weights[phase];
+        int[] indices = board.getPatternIndices(id);
+
+        float value = 0;
+        for (int instance = 0; instance < indices.length; instance++) {
+            value += phaseWeights[OthelloPatterns.getInstanceType(instance)][indices[instance]];
+        }
+
+        long own = board.getBitboard(id);
+        long opponent = board.getBitboard(1 - id);
+        float[] phaseFeatureWeights = featureWeights[phase];
+        for (int feature = 0; feature < FEATURES; feature++) {
+            value += phaseFeatureWeights[feature] * getFeature(feature, own, opponent);
+        }
+        return value;
+    }
+
+    /**
+     * @param feature  a feature
+     * @param own      the pieces of the player to evaluate for, as a bitboard
+     * @param opponent the pieces of the opponent, as a bitboard
+     * @return The value of the feature, which is multiplied by its weight in the evaluation: how much the player is
+     * ahead in it
+     */
+    public static int getFeature(int feature, long own, long opponent) {
+        switch (feature) {
+            case FEATURE_STABLE:
+                return Long.bitCount(OthelloBitboards.stable(own, opponent)) - Long.bitCount(OthelloBitboards.stable(opponent, own));
+            case FEATURE_FRONTIER:
+                return OthelloBitboards.frontier(own, opponent) - OthelloBitboards.frontier(opponent, own);
+            case FEATURE_POTENTIAL_MOBILITY:
+                return OthelloBitboards.potentialMobility(own, opponent) - OthelloBitboards.potentialMobility(opponent, own);
+            default:
+                throw new IllegalArgumentException("Unknown feature " + feature + ".");
+        }
+    }
+
+    /**
+     * @return The weights, by phase, pattern type and index. Don't modify the returned array.
+     */
+    public float[][][] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @return The weights of the features, by phase and feature. Don't modify the returned array.
+     */
+    public float[][] getFeatureWeights() {
+        return featureWeights;
+    }
+
+    /**
+     * Makes weights which add up to the static {@link #PIECE_WEIGHTS} evaluation, with two things a piece-square table
+     * can't express: the squares next to a corner only count against a player while the corner is empty, and the
+     * piece count matters more the closer the game is to its end.
+     *
+     * @return The initial weights, by phase, pattern type and index
+     */
+    public static float[][][] createInitialWeights() {
+        // The squares next to the corners are only counted by the 3x3 corner pattern, which can see the corner.
+        // All other squares are spread over the instances covering them.
+        int size = OthelloPatterns.SIZE;
+        int[] coverage = new int[size * size];
+        for (int instance = 0; instance < OthelloPatterns.getInstanceCount(); instance++) {
+            for (int square : OthelloPatterns.getInstanceSquares(instance)) {
+                coverage[square]++;
+            }
+        }
+
+        float[][][] weights = new float[PHASES][OthelloPatterns.getTypeCount()][];
+        for (int phase = 0; phase < PHASES; phase++) {
+            float pieceWeight = (float) phase / (PHASES - 1);
+
+            for (int type = 0; type < OthelloPatterns.getTypeCount(); type++) {
+                // The first instance of every type is the one in the top left corner
+                int[] squares = OthelloPatterns.getInstanceSquares(firstInstance(type));
+                float[] shares = new float[squares.length];
+                float[] sharesCornerTaken = new float[squares.length];
+                for (int k = 0; k < squares.length; k++) {
+                    int x = squares[k] % size, y = squares[k] / size;
+                    float weight = PIECE_WEIGHTS[x][y] * PIECE_WEIGHT_SCALE + pieceWeight;
+                    if (!isNextToCorner(x, y)) {
+                        shares[k] = sharesCornerTaken[k] = weight / coverage[squares[k]];
+                    } else if (type == CORNER_3X3) {
+                        shares[k] = weight;
+                        sharesCornerTaken[k] = pieceWeight;
+                    }
+                }
+
+                float[] typeWeights = new float[OthelloPatterns.getTypeIndexCount(type)];
+                for (int index = 0; index < typeWeights.length; index++) {
+                    // Square 0 of the 3x3 corner pattern is the corner
+                    float[] indexShares = type == CORNER_3X3 && index % 3 != 0 ? sharesCornerTaken : shares;
+
+                    float value = 0;
+                    int remaining = index;
+                    for (int k = 0; k < squares.length; k++, remaining /= 3) {
+                        if (remaining % 3 == 1) {
+                            value += indexShares[k];
+                        } else if (remaining % 3 == 2) {
+                            value -= indexShares[k];
+                        }
+                    }
+                    typeWeights[index] = value;
+                }
+                weights[phase][type] = typeWeights;
+            }
+        }
+
+        return weights;
+    }
+
+    /**
+     * Makes feature weights in pieces: a stable piece is worth a little more than a piece, since it stays, and
+     * frontier pieces and the opponent's potential mobility count against a player until the end of the game
+     * approaches and the pieces themselves count.
+     *
+     * @return The initial feature weights, by phase and feature
+     */
+    public static float[][] createInitialFeatureWeights() {
+        float[][] featureWeights = new float[PHASES][FEATURES];
+        for (int phase = 0; phase < PHASES; phase++) {
+            float opening = 1 - (float) phase / (PHASES - 1);
+            featureWeights[phase][FEATURE_STABLE] = 1.5f;
+            featureWeights[phase][FEATURE_FRONTIER] = -0.5f * opening;
+            featureWeights[phase][FEATURE_POTENTIAL_MOBILITY] = 0.5f * opening;
+        }
+        return featureWeights;
+    }
+
+    private static int firstInstance(int type) {
+        for (int instance = 0; instance < OthelloPatterns.getInstanceCount(); instance++) {
+            if (OthelloPatterns.getInstanceType(instance) == type) {
+                return instance;
+            }
+        }
+        throw new IllegalArgumentException("No instance of pattern type " + type + ".");
+    }
+
+    /**
+     * @param x the X-coordinate of a square
+     * @param y the Y-coordinate of a square
+     * @return Whether the square is one of the three squares around a corner
+     */
+    private static boolean isNextToCorner(int x, int y) {
+        int last = OthelloPatterns.SIZE - 1;
+        int cornerDistanceX = Math.min(x, last - x);
+        int cornerDistanceY = Math.min(y, last - y);
+        return cornerDistanceX <= 1 && cornerDistanceY <= 1 && (cornerDistanceX == 1 || cornerDistanceY == 1);
+    }
+}
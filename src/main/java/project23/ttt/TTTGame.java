@@ -1,6 +1,5 @@
 package project23.ttt;
 
-import javafx.scene.paint.Color;
 import project23.framework.ConfigData;
 import project23.framework.Game;
 import project23.framework.GameManager;
@@ -23,10 +22,10 @@ public class TTTGame extends Game {
             getClass().getResource("/images/boardPieces/ttt_o.png"),
             getClass().getResource("/images/boardPieces/ttt_x.png"));
     private final boolean showPiecesCount = false;
-    private final Color colors = Color.rgb(245, 245, 245);
+    private final String colors = "#f5f5f5";
 
     @Override
-    public BiFunction<Board, Integer, Player> createAIPlayerFactory() {
+    public BiFunction<Board, Integer, Player> createMinimaxAIPlayerFactory() {
         return (board, id) -> new TTTMinimaxAIPlayer(
                 board,
                 id,
@@ -40,7 +39,7 @@ public class TTTGame extends Game {
     }
 
     @Override
-    public Color getBoardBackgroundColor() {
+    public String getBoardBackgroundColor() {
         return colors;
     }
 
@@ -14,18 +14,38 @@ public class TTTMinimaxAIPlayer extends MinimaxAIPlayer {
         super(board, id, difficulty);
     }
 
+    /**
+     * The board is small, so looking for symmetries is cheap, and many positions are symmetric.
+     */
+    @Override
+    protected boolean isSymmetryWorthChecking(Board board) {
+        return true;
+    }
+
+    /**
+     * A win scores higher the more squares are still empty, so the quickest win and the slowest loss are preferred.
+     * This depends on the position only and not on the depth it was searched at, so the value stays right when the
+     * transposition table hands it to a search at another depth.
+     */
     @Override
     protected float evaluateBoard(Board board, int treeDepth) {
         Player winner = board.calculateWinner();
+        if (winner == null) {
+            // Draw or no win
+            return 0;
+        }
+
+        int empty = board.getWidth() * board.getHeight();
+        for (int count : board.piecesCount().values()) {
+            empty -= count;
+        }
+
         if (winner == this) {
             // Win for self
-            return 10 + treeDepth;
-        } else if (winner != null) {
-            // Win for other
-            return -10 - treeDepth;
+            return 10 + empty;
         } else {
-            // Draw or no win
-            return 0;
+            // Win for other
+            return -10 - empty;
         }
     }
 
@@ -0,0 +1,146 @@
+package project23.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds.
+ * <p>
+ * Values are stored in log-linear buckets: every power of two is split into 8 sub-buckets, so a recorded value is
+ * off by at most 12.5%. Recording is a handful of atomic increments, so it is cheap enough to do on the network
+ * and search threads.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + 2 * SUB_BUCKET_COUNT;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param name The name of this histogram, used in {@link #toString()}
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a duration. Negative durations are recorded as 0.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet(bucketIndex(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * @return The amount of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return The largest recorded value in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return The mean of all recorded values in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMean() {
+        long count = this.count.get();
+        return count == 0 ? 0 : sum.get() / count;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return An estimation of the value at the given percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long count = this.count.get();
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(bucketMiddle(i), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    /**
+     * @return The name of this histogram
+     */
+    public String getName() {
+        return name;
+    }
+
+    private static int bucketIndex(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        if (msb < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+
+        int shift = msb - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    private static long bucketMiddle(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lower = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) / 2;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-14s n=%-4d mean=%-10s p50=%-10s p90=%-10s p99=%-10s max=%s",
+                name,
+                getCount(),
+                formatMillis(getMean()),
+                formatMillis(getPercentile(50)),
+                formatMillis(getPercentile(90)),
+                formatMillis(getPercentile(99)),
+                formatMillis(getMax()));
+    }
+}
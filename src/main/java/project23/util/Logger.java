@@ -6,20 +6,69 @@ import java.io.*;
 import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
+/**
+ * Leveled logging which never blocks the caller.
+ * <p>
+ * Log calls only put a message in a lock-free ring buffer, which is drained by a background writer thread. The writer
+ * formats the messages and writes them to the console (and the log file, see {@link #setWriteToFile(File)}) in
+ * batches. When the buffer is full, messages are dropped instead of waiting for the writer; the amount of dropped
+ * messages is reported once there is room again.
+ * <p>
+ * Messages which are expensive to build can be passed as a {@link Supplier}, which is only called when the level
+ * is enabled. The supplier is called on the calling thread, so it can safely read state of the caller.
+ */
 public class Logger {
 
     private Logger() {
     }
 
-    public static boolean DEBUG = true;
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final int BUFFER_CAPACITY = 1 << 13;
+    private static final int BUFFER_MASK = BUFFER_CAPACITY - 1;
+
+    /**
+     * The maximum amount of messages the writer writes at once, so a busy logger still gets its output flushed.
+     */
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    /**
+     * The longest time the writer sleeps when it wasn't woken up, in nanoseconds.
+     */
+    private static final long WRITER_IDLE_NANOS = 100_000_000;
+
+    private static volatile Level level = parseLevel(System.getProperty("project23.log.level"), Level.DEBUG);
+
+    private static final AtomicReferenceArray<Entry> buffer = new AtomicReferenceArray<>(BUFFER_CAPACITY);
+    // The next slot to claim by a producer, and the next slot to read by the writer
+    private static final AtomicLong head = new AtomicLong();
+    private static final AtomicLong tail = new AtomicLong();
+    // Everything before this slot has been written to the streams
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static final Thread writerThread;
+    private static volatile boolean writerSleeping = false;
 
     private static PrintStream fileStream;
 
     static {
+        writerThread = new Thread(Logger::writeLoop, "LoggerWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            flush();
+
             if (fileStream != null) {
-                info("Closing log-file stream");
+                System.out.println(format(new Entry(Level.INFO, "Closing log-file stream")));
                 fileStream.flush();
                 fileStream.close();
             }
@@ -47,14 +96,14 @@ public class Logger {
             }
         }
 
-        // Start the streams
+        // Start the streams. The file is flushed by the writer after every batch, and by the shutdown hook.
         try {
-            fileStream = new PrintStream(new FileOutputStream(file));
+            fileStream = new PrintStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
 
             TeeOutputStream newOut = new TeeOutputStream(System.out, fileStream);
             TeeOutputStream newErr = new TeeOutputStream(System.err, fileStream);
 
-            System.setOut(new PrintStream(newOut, true));
+            System.setOut(new PrintStream(newOut, false));
             System.setErr(new PrintStream(newErr, true));
         } catch (FileNotFoundException e) {
             warning("Could not start logging to file '" + file.getName() + "'!");
@@ -62,33 +111,194 @@ public class Logger {
         }
     }
 
+    /**
+     * @param level The lowest level which gets logged
+     */
+    public static void setLevel(Level level) {
+        Logger.level = level;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @param level The level to check
+     * @return Whether messages of the given level get logged
+     */
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(Logger.level) >= 0;
+    }
+
+    /**
+     * @param name     The name of a level, case insensitive
+     * @param fallback The level to return when the name is <code>null</code> or not a level
+     * @return The level
+     */
+    public static Level parseLevel(String name, Level fallback) {
+        if (name == null) {
+            return fallback;
+        }
+
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * @return The amount of messages which were dropped because the buffer was full
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
     public static void info(String msg) {
-        out("INFO", msg);
+        log(Level.INFO, msg);
+    }
+
+    public static void info(Supplier<String> msg) {
+        log(Level.INFO, msg);
     }
 
     public static void debug(String msg) {
-        if (DEBUG) {
-            out("DEBUG", msg);
-        }
+        log(Level.DEBUG, msg);
+    }
+
+    public static void debug(Supplier<String> msg) {
+        log(Level.DEBUG, msg);
     }
 
     public static void warning(String msg) {
-        err("WARN", msg);
+        log(Level.WARN, msg);
+    }
+
+    public static void warning(Supplier<String> msg) {
+        log(Level.WARN, msg);
     }
 
     public static void error(String msg) {
-        err("ERROR", msg);
+        log(Level.ERROR, msg);
+    }
+
+    public static void error(Supplier<String> msg) {
+        log(Level.ERROR, msg);
     }
 
-    private static void out(String type, String msg) {
-        log(System.out, type, msg);
+    private static void log(Level level, Supplier<String> msg) {
+        if (isEnabled(level)) {
+            enqueue(new Entry(level, msg.get()));
+        }
+    }
+
+    private static void log(Level level, String msg) {
+        if (isEnabled(level)) {
+            enqueue(new Entry(level, msg));
+        }
+    }
+
+    private static void enqueue(Entry entry) {
+        while (true) {
+            long claim = head.get();
+            if (claim - tail.get() >= BUFFER_CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+
+            if (head.compareAndSet(claim, claim + 1)) {
+                buffer.set((int) (claim & BUFFER_MASK), entry);
+                break;
+            }
+        }
+
+        if (writerSleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Waits until all messages logged before this call have been written. Logging itself never waits, this is
+     * meant for moments like shutting down.
+     */
+    public static void flush() {
+        long target = head.get();
+        while (written.get() < target && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    private static void writeLoop() {
+        StringBuilder batch = new StringBuilder();
+        long reportedDropped = 0;
+
+        while (true) {
+            PrintStream batchStream = null;
+            long position = tail.get();
+
+            Entry entry;
+            int batchSize = 0;
+            while (batchSize++ < MAX_BATCH_SIZE &&
+                    position < head.get() &&
+                    (entry = buffer.get((int) (position & BUFFER_MASK))) != null) {
+                // The slot may only be reused after it was cleared
+                buffer.set((int) (position & BUFFER_MASK), null);
+                tail.set(++position);
+
+                // Batch consecutive messages which go to the same stream, to keep the order between them
+                PrintStream stream = entry.level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+                if (batchStream != null && batchStream != stream) {
+                    batchStream.print(batch);
+                    batch.setLength(0);
+                }
+                batchStream = stream;
+                batch.append(format(entry)).append(System.lineSeparator());
+            }
+
+            long droppedNow = dropped.get();
+            if (droppedNow != reportedDropped) {
+                if (batchStream != null && batchStream != System.err) {
+                    batchStream.print(batch);
+                    batch.setLength(0);
+                }
+                batchStream = System.err;
+                batch.append(format(new Entry(Level.WARN, "Dropped " + (droppedNow - reportedDropped) +
+                        " log messages because the log buffer was full!"))).append(System.lineSeparator());
+                reportedDropped = droppedNow;
+            }
+
+            if (batchStream != null) {
+                batchStream.print(batch);
+                batch.setLength(0);
+
+                System.out.flush();
+                System.err.flush();
+                written.set(position);
+                continue;
+            }
+
+            writerSleeping = true;
+            if (tail.get() == head.get()) {
+                LockSupport.parkNanos(WRITER_IDLE_NANOS);
+            }
+            writerSleeping = false;
+        }
     }
 
-    private static void err(String type, String msg) {
-        log(System.err, type, msg);
+    private static String format(Entry entry) {
+        return String.format("[%tT] [%s] %s", entry.timestamp, entry.level, entry.message);
     }
 
-    private static void log(PrintStream stream, String type, String msg) {
-        stream.format("[%tT] [%s] %s%n", System.currentTimeMillis(), type, msg);
+    private static class Entry {
+
+        private final long timestamp = System.currentTimeMillis();
+        private final Level level;
+        private final String message;
+
+        public Entry(Level level, String message) {
+            this.level = level;
+            this.message = message;
+        }
     }
 }